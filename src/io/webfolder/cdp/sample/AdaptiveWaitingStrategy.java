@@ -0,0 +1,127 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Spins, then yields, then parks.
+ *
+ * The spin and yield budgets follow the observed reply latency (exponentially weighted
+ * moving average): replies which usually arrive within the spin limit are awaited with
+ * a busy loop, the caller yields while the reply is still likely to arrive within the
+ * yield limit, otherwise it parks like {@link VirtualThreadWaitingStrategy}.
+ * Virtual threads and callers on single core machines always park.
+ *
+ * A single instance is meant to be shared by the callers of one connection,
+ * replies over a pipe and over a remote WebSocket have very different latencies.
+ */
+public class AdaptiveWaitingStrategy implements ReplyWaitingStrategy {
+
+    // Thread.onSpinWait (Java 9) and Thread.isVirtual (Java 21) are looked up at runtime
+    private static final MethodHandle ON_SPIN_WAIT;
+
+    private static final MethodHandle IS_VIRTUAL;
+
+    static {
+        MethodHandle onSpinWait = null;
+        MethodHandle isVirtual = null;
+        try {
+            onSpinWait = MethodHandles.publicLookup().findStatic(Thread.class, "onSpinWait", methodType(void.class));
+        } catch (ReflectiveOperationException e) {
+            // ignore
+        }
+        try {
+            isVirtual = MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            // ignore
+        }
+        ON_SPIN_WAIT = onSpinWait;
+        IS_VIRTUAL = isVirtual;
+    }
+
+    private final long spinLimit;
+
+    private final long yieldLimit;
+
+    // racy updates are fine, the average only tunes the budgets
+    private volatile long averageLatency;
+
+    public AdaptiveWaitingStrategy() {
+        this(50, 200);
+    }
+
+    /**
+     * @param spinLimit maximum time to spin in microseconds
+     * @param yieldLimit maximum time to wait before parking in microseconds
+     */
+    public AdaptiveWaitingStrategy(long spinLimit, long yieldLimit) {
+        // spinning or yielding on a single core only delays the thread which completes the reply
+        boolean multiCore = Runtime.getRuntime().availableProcessors() > 1;
+        this.spinLimit = multiCore ? MICROSECONDS.toNanos(spinLimit) : 0;
+        this.yieldLimit = multiCore ? MICROSECONDS.toNanos(yieldLimit) : 0;
+        this.averageLatency = MICROSECONDS.toNanos(spinLimit);
+    }
+
+    @Override
+    public <T> T await(CompletableFuture<T> future, int timeout) {
+        long start = nanoTime();
+        if ( ! future.isDone() ) {
+            if ( isVirtual() ) {
+                VirtualThreadWaitingStrategy.parkUntilDone(future, timeout, start);
+            } else {
+                long expected = averageLatency;
+                // twice the average covers most replies without spinning for the slow ones
+                long spin = expected <= spinLimit ? Math.min(2 * expected, spinLimit) : 0;
+                long yield = expected <= yieldLimit ? yieldLimit : 0;
+                long elapsed = 0;
+                while ( elapsed < spin && ! future.isDone() ) {
+                    onSpinWait();
+                    elapsed = nanoTime() - start;
+                }
+                while ( elapsed < yield && ! future.isDone() ) {
+                    Thread.yield();
+                    elapsed = nanoTime() - start;
+                }
+                if ( ! future.isDone() ) {
+                    VirtualThreadWaitingStrategy.parkUntilDone(future, timeout, start);
+                }
+            }
+            long latency = nanoTime() - start;
+            averageLatency += (latency - averageLatency) >> 3;
+        }
+        return ReplyWaitingStrategy.getResult(future);
+    }
+
+    /**
+     * @return average reply latency in nanoseconds
+     */
+    public long getAverageLatency() {
+        return averageLatency;
+    }
+
+    private static void onSpinWait() {
+        if ( ON_SPIN_WAIT != null ) {
+            try {
+                ON_SPIN_WAIT.invokeExact();
+            } catch (Throwable e) {
+                // ignore
+            }
+        }
+    }
+
+    private static boolean isVirtual() {
+        if ( IS_VIRTUAL == null ) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(Thread.currentThread());
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package io.webfolder.cdp.sample;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.webfolder.cdp.channel.Channel;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.channel.Connection;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.exception.CdpReadTimeoutException;
+import io.webfolder.cdp.exception.CommandException;
+import io.webfolder.cdp.session.MessageHandler;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Decorates a {@link ChannelFactory} so that commands can be sent without
+ * parking the caller. Replies are correlated by id on the reading thread and
+ * the {@link CompletableFuture} is completed on a completion executor, every
+ * other message is passed through to the cdp4j message handler unchanged.
+ *
+ * The completion executor is never the cdp4j worker thread pool: cdp4j processes
+ * its own replies there, a dependent stage making a blocking cdp4j call would wait
+ * for a reply queued behind itself. By default a cached thread pool owned by the
+ * factory is used, so that the callbacks can block.
+ *
+ * A factory serves a single {@link SessionFactory}, create one per browser.
+ *
+ * Ids are allocated from {@link #FIRST_ID} upwards, cdp4j's own per-session
+ * counters start from 1 so both id spaces never collide. Pending commands are
+ * kept in a {@link CorrelationTable} and expired by a single sweeper task.
+ */
+public class AsyncChannelFactory implements ChannelFactory, AutoCloseable {
+
+    public static final int FIRST_ID = 1 << 30;
+
+    private static final byte[] REPLY_PREFIX = "{\"id\":".getBytes(UTF_8);
+
+    private static final int TABLE_CAPACITY = 1024;
+
+    private final ChannelFactory delegate;
+
+    private final AtomicInteger counter = new AtomicInteger(FIRST_ID);
+
+    private final CorrelationTable pending = new CorrelationTable(TABLE_CAPACITY);
+
+    private final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "cdp4j-AsyncTimeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Executor executor;
+
+    private final ExecutorService ownExecutor;
+
+    private final AtomicBoolean bound = new AtomicBoolean();
+
+    private volatile Channel channel;
+
+    private volatile int readTimeout;
+
+    private volatile ScheduledFuture<?> sweeper;
+
+    private final BiConsumer<CompletableFuture<JsonObject>, String> expire = (future, method) ->
+                        future.completeExceptionally(new CdpReadTimeoutException(readTimeout + "ms timeout exceeded: " + method));
+
+    public AsyncChannelFactory(ChannelFactory delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param executor completes the futures, <code>null</code> for a cached thread pool owned by the factory.
+     *                 Must not be the worker thread pool of cdp4j.
+     */
+    public AsyncChannelFactory(ChannelFactory delegate, Executor executor) {
+        this.delegate = delegate;
+        this.timer.setRemoveOnCancelPolicy(true);
+        if ( executor == null ) {
+            AtomicInteger threads = new AtomicInteger();
+            this.ownExecutor = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "cdp4j-AsyncReply-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownExecutor;
+        } else {
+            this.ownExecutor = null;
+            this.executor = executor;
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the factory is used by another SessionFactory already
+     */
+    @Override
+    public Channel createChannel(Connection connection, SessionFactory factory, MessageHandler handler) {
+        if ( ! bound.compareAndSet(false, true) ) {
+            throw new IllegalStateException("AsyncChannelFactory is used by another SessionFactory");
+        }
+        Integer timeout = factory.getOptions().readTimeout();
+        readTimeout = timeout == null ? 0 : timeout.intValue();
+        if ( readTimeout > 0 && sweeper == null ) {
+            // timeouts are detected with a resolution of 1/10 of the read timeout, at most 100ms
+            long period = Math.max(1, Math.min(readTimeout / 10, 100));
+            sweeper = timer.scheduleWithFixedDelay(() -> pending.removeExpired(nanoTime(), expire), period, period, MILLISECONDS);
+        }
+        factory.addCloseListener(() -> failAll(new CdpException("SessionFactory closed")));
+        channel = delegate.createChannel(connection, factory, new AsyncMessageHandler(handler));
+        return channel;
+    }
+
+    /**
+     * Sends a command and returns immediately.
+     *
+     * @param sessionId target session id or <code>null</code> for the browser session
+     * @param method fully qualified command name e.g. <code>Page.navigate</code>
+     * @param params command parameters, might be <code>null</code>
+     *
+     * @return future which is completed with the <code>result</code> object of the reply
+     */
+    public CompletableFuture<JsonObject> send(String sessionId, String method, JsonObject params) {
+        Channel channel = this.channel;
+        CompletableFuture<JsonObject> future = new CompletableFuture<>();
+        if ( channel == null || ! channel.isOpen() ) {
+            future.completeExceptionally(new CdpException("Channel is not open"));
+            return future;
+        }
+        int id = nextId();
+        JsonObject request = new JsonObject();
+        request.addProperty("id", id);
+        if ( sessionId != null ) {
+            request.addProperty("sessionId", sessionId);
+        }
+        request.addProperty("method", method);
+        if ( params != null && params.size() > 0 ) {
+            request.add("params", params);
+        }
+        long deadline = readTimeout > 0 ? nanoTime() + MILLISECONDS.toNanos(readTimeout) : Long.MAX_VALUE;
+        pending.put(id, future, method, deadline);
+        try {
+            channel.sendText(request.toString());
+        } catch (RuntimeException e) {
+            pending.remove(id);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return executor which completes the futures and runs their dependent stages
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        failAll(new CdpException("AsyncChannelFactory closed"));
+        if ( ownExecutor != null ) {
+            ownExecutor.shutdown();
+        }
+        if ( delegate instanceof AutoCloseable ) {
+            try {
+                ((AutoCloseable) delegate).close();
+            } catch (Exception e) {
+                throw new CdpException(e);
+            }
+        }
+    }
+
+    protected void failAll(Throwable cause) {
+        pending.removeExpired(Long.MAX_VALUE, (future, method) -> future.completeExceptionally(cause));
+    }
+
+    private int nextId() {
+        int id = counter.getAndIncrement();
+        if ( id < FIRST_ID ) {
+            // wrapped around after 2^31 commands, restart from the beginning of our range
+            counter.compareAndSet(id + 1, FIRST_ID + 1);
+            id = FIRST_ID;
+        }
+        return id;
+    }
+
+    // Chrome always serializes the id as the first member of a reply,
+    // that's enough to pick our replies without parsing the message
+    static int readReplyId(byte[] message) {
+        if ( message.length <= REPLY_PREFIX.length ) {
+            return -1;
+        }
+        for (int i = 0; i < REPLY_PREFIX.length; i++) {
+            if ( message[i] != REPLY_PREFIX[i] ) {
+                return -1;
+            }
+        }
+        int id = 0;
+        for (int i = REPLY_PREFIX.length; i < message.length; i++) {
+            byte b = message[i];
+            if ( b < '0' || b > '9' ) {
+                return i == REPLY_PREFIX.length ? -1 : id;
+            }
+            id = id * 10 + (b - '0');
+            if ( id < 0 ) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    static int readReplyId(String message) {
+        if ( ! message.startsWith("{\"id\":") ) {
+            return -1;
+        }
+        int id = 0;
+        for (int i = REPLY_PREFIX.length; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if ( c < '0' || c > '9' ) {
+                return i == REPLY_PREFIX.length ? -1 : id;
+            }
+            id = id * 10 + (c - '0');
+            if ( id < 0 ) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private void complete(CompletableFuture<JsonObject> future, JsonObject reply) {
+        JsonElement error = reply.get("error");
+        if ( error != null && error.isJsonObject() ) {
+            JsonObject err = error.getAsJsonObject();
+            int code = err.has("code") ? err.get("code").getAsInt() : 0;
+            String message = err.has("message") ? err.get("message").getAsString() : "";
+            if ( err.has("data") ) {
+                message += " " + err.get("data").toString();
+            }
+            future.completeExceptionally(new CommandException(code, message));
+        } else {
+            JsonElement result = reply.get("result");
+            future.complete(result != null && result.isJsonObject() ? result.getAsJsonObject() : new JsonObject());
+        }
+    }
+
+    private class AsyncMessageHandler implements MessageHandler {
+
+        private final MessageHandler handler;
+
+        AsyncMessageHandler(MessageHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void process(String message) {
+            CompletableFuture<JsonObject> future = pull(readReplyId(message));
+            if ( future == null ) {
+                handler.process(message);
+            } else {
+                dispatch(future, () -> {
+                    try {
+                        complete(future, JsonParser.parseString(message).getAsJsonObject());
+                    } catch (RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void process(byte[] message) {
+            CompletableFuture<JsonObject> future = pull(readReplyId(message));
+            if ( future == null ) {
+                handler.process(message);
+            } else {
+                dispatch(future, () -> {
+                    try (Reader reader = new InputStreamReader(new ByteArrayInputStream(message), UTF_8)) {
+                        complete(future, JsonParser.parseReader(reader).getAsJsonObject());
+                    } catch (IOException | RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void process(InputStream message) {
+            InputStream is = message.markSupported() ? message : new BufferedInputStream(message);
+            byte[] prefix = new byte[REPLY_PREFIX.length + 11];
+            int len = 0;
+            try {
+                is.mark(prefix.length);
+                int read;
+                while ( len < prefix.length && (read = is.read(prefix, len, prefix.length - len)) > 0 ) {
+                    len += read;
+                }
+                is.reset();
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+            byte[] head = len == prefix.length ? prefix : Arrays.copyOf(prefix, len);
+            CompletableFuture<JsonObject> future = pull(readReplyId(head));
+            if ( future == null ) {
+                handler.process(is);
+            } else {
+                dispatch(future, () -> {
+                    try (Reader reader = new InputStreamReader(is, UTF_8)) {
+                        complete(future, JsonParser.parseReader(reader).getAsJsonObject());
+                    } catch (IOException | RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            }
+        }
+
+        private void dispatch(CompletableFuture<JsonObject> future, Runnable task) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(new CdpException("AsyncChannelFactory closed"));
+            }
+        }
+
+        private CompletableFuture<JsonObject> pull(int id) {
+            return id >= FIRST_ID ? pending.remove(id) : null;
+        }
+    }
+}
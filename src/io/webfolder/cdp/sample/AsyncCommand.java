@@ -0,0 +1,168 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.reflect.Proxy.newProxyInstance;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import io.webfolder.cdp.annotation.Domain;
+import io.webfolder.cdp.annotation.Returns;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.serialization.GsonMapper;
+import io.webfolder.cdp.session.Session;
+
+/**
+ * Non-blocking counterpart of {@link io.webfolder.cdp.session.Command}.
+ *
+ * The generated command interfaces (Page, Runtime, Network...) are reused as
+ * they are, the call is recorded through a proxy and sent with
+ * {@link AsyncChannelFactory#send(String, String, JsonObject)}.
+ *
+ * <pre>
+ * AsyncCommand async = new AsyncCommand(session, channelFactory);
+ * CompletableFuture&lt;NavigateResult&gt; result = async.call(Page.class, page -&gt; page.navigate(url));
+ * </pre>
+ */
+public class AsyncCommand {
+
+    private static final Gson GSON = (Gson) new GsonMapper().getMapper();
+
+    private final String sessionId;
+
+    private final AsyncChannelFactory channelFactory;
+
+    public AsyncCommand(Session session, AsyncChannelFactory channelFactory) {
+        this(session.getId(), channelFactory);
+    }
+
+    public AsyncCommand(String sessionId, AsyncChannelFactory channelFactory) {
+        this.sessionId = sessionId;
+        this.channelFactory = channelFactory;
+    }
+
+    public <D, T> CompletableFuture<T> call(Class<D> domain, Function<D, T> command) {
+        Invocation invocation = record(domain, command::apply);
+        return send(invocation);
+    }
+
+    public <D> CompletableFuture<Void> run(Class<D> domain, Consumer<D> command) {
+        Invocation invocation = record(domain, proxy -> {
+            command.accept(proxy);
+            return null;
+        });
+        return send(invocation).thenApply(result -> null);
+    }
+
+    public CompletableFuture<JsonObject> send(String method, JsonObject params) {
+        return channelFactory.send(sessionId, method, params);
+    }
+
+    public CommandBatch batch() {
+        return new CommandBatch(this);
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public AsyncChannelFactory getChannelFactory() {
+        return channelFactory;
+    }
+
+    static Gson getGson() {
+        return GSON;
+    }
+
+    <T> CompletableFuture<T> send(Invocation invocation) {
+        return channelFactory.send(sessionId, invocation.getMethodName(), invocation.getParams())
+                                .thenApply(invocation::<T>readResult);
+    }
+
+    <D> Invocation record(Class<D> domain, Function<D, Object> command) {
+        Domain annotation = domain.getAnnotation(Domain.class);
+        if ( annotation == null ) {
+            throw new CdpException(domain.getName() + " is not a DevTools domain");
+        }
+        Invocation invocation = new Invocation(annotation.value());
+        D proxy = domain.cast(newProxyInstance(domain.getClassLoader(), new Class<?>[] { domain }, (p, method, args) -> {
+            if ( method.getDeclaringClass() == Object.class ) {
+                return method.invoke(invocation, args);
+            }
+            invocation.record(method, args);
+            return null;
+        }));
+        command.apply(proxy);
+        if ( invocation.method == null ) {
+            throw new CdpException("No command invoked on " + domain.getSimpleName());
+        }
+        return invocation;
+    }
+
+    static class Invocation {
+
+        private final String domain;
+
+        private Method method;
+
+        private Object[] args;
+
+        Invocation(String domain) {
+            this.domain = domain;
+        }
+
+        void record(Method method, Object[] args) {
+            if ( this.method != null ) {
+                throw new CdpException("Only one command could be recorded per call");
+            }
+            this.method = method;
+            this.args = args;
+        }
+
+        String getMethodName() {
+            return domain + "." + method.getName();
+        }
+
+        JsonObject getParams() {
+            JsonObject params = new JsonObject();
+            if ( args == null ) {
+                return params;
+            }
+            Parameter[] parameters = method.getParameters();
+            for (int i = 0; i < parameters.length; i++) {
+                if ( args[i] == null ) {
+                    continue;
+                }
+                if ( ! parameters[i].isNamePresent() ) {
+                    throw new CdpException("Parameter names are not available for " + getMethodName());
+                }
+                params.add(parameters[i].getName(), GSON.toJsonTree(args[i]));
+            }
+            return params;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T readResult(JsonObject result) {
+            Type type = method.getGenericReturnType();
+            if ( void.class.equals(type) ) {
+                return null;
+            }
+            JsonElement element = result;
+            Returns returns = method.getAnnotation(Returns.class);
+            if ( returns != null ) {
+                element = result.get(returns.value());
+                if ( element == null || element.isJsonNull() ) {
+                    return null;
+                }
+            }
+            return (T) GSON.fromJson(element, type);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.webfolder.cdp.sample;
+
+import static java.util.Arrays.asList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.command.Page;
+import io.webfolder.cdp.command.Runtime;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+import io.webfolder.cdp.type.runtime.EvaluateResult;
+
+// Commands sent through AsyncCommand do not park the caller thread,
+// the returned CompletableFuture is completed when the reply arrives.
+public class AsyncCommandExample {
+
+    public static void main(String[] args) {
+        List<String> urls = asList("https://webfolder.io",
+                                   "https://example.com",
+                                   "https://httpbin.org/html");
+
+        Options options = Options.builder()
+                                    .headless(true)
+                                .build();
+
+        AsyncChannelFactory channelFactory = new AsyncChannelFactory(new NvWebSocketFactory());
+
+        Launcher launcher = new Launcher(options, channelFactory);
+
+        try (SessionFactory factory = launcher.launch()) {
+
+            List<Session> sessions = new ArrayList<>();
+            List<CompletableFuture<Void>> titles = new ArrayList<>();
+
+            for (String url : urls) {
+                Session session = factory.create();
+                sessions.add(session);
+
+                AsyncCommand async = new AsyncCommand(session, channelFactory);
+
+                // navigate all tabs at once without waiting the previous one
+                CompletableFuture<Void> title = async.call(Page.class, page -> page.navigate(url))
+                                    .thenCompose(result -> async.call(Runtime.class, runtime -> runtime.evaluate("document.title")))
+                                    .thenAccept((EvaluateResult result) -> System.out.println(url + " -> " + result.getResult().getValue()));
+                titles.add(title);
+            }
+
+            CompletableFuture.allOf(titles.toArray(new CompletableFuture<?>[0])).join();
+
+            for (Session session : sessions) {
+                session.close();
+            }
+        } finally {
+            launcher.kill();
+            channelFactory.close();
+        }
+    }
+}
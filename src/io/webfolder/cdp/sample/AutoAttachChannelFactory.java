@@ -0,0 +1,309 @@
+package io.webfolder.cdp.sample;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.webfolder.cdp.channel.Channel;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.channel.Connection;
+import io.webfolder.cdp.event.Events;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.logger.CdpLogger;
+import io.webfolder.cdp.logger.CdpLoggerFactory;
+import io.webfolder.cdp.session.MessageHandler;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Decorates a {@link ChannelFactory} with the flattened auto attach mode of DevTools: out-of-process
+ * iframes and workers of a page are attached as {@link ChildSession}s on the same channel, instead of
+ * switching the execution context of the page session from frame to frame.
+ *
+ * {@link #autoAttach(Session)} sends <code>Target.setAutoAttach</code> with <code>flatten</code> to the
+ * page. Chrome pauses each new child until <code>Runtime.runIfWaitingForDebugger</code>, the attach
+ * listeners are notified first so that they can enable domains or add listeners before the child runs.
+ * They run on a thread pool owned by the factory, not on the worker thread pool of cdp4j, so a listener
+ * may wait for the reply of a command of the child or of its page.
+ * Auto attach is enabled on child frames as well, nested out-of-process iframes are attached to the
+ * same page.
+ *
+ * Messages of child sessions are recognized by the trailing <code>"sessionId":"</code> member and
+ * never reach cdp4j, which does not know their session, every other message is passed through unchanged.
+ *
+ * <pre>
+ * AutoAttachChannelFactory channelFactory = new AutoAttachChannelFactory(new NvWebSocketFactory());
+ * channelFactory.addAttachListener(child -&gt; System.out.println(child));
+ * channelFactory.autoAttach(session);
+ * </pre>
+ */
+public class AutoAttachChannelFactory extends AsyncChannelFactory {
+
+    private static final Gson GSON = AsyncCommand.getGson();
+
+    private static final String ATTACHED = "Target.attachedToTarget";
+
+    private static final String DETACHED = "Target.detachedFromTarget";
+
+    // page sessions with auto attach, and their children
+    private final Set<String> parents = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, ChildSession> children = new ConcurrentHashMap<>();
+
+    private final List<Consumer<ChildSession>> attachListeners = new CopyOnWriteArrayList<>();
+
+    // notifies the attach listeners, which may block on the replies read by the worker of cdp4j
+    private final ExecutorService listenerExecutor;
+
+    private volatile CdpLogger logger;
+
+    public AutoAttachChannelFactory(ChannelFactory delegate) {
+        super(delegate);
+        AtomicInteger threads = new AtomicInteger();
+        this.listenerExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "cdp4j-AutoAttach-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Channel createChannel(Connection connection, SessionFactory factory, MessageHandler handler) {
+        logger = new CdpLoggerFactory(factory.getOptions()).getLogger("cdp4j.autoattach");
+        factory.addCloseListener(() -> {
+            parents.clear();
+            for (ChildSession next : children.values()) {
+                next.detached();
+            }
+            children.clear();
+        });
+        return super.createChannel(connection, factory, new AutoAttachMessageHandler(handler));
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            listenerExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Attaches the out-of-process iframes and workers of the page, current and future ones.
+     */
+    public void autoAttach(Session session) {
+        String sessionId = session.getId();
+        if ( ! parents.add(sessionId) ) {
+            return;
+        }
+        session.addCloseListener(() -> {
+            parents.remove(sessionId);
+            for (ChildSession next : getChildren(sessionId)) {
+                detached(next.getId());
+            }
+        });
+        try {
+            setAutoAttach(sessionId).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CdpException(e);
+        } catch (ExecutionException e) {
+            parents.remove(sessionId);
+            Throwable cause = e.getCause();
+            throw cause instanceof CdpException ? (CdpException) cause : new CdpException(cause);
+        }
+    }
+
+    /**
+     * Notified on a thread pool of the factory when a target is attached, before it runs.
+     */
+    public void addAttachListener(Consumer<ChildSession> listener) {
+        attachListeners.add(listener);
+    }
+
+    public void removeAttachListener(Consumer<ChildSession> listener) {
+        attachListeners.remove(listener);
+    }
+
+    /**
+     * @return attached iframes and workers of the page, nested iframes included
+     */
+    public List<ChildSession> getChildren(Session session) {
+        return getChildren(session.getId());
+    }
+
+    /**
+     * @return the child session of a target, the target id of an out-of-process iframe is its frame id
+     */
+    public ChildSession getChild(String targetId) {
+        for (ChildSession next : children.values()) {
+            if ( next.getTargetId().equals(targetId) ) {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    private List<ChildSession> getChildren(String rootId) {
+        return children.values()
+                        .stream()
+                        .filter(child -> child.getRootId().equals(rootId))
+                    .collect(toList());
+    }
+
+    private CompletableFuture<JsonObject> setAutoAttach(String sessionId) {
+        JsonObject params = new JsonObject();
+        params.addProperty("autoAttach", true);
+        params.addProperty("waitForDebuggerOnStart", true);
+        params.addProperty("flatten", true);
+        return send(sessionId, "Target.setAutoAttach", params);
+    }
+
+    private void attached(String parentId, JsonObject params) {
+        JsonObject info = params.getAsJsonObject("targetInfo");
+        ChildSession parent = children.get(parentId);
+        ChildSession child = new ChildSession(this,
+                                    params.get("sessionId").getAsString(),
+                                    info.get("targetId").getAsString(),
+                                    info.get("type").getAsString(),
+                                    info.has("url") ? info.get("url").getAsString() : null,
+                                    parentId,
+                                    parent == null ? parentId : parent.getRootId());
+        children.put(child.getId(), child);
+        boolean waiting = params.has("waitingForDebugger") && params.get("waitingForDebugger").getAsBoolean();
+        try {
+            listenerExecutor.execute(() -> notifyAttached(child, waiting));
+        } catch (RejectedExecutionException e) {
+            // the factory is closed
+        }
+    }
+
+    private void notifyAttached(ChildSession child, boolean waiting) {
+        for (Consumer<ChildSession> next : attachListeners) {
+            try {
+                next.accept(child);
+            } catch (RuntimeException e) {
+                logger.error("Attach listener failed for [" + child.getId() + "]", e);
+            }
+        }
+        if ( "iframe".equals(child.getType()) ) {
+            setAutoAttach(child.getId());
+        }
+        if ( waiting ) {
+            send(child.getId(), "Runtime.runIfWaitingForDebugger", null);
+        }
+    }
+
+
+    private void detached(String sessionId) {
+        ChildSession child = children.remove(sessionId);
+        if ( child == null ) {
+            return;
+        }
+        child.detached();
+        for (ChildSession next : children.values()) {
+            if ( next.getParentId().equals(sessionId) ) {
+                detached(next.getId());
+            }
+        }
+    }
+
+    private void dispatch(ChildSession child, String method, JsonObject message) {
+        Events event = EventFilterChannelFactory.getEvent(method);
+        if ( event == null || ! child.hasListeners() ) {
+            return;
+        }
+        try {
+            JsonElement params = message.get("params");
+            child.dispatch(event, GSON.fromJson(params == null ? new JsonObject() : params, event.klass));
+        } catch (RuntimeException e) {
+            logger.error("Event listener failed for [" + child.getId() + "]", e);
+        }
+    }
+
+    private class AutoAttachMessageHandler implements MessageHandler {
+
+        private final MessageHandler handler;
+
+        AutoAttachMessageHandler(MessageHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void process(String message) {
+            if ( parents.isEmpty()
+                        || ! route(message, EventFilterChannelFactory.readMethod(message), EventFilterChannelFactory.readSessionId(message)) ) {
+                handler.process(message);
+            }
+        }
+
+        @Override
+        public void process(byte[] message) {
+            String method = parents.isEmpty() ? null : EventFilterChannelFactory.readMethod(message, message.length);
+            if ( method == null ) {
+                handler.process(message);
+                return;
+            }
+            String sessionId = EventFilterChannelFactory.readSessionId(message, 0, message.length);
+            if ( ! isRouted(method, sessionId) || ! route(new String(message, UTF_8), method, sessionId) ) {
+                handler.process(message);
+            }
+        }
+
+        @Override
+        public void process(InputStream message) {
+            if ( parents.isEmpty() ) {
+                handler.process(message);
+                return;
+            }
+            process(EventFilterChannelFactory.readAll(message));
+        }
+
+        private boolean isRouted(String method, String sessionId) {
+            return sessionId != null && (children.containsKey(sessionId)
+                        || ((ATTACHED.equals(method) || DETACHED.equals(method)) && parents.contains(sessionId)));
+        }
+
+        /**
+         * @return <code>true</code> if the message belongs to a child session and must not reach cdp4j
+         */
+        private boolean route(String message, String method, String sessionId) {
+            if ( method == null || parents.isEmpty() || ! isRouted(method, sessionId) ) {
+                return false;
+            }
+            JsonObject json = JsonParser.parseString(message).getAsJsonObject();
+            JsonObject params = json.has("params") ? json.getAsJsonObject("params") : new JsonObject();
+            if ( ATTACHED.equals(method) ) {
+                attached(sessionId, params);
+            } else if ( DETACHED.equals(method) && params.has("sessionId") ) {
+                detached(params.get("sessionId").getAsString());
+            }
+            ChildSession child = children.get(sessionId);
+            if ( child == null ) {
+                // attach events of a page, cdp4j sees them as well
+                return false;
+            }
+            dispatch(child, method, json);
+            return true;
+        }
+    }
+}
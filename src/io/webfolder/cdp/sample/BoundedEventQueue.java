@@ -0,0 +1,42 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.sample.OverflowPolicy.DropOldest;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// A slow listener on an event heavy page, at most 100 events are queued
+// and the oldest ones are discarded.
+public class BoundedEventQueue {
+
+    public static void main(String[] args) {
+        Launcher launcher = new Launcher();
+
+        EventQueueOptions queueOptions = EventQueueOptions.builder()
+                                                            .capacity(100)
+                                                            .overflowPolicy(DropOldest)
+                                                        .build();
+
+        try (SessionFactory factory = launcher.launch();
+                StripedEventDispatcher dispatcher = new StripedEventDispatcher(queueOptions);
+                            Session session = factory.create()) {
+            dispatcher.addEventListener(session, (e, d) -> {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            session.getCommand().getNetwork().enable();
+            session.getCommand().getLog().enable();
+            session.navigate("https://www.cnn.com");
+            session.waitDocumentReady();
+
+            System.out.println("Queued: " + dispatcher.getQueueDepth(session));
+            System.out.println("Dropped: " + dispatcher.getDropCounts());
+        } finally {
+            launcher.kill();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.logger.CdpLogger;
+import io.webfolder.cdp.logger.CdpLoggerFactory;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Pre-creates browser contexts and hands one out per job, instead of creating and disposing
+ * a context for every job.
+ *
+ * <pre>
+ * try (BrowserContextPool pool = new BrowserContextPool(factory);
+ *                     ContextLease lease = pool.lease();
+ *                     Session session = lease.create()) {
+ *     session.navigate(url);
+ * }
+ * </pre>
+ *
+ * When a lease is closed its sessions are closed and the context is reset: the data of every origin
+ * the sessions navigated to is cleared with <code>Storage.clearDataForOrigin</code> and the cookies of
+ * the context with <code>Network.clearBrowserCookies</code>. These commands need a page of the context,
+ * an open session of the lease is used or a blank one is created. A context which was never navigated
+ * is returned as is. A context is disposed and replaced after {@link BrowserContextPoolOptions#maxReuses()}
+ * reuses or when the reset fails.
+ */
+public class BrowserContextPool implements AutoCloseable {
+
+    private final SessionFactory factory;
+
+    private final BrowserContextPoolOptions options;
+
+    private final CdpLogger logger;
+
+    private final BlockingQueue<PooledContext> idle = new LinkedBlockingQueue<>();
+
+    private final Set<PooledContext> contexts = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final AtomicLong leases = new AtomicLong();
+
+    private final AtomicLong created = new AtomicLong();
+
+    private final AtomicLong disposed = new AtomicLong();
+
+    private final LatencyHistogram resetTime = new LatencyHistogram();
+
+    private volatile boolean closed;
+
+    public BrowserContextPool(SessionFactory factory) {
+        this(factory, BrowserContextPoolOptions.builder().build());
+    }
+
+    public BrowserContextPool(SessionFactory factory, BrowserContextPoolOptions options) {
+        this.factory = factory;
+        this.options = options;
+        this.logger = new CdpLoggerFactory(factory.getOptions()).getLogger("cdp4j.pool");
+        factory.addCloseListener(() -> closed = true);
+        try {
+            for (int i = 0; i < options.size(); i++) {
+                count.incrementAndGet();
+                idle.add(create());
+            }
+        } catch (CdpException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits up to {@link BrowserContextPoolOptions#leaseTimeout()} for a free context.
+     */
+    public ContextLease lease() {
+        return lease(options.leaseTimeout(), MILLISECONDS);
+    }
+
+    public ContextLease lease(long timeout, TimeUnit unit) {
+        long deadline = nanoTime() + unit.toNanos(timeout);
+        while ( true ) {
+            if ( closed ) {
+                throw new CdpException("Browser context pool closed");
+            }
+            PooledContext pooled = idle.poll();
+            if ( pooled == null && reserve() ) {
+                pooled = create();
+            }
+            if ( pooled == null ) {
+                long remaining = deadline - nanoTime();
+                if ( remaining <= 0 ) {
+                    throw new CdpException("No browser context available within " + unit.toMillis(timeout) + " ms");
+                }
+                try {
+                    pooled = idle.poll(remaining, NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CdpException(e);
+                }
+                if ( pooled == null ) {
+                    continue;
+                }
+            }
+            leases.incrementAndGet();
+            return new ContextLease(this, pooled);
+        }
+    }
+
+    public SessionFactory getFactory() {
+        return factory;
+    }
+
+    public BrowserContextPoolOptions getOptions() {
+        return options;
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public long getLeaseCount() {
+        return leases.get();
+    }
+
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    public long getDisposedCount() {
+        return disposed.get();
+    }
+
+    /**
+     * @return share of the leases served by a reused context instead of a new one
+     */
+    public double getReuseRatio() {
+        long total = leases.get();
+        return total == 0 ? 0 : Math.max(0, total - created.get()) / (double) total;
+    }
+
+    /**
+     * @return time spent to reset a context when a lease is closed, in nanoseconds
+     */
+    public LatencyHistogram getResetTime() {
+        return resetTime;
+    }
+
+    /**
+     * Disposes all contexts of the pool, leased contexts included.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        idle.clear();
+        for (PooledContext next : contexts) {
+            dispose(next);
+        }
+    }
+
+    void release(ContextLease lease, List<Session> sessions, Set<String> origins) {
+        PooledContext pooled = lease.getPooledContext();
+        boolean reuse = ! closed && pooled.reuses < options.maxReuses();
+        long start = nanoTime();
+        try {
+            if ( reuse && ! origins.isEmpty() ) {
+                reuse = reset(pooled, sessions, origins);
+            }
+        } finally {
+            for (Session next : sessions) {
+                close(next);
+            }
+        }
+        if ( reuse ) {
+            resetTime.record(nanoTime() - start);
+            pooled.reuses++;
+            idle.offer(pooled);
+        } else {
+            dispose(pooled);
+            replenish();
+        }
+    }
+
+    private boolean reset(PooledContext pooled, List<Session> sessions, Set<String> origins) {
+        Session session = null;
+        for (Session next : sessions) {
+            if ( next.isConnected() && ! next.isDisposed() ) {
+                session = next;
+                break;
+            }
+        }
+        boolean temporary = session == null;
+        try {
+            if ( temporary ) {
+                session = factory.create(pooled.browserContextId);
+            }
+            for (String origin : origins) {
+                session.getCommand().getStorage().clearDataForOrigin(origin, "all");
+            }
+            session.getCommand().getNetwork().clearBrowserCookies();
+            return true;
+        } catch (CdpException e) {
+            logger.warn("Browser context [{}] could not be reset, replaced: {}", pooled.browserContextId, e.getMessage());
+            return false;
+        } finally {
+            if ( temporary && session != null ) {
+                close(session);
+            }
+        }
+    }
+
+    private boolean reserve() {
+        int current;
+        while ( (current = count.get()) < options.size() ) {
+            if ( count.compareAndSet(current, current + 1) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the caller reserved a slot in count
+    private PooledContext create() {
+        try {
+            PooledContext pooled = new PooledContext(factory.createBrowserContext());
+            contexts.add(pooled);
+            created.incrementAndGet();
+            return pooled;
+        } catch (RuntimeException e) {
+            count.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void replenish() {
+        if ( closed || ! reserve() ) {
+            return;
+        }
+        try {
+            idle.offer(create());
+        } catch (CdpException e) {
+            logger.warn("Browser context could not be created: {}", e.getMessage());
+        }
+    }
+
+    private void dispose(PooledContext pooled) {
+        if ( ! contexts.remove(pooled) ) {
+            return;
+        }
+        count.decrementAndGet();
+        disposed.incrementAndGet();
+        if ( factory.closed() ) {
+            return;
+        }
+        try {
+            factory.disposeBrowserContext(pooled.browserContextId);
+        } catch (CdpException e) {
+            logger.warn("Browser context [{}] could not be disposed: {}", pooled.browserContextId, e.getMessage());
+        }
+    }
+
+    private void close(Session session) {
+        try {
+            if ( session.isConnected() ) {
+                session.close();
+            }
+        } catch (CdpException e) {
+            // the target is disposed with its context
+        }
+    }
+
+    static final class PooledContext {
+
+        final String browserContextId;
+
+        // accessed by the thread which holds the lease
+        int reuses;
+
+        PooledContext(String browserContextId) {
+            this.browserContextId = browserContextId;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.session.WaitUntil.Load;
+import static java.lang.System.nanoTime;
+import static java.util.Arrays.asList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Runs isolated jobs in pooled browser contexts: a context is leased per job and its
+// cookies and storage are cleared on return instead of disposing it.
+public class BrowserContextPoolExample {
+
+    public static void main(String[] args) throws Exception {
+        List<String> urls = asList("https://webfolder.io",
+                                   "https://httpbin.org/cookies/set?job=1",
+                                   "https://httpbin.org/cookies",
+                                   "https://example.com",
+                                   "https://httpbin.org/cookies/set?job=2",
+                                   "https://httpbin.org/cookies");
+
+        Launcher launcher = new Launcher();
+
+        BrowserContextPoolOptions options = BrowserContextPoolOptions.builder()
+                                                    .size(4)
+                                                    .maxReuses(20)
+                                                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(options.size());
+
+        try (SessionFactory factory = launcher.launch();
+                            BrowserContextPool pool = new BrowserContextPool(factory, options)) {
+            long start = nanoTime();
+            List<Future<String>> results = new ArrayList<>();
+            for (String url : urls) {
+                results.add(executor.submit(() -> {
+                    try (ContextLease lease = pool.lease()) {
+                        Session session = lease.create();
+                        session.navigateAndWait(url, Load, 30_000);
+                        return url + " - " + session.getText("body");
+                    }
+                }));
+            }
+            for (Future<String> next : results) {
+                System.out.println(next.get());
+            }
+            LatencyHistogram reset = pool.getResetTime();
+            System.out.printf("%d jobs in %d ms, reuse ratio: %.2f, reset p50: %.2f ms, p99: %.2f ms%n",
+                                urls.size(), (nanoTime() - start) / 1_000_000, pool.getReuseRatio(),
+                                reset.getValueAtPercentile(50) / 1e6, reset.getValueAtPercentile(99) / 1e6);
+        } finally {
+            executor.shutdown();
+            launcher.kill();
+        }
+    }
+}
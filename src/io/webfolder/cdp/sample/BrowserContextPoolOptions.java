@@ -0,0 +1,93 @@
+package io.webfolder.cdp.sample;
+
+/**
+ * Settings of a {@link BrowserContextPool}.
+ *
+ * <pre>
+ * BrowserContextPoolOptions.builder()
+ *                             .size(8)
+ *                             .maxReuses(50)
+ *                          .build();
+ * </pre>
+ */
+public class BrowserContextPoolOptions {
+
+    private int size;
+
+    private int maxReuses;
+
+    private int leaseTimeout;
+
+    private BrowserContextPoolOptions() {
+        // no op
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int maxReuses() {
+        return maxReuses;
+    }
+
+    public int leaseTimeout() {
+        return leaseTimeout;
+    }
+
+    public static class Builder {
+
+        private final BrowserContextPoolOptions options = new BrowserContextPoolOptions();
+
+        private Builder() {
+            options.maxReuses = -1;
+        }
+
+        /**
+         * Number of pre-created browser contexts, 4 by default.
+         */
+        public Builder size(int size) {
+            if ( size < 1 ) {
+                throw new IllegalArgumentException("size");
+            }
+            options.size = size;
+            return this;
+        }
+
+        /**
+         * Number of times a context is reset and handed out again before it is disposed, 20 by default.
+         * 0 disposes every context after one job.
+         */
+        public Builder maxReuses(int maxReuses) {
+            if ( maxReuses < 0 ) {
+                throw new IllegalArgumentException("maxReuses");
+            }
+            options.maxReuses = maxReuses;
+            return this;
+        }
+
+        /**
+         * Milliseconds to wait for a free context, 30 seconds by default.
+         */
+        public Builder leaseTimeout(int leaseTimeout) {
+            options.leaseTimeout = leaseTimeout;
+            return this;
+        }
+
+        public BrowserContextPoolOptions build() {
+            if ( options.size == 0 ) {
+                options.size = 4;
+            }
+            if ( options.maxReuses < 0 ) {
+                options.maxReuses = 20;
+            }
+            if ( options.leaseTimeout <= 0 ) {
+                options.leaseTimeout = 30_000;
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.webfolder.cdp.sample;
+
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.exception.CommandException;
+
+/**
+ * Thrown by a {@link SupervisedSession} when its target crashed or its browser was lost while a
+ * command was in flight, or before the {@link BrowserSupervisor} re-created the session.
+ *
+ * Commands sent directly through a cdp4j Session fail with a {@link CommandException} whose code
+ * is {@link #CODE} instead, see {@link #isCrash(Throwable)}.
+ */
+public class BrowserCrashedException extends CdpException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Error code of the replies injected for the commands which were in flight during a crash.
+     */
+    public static final int CODE = -32099;
+
+    public BrowserCrashedException(String message) {
+        super(message);
+    }
+
+    public BrowserCrashedException(String message, Throwable cause) {
+        super(message);
+        initCause(cause);
+    }
+
+    /**
+     * @return <code>true</code> if the exception was caused by a crash detected by a {@link BrowserSupervisor}
+     */
+    public static boolean isCrash(Throwable e) {
+        return e instanceof BrowserCrashedException
+                    || (e instanceof CommandException && ((CommandException) e).getCode() == CODE);
+    }
+}
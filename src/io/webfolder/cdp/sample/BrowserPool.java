@@ -0,0 +1,384 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.logger.CdpLogger;
+import io.webfolder.cdp.logger.CdpLoggerFactory;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+import io.webfolder.cdp.type.systeminfo.ProcessInfo;
+
+/**
+ * Owns several browser processes, each launched with its own user data directory, and
+ * places new sessions on the least loaded one.
+ *
+ * The load of a process is the number of its open sessions plus its recent CPU usage
+ * (cores, sampled with <code>SystemInfo.getProcessInfo</code>) times
+ * {@link BrowserPoolOptions#cpuWeight()}. A process is recycled after
+ * {@link BrowserPoolOptions#recycleAfter()} sessions or when the resident memory of its
+ * processes exceeds {@link BrowserPoolOptions#maxMemory()}: a replacement is launched in
+ * the background, the old process receives no new sessions and is killed, with its user
+ * data directory deleted by the {@link ProfileCleaner}, once its last session is closed.
+ * Processes start on a clone of {@link BrowserPoolOptions#profileTemplate()} if it is set.
+ *
+ * <pre>
+ * try (BrowserPool pool = new BrowserPool(options);
+ *                     Session session = pool.create()) {
+ *     session.navigate(url);
+ * }
+ * </pre>
+ */
+public class BrowserPool implements AutoCloseable {
+
+    private static final Path PROC = Paths.get("/proc");
+
+    private final BrowserPoolOptions options;
+
+    private final CdpLogger logger;
+
+    private final List<BrowserProcess> processes = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean closed;
+
+    public BrowserPool() {
+        this(BrowserPoolOptions.builder().build());
+    }
+
+    public BrowserPool(BrowserPoolOptions options) {
+        this.options = options;
+        Options.Builder builder = Options.builder();
+        options.options().accept(builder);
+        this.logger = new CdpLoggerFactory(builder.build()).getLogger("cdp4j.pool");
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "cdp4j-BrowserPool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+        try {
+            for (int i = 0; i < options.processes(); i++) {
+                processes.add(launch());
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        scheduler.scheduleWithFixedDelay(this::sample, options.sampleInterval(),
+                                                options.sampleInterval(), MILLISECONDS);
+    }
+
+    /**
+     * Creates a session on the least loaded process, waits up to
+     * {@link BrowserPoolOptions#createTimeout()} if every process is full or being replaced.
+     */
+    public Session create() {
+        BrowserProcess process = reserve();
+        Session session;
+        try {
+            session = process.factory.create();
+        } catch (RuntimeException e) {
+            released(process);
+            throw e;
+        }
+        session.addCloseListener(() -> released(process));
+        if ( process.created.incrementAndGet() >= options.recycleAfter() ) {
+            retire(process, "recycled after " + process.created.get() + " sessions");
+        }
+        return session;
+    }
+
+    /**
+     * @return the live processes, including processes which are being recycled
+     */
+    public List<BrowserProcess> getProcesses() {
+        return unmodifiableList(new ArrayList<>(processes));
+    }
+
+    public BrowserPoolOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Kills all processes, open sessions included.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        scheduler.shutdownNow();
+        for (BrowserProcess next : processes) {
+            terminate(next);
+        }
+    }
+
+    /**
+     * Launches a browser with its own user data directory. Override to connect to browsers started differently.
+     */
+    protected BrowserProcess launch(Path userDataDir) {
+        Options.Builder builder = Options.builder();
+        options.options().accept(builder);
+        builder.userDataDir(userDataDir);
+        Launcher launcher = new Launcher(builder.build());
+        return new BrowserProcess(launcher, launcher.launch(), userDataDir);
+    }
+
+    private BrowserProcess launch() {
+        Path userDataDir;
+        if ( options.profileTemplate() != null ) {
+            userDataDir = options.profileTemplate().clone(options.profileDirectory());
+        } else {
+            try {
+                Files.createDirectories(options.profileDirectory());
+                userDataDir = Files.createTempDirectory(options.profileDirectory(), "cdp4j-pool-");
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+        }
+        try {
+            BrowserProcess process = launch(userDataDir);
+            process.factory.addCloseListener(() -> retire(process, "browser closed"));
+            return process;
+        } catch (RuntimeException e) {
+            delete(userDataDir);
+            throw e;
+        }
+    }
+
+    private synchronized BrowserProcess reserve() {
+        long deadline = nanoTime() + MILLISECONDS.toNanos(options.createTimeout());
+        while ( true ) {
+            if ( closed ) {
+                throw new CdpException("Browser pool closed");
+            }
+            BrowserProcess process = processes.stream()
+                                        .filter(p -> ! p.draining.get() && p.open.get() < options.maxSessionsPerProcess())
+                                        .min(Comparator.comparingDouble(this::load))
+                                        .orElse(null);
+            if ( process != null ) {
+                process.open.incrementAndGet();
+                return process;
+            }
+            long remaining = deadline - nanoTime();
+            if ( remaining <= 0 ) {
+                throw new CdpException("No browser process available within " + options.createTimeout() + " ms");
+            }
+            try {
+                MILLISECONDS.timedWait(this, Math.max(1, remaining / 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CdpException(e);
+            }
+        }
+    }
+
+    private double load(BrowserProcess process) {
+        return process.open.get() + process.cpuUsage * options.cpuWeight();
+    }
+
+    private void released(BrowserProcess process) {
+        int open = process.open.decrementAndGet();
+        if ( open == 0 && process.draining.get() && ! closed ) {
+            scheduler.execute(() -> terminate(process));
+        }
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    private void retire(BrowserProcess process, String reason) {
+        if ( closed || ! process.draining.compareAndSet(false, true) ) {
+            return;
+        }
+        logger.info("Browser process [{}] {}, launching a replacement", process.userDataDir, reason);
+        scheduler.execute(() -> {
+            if ( process.open.get() == 0 ) {
+                terminate(process);
+            }
+            if ( closed ) {
+                return;
+            }
+            try {
+                processes.add(launch());
+            } catch (RuntimeException e) {
+                logger.error("Browser process could not be launched", e);
+            }
+            synchronized (this) {
+                notifyAll();
+            }
+        });
+    }
+
+    private void terminate(BrowserProcess process) {
+        if ( ! process.terminated.compareAndSet(false, true) ) {
+            return;
+        }
+        processes.remove(process);
+        try {
+            if ( ! process.factory.closed() ) {
+                process.factory.close();
+            }
+        } catch (RuntimeException e) {
+            // the browser is killed anyway
+        } finally {
+            if ( process.launcher != null ) {
+                process.launcher.kill();
+            }
+            delete(process.userDataDir);
+        }
+    }
+
+    private void sample() {
+        for (BrowserProcess next : processes) {
+            if ( next.terminated.get() || next.factory.closed() ) {
+                continue;
+            }
+            try {
+                List<ProcessInfo> infos = next.factory.getBrowserSession().getCommand().getSystemInfo().getProcessInfo();
+                if ( infos == null ) {
+                    continue;
+                }
+                double cpuTime = 0;
+                long memory = 0;
+                for (ProcessInfo info : infos) {
+                    cpuTime += info.getCpuTime() == null ? 0 : info.getCpuTime();
+                    memory += residentMemory(info.getId());
+                }
+                long now = nanoTime();
+                if ( next.lastSample > 0 ) {
+                    next.cpuUsage = Math.max(0, cpuTime - next.lastCpuTime) / ((now - next.lastSample) / 1e9);
+                }
+                next.lastCpuTime = cpuTime;
+                next.lastSample = now;
+                next.memory = memory;
+                if ( memory > options.maxMemory() ) {
+                    retire(next, "uses " + (memory / 1024 / 1024) + " MB");
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Browser process [{}] could not be sampled: {}", next.userDataDir, e.getMessage());
+            }
+        }
+    }
+
+    // resident set size of a process in bytes, Linux only
+    private static long residentMemory(Integer pid) {
+        if ( pid == null || ! Files.isDirectory(PROC) ) {
+            return 0;
+        }
+        try (Stream<String> lines = Files.lines(PROC.resolve(pid.toString()).resolve("status"))) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                        .mapToLong(line -> Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024)
+                        .findFirst()
+                        .orElse(0);
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static void delete(Path directory) {
+        ProfileCleaner.getDefault().delete(directory);
+    }
+
+    /**
+     * A browser process of the pool.
+     */
+    public static class BrowserProcess {
+
+        private final Launcher launcher;
+
+        private final SessionFactory factory;
+
+        private final Path userDataDir;
+
+        private final AtomicInteger open = new AtomicInteger();
+
+        private final AtomicInteger created = new AtomicInteger();
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private final AtomicBoolean terminated = new AtomicBoolean();
+
+        private volatile double cpuUsage;
+
+        private volatile long memory;
+
+        private double lastCpuTime;
+
+        private long lastSample;
+
+        /**
+         * @param launcher killed when the process is recycled, <code>null</code> if the browser was not started by a Launcher
+         */
+        public BrowserProcess(Launcher launcher, SessionFactory factory, Path userDataDir) {
+            this.launcher = launcher;
+            this.factory = factory;
+            this.userDataDir = userDataDir;
+        }
+
+        public SessionFactory getFactory() {
+            return factory;
+        }
+
+        public Path getUserDataDir() {
+            return userDataDir;
+        }
+
+        public int getOpenSessions() {
+            return open.get();
+        }
+
+        public int getCreatedSessions() {
+            return created.get();
+        }
+
+        /**
+         * @return used cores during the last sample interval
+         */
+        public double getCpuUsage() {
+            return cpuUsage;
+        }
+
+        /**
+         * @return resident memory in bytes of the last sample, 0 if not measured
+         */
+        public long getMemory() {
+            return memory;
+        }
+
+        /**
+         * @return <code>true</code> if the process is being recycled and receives no new sessions
+         */
+        public boolean isDraining() {
+            return draining.get();
+        }
+
+        @Override
+        public String toString() {
+            return "BrowserProcess [userDataDir=" + userDataDir + ", open=" + open + ", created=" + created
+                            + ", cpuUsage=" + cpuUsage + ", memory=" + memory + ", draining=" + draining + "]";
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.session.WaitUntil.Load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.webfolder.cdp.session.Session;
+
+// Spreads sessions over several Chrome processes (compare with MultiProcess which starts them by hand).
+// Each process has its own user data directory, new sessions go to the least loaded process
+// and a process is replaced after 50 sessions or when it uses more than 1 GB.
+public class BrowserPoolExample {
+
+    public static void main(String[] args) throws Exception {
+        BrowserPoolOptions options = BrowserPoolOptions.builder()
+                                                    .processes(2)
+                                                    .recycleAfter(50)
+                                                    .maxMemory(1024L * 1024 * 1024)
+                                                    .options(builder -> builder.headless(true))
+                                                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try (BrowserPool pool = new BrowserPool(options)) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(() -> {
+                    try (Session session = pool.create()) {
+                        session.navigateAndWait("https://webfolder.io", Load, 30_000);
+                        return session.getContent().length();
+                    }
+                }));
+            }
+            for (Future<Integer> next : results) {
+                System.out.println("Content Length: " + next.get());
+            }
+            pool.getProcesses().forEach(System.out::println);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
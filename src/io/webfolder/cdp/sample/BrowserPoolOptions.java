@@ -0,0 +1,228 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.getProperty;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+import io.webfolder.cdp.Options;
+
+/**
+ * Settings of a {@link BrowserPool}.
+ *
+ * <pre>
+ * BrowserPoolOptions.builder()
+ *                     .processes(4)
+ *                     .recycleAfter(500)
+ *                     .maxMemory(2L * 1024 * 1024 * 1024)
+ *                     .options(builder -&gt; builder.headless(true))
+ *                  .build();
+ * </pre>
+ */
+public class BrowserPoolOptions {
+
+    private int processes;
+
+    private int maxSessionsPerProcess;
+
+    private int recycleAfter;
+
+    private long maxMemory;
+
+    private double cpuWeight;
+
+    private int sampleInterval;
+
+    private int createTimeout;
+
+    private Path profileDirectory;
+
+    private ProfileTemplate profileTemplate;
+
+    private Consumer<Options.Builder> options;
+
+    private BrowserPoolOptions() {
+        // no op
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int processes() {
+        return processes;
+    }
+
+    public int maxSessionsPerProcess() {
+        return maxSessionsPerProcess;
+    }
+
+    public int recycleAfter() {
+        return recycleAfter;
+    }
+
+    public long maxMemory() {
+        return maxMemory;
+    }
+
+    public double cpuWeight() {
+        return cpuWeight;
+    }
+
+    public int sampleInterval() {
+        return sampleInterval;
+    }
+
+    public int createTimeout() {
+        return createTimeout;
+    }
+
+    public Path profileDirectory() {
+        return profileDirectory;
+    }
+
+    public ProfileTemplate profileTemplate() {
+        return profileTemplate;
+    }
+
+    public Consumer<Options.Builder> options() {
+        return options;
+    }
+
+    public static class Builder {
+
+        private final BrowserPoolOptions options = new BrowserPoolOptions();
+
+        private Builder() {
+            options.cpuWeight = -1;
+        }
+
+        /**
+         * Number of browser processes, half of the available processors by default.
+         */
+        public Builder processes(int processes) {
+            if ( processes < 1 ) {
+                throw new IllegalArgumentException("processes");
+            }
+            options.processes = processes;
+            return this;
+        }
+
+        /**
+         * Open sessions per process, 5 by default (the limit of the free version of cdp4j).
+         */
+        public Builder maxSessionsPerProcess(int maxSessionsPerProcess) {
+            if ( maxSessionsPerProcess < 1 ) {
+                throw new IllegalArgumentException("maxSessionsPerProcess");
+            }
+            options.maxSessionsPerProcess = maxSessionsPerProcess;
+            return this;
+        }
+
+        /**
+         * Number of sessions after which a process is replaced, unlimited by default.
+         */
+        public Builder recycleAfter(int recycleAfter) {
+            options.recycleAfter = recycleAfter;
+            return this;
+        }
+
+        /**
+         * Resident memory of all processes of a browser (browser, renderers, GPU...) in bytes
+         * above which the browser is replaced, unlimited by default. Measured on Linux only.
+         */
+        public Builder maxMemory(long maxMemory) {
+            options.maxMemory = maxMemory;
+            return this;
+        }
+
+        /**
+         * Load of one fully used core expressed in open sessions, 2 by default.
+         * The load of a process is its open sessions plus the used cores times this weight.
+         */
+        public Builder cpuWeight(double cpuWeight) {
+            if ( cpuWeight < 0 ) {
+                throw new IllegalArgumentException("cpuWeight");
+            }
+            options.cpuWeight = cpuWeight;
+            return this;
+        }
+
+        /**
+         * Milliseconds between two CPU and memory samples, 2 seconds by default.
+         */
+        public Builder sampleInterval(int sampleInterval) {
+            options.sampleInterval = sampleInterval;
+            return this;
+        }
+
+        /**
+         * Milliseconds {@link BrowserPool#create()} waits while every process is full or being replaced,
+         * 30 seconds by default.
+         */
+        public Builder createTimeout(int createTimeout) {
+            options.createTimeout = createTimeout;
+            return this;
+        }
+
+        /**
+         * Directory of the user data directories of the processes, the directory of the profile
+         * template or else the temporary directory by default.
+         */
+        public Builder profileDirectory(Path profileDirectory) {
+            options.profileDirectory = profileDirectory;
+            return this;
+        }
+
+        /**
+         * Pre-warmed profile cloned for every launched process, <code>null</code> (empty profiles) by default.
+         */
+        public Builder profileTemplate(ProfileTemplate profileTemplate) {
+            options.profileTemplate = profileTemplate;
+            return this;
+        }
+
+        /**
+         * Customizes the options of every launched browser, the user data directory is set by the pool.
+         * Thread pools must not be shared between the processes.
+         */
+        public Builder options(Consumer<Options.Builder> options) {
+            this.options.options = options;
+            return this;
+        }
+
+        public BrowserPoolOptions build() {
+            if ( options.processes == 0 ) {
+                options.processes = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            }
+            if ( options.maxSessionsPerProcess == 0 ) {
+                options.maxSessionsPerProcess = 5;
+            }
+            if ( options.recycleAfter <= 0 ) {
+                options.recycleAfter = Integer.MAX_VALUE;
+            }
+            if ( options.maxMemory <= 0 ) {
+                options.maxMemory = Long.MAX_VALUE;
+            }
+            if ( options.cpuWeight < 0 ) {
+                options.cpuWeight = 2;
+            }
+            if ( options.sampleInterval <= 0 ) {
+                options.sampleInterval = 2_000;
+            }
+            if ( options.createTimeout <= 0 ) {
+                options.createTimeout = 30_000;
+            }
+            if ( options.profileDirectory == null ) {
+                options.profileDirectory = options.profileTemplate != null ?
+                                                options.profileTemplate.getDirectory().getParent() :
+                                                Paths.get(getProperty("java.io.tmpdir"));
+            }
+            if ( options.options == null ) {
+                options.options = builder -> { };
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonObject;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.Channel;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.logger.CdpLogger;
+import io.webfolder.cdp.logger.CdpLoggerFactory;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+import io.webfolder.cdp.session.SessionSettings;
+
+/**
+ * Launches a browser and restarts it when it crashes or hangs.
+ *
+ * A lost browser is detected by the close of its connection, when the browser process exits,
+ * and by a <code>Browser.getVersion</code> heartbeat which is not answered within
+ * {@link SupervisorOptions#heartbeatTimeout()}, when it hangs. A crashed renderer is detected by
+ * <code>Inspector.targetCrashed</code>. In both cases the commands in flight are failed at once,
+ * through {@link SupervisorChannelFactory}, instead of waiting for the read timeout of cdp4j, and the
+ * affected {@link SupervisedSession}s throw {@link BrowserCrashedException} until they are re-created.
+ *
+ * The browser is killed and launched again on the supervisor thread, then the open supervised
+ * sessions are re-created with their settings and listeners if {@link SupervisorOptions#recreateSessions()}
+ * is set. The session of a crashed renderer is re-created on the same browser. Sessions are re-created on
+ * a thread of their own, a slow recreate listener does not delay the heartbeat.
+ *
+ * <pre>
+ * try (BrowserSupervisor supervisor = new BrowserSupervisor(options);
+ *                     SupervisedSession session = supervisor.create()) {
+ *     session.addRecreateListener(s -&gt; s.navigate(url));
+ *     session.call(s -&gt; s.navigate(url));
+ * }
+ * </pre>
+ */
+public class BrowserSupervisor implements AutoCloseable {
+
+    private final SupervisorOptions options;
+
+    private final CdpLogger logger;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    // runs the recreate listeners, which restore pages while the heartbeat goes on
+    private final ExecutorService recreator;
+
+    private final Set<SupervisedSession> sessions = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger restarts = new AtomicInteger();
+
+    private final AtomicInteger targetCrashes = new AtomicInteger();
+
+    private volatile SupervisedBrowser browser;
+
+    private volatile boolean closed;
+
+    public BrowserSupervisor() {
+        this(SupervisorOptions.builder().build());
+    }
+
+    public BrowserSupervisor(SupervisorOptions options) {
+        this.options = options;
+        Options.Builder builder = Options.builder();
+        options.options().accept(builder);
+        this.logger = new CdpLoggerFactory(builder.build()).getLogger("cdp4j.supervisor");
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "cdp4j-BrowserSupervisor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.recreator = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "cdp4j-SupervisorRecreate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            this.browser = start();
+        } catch (RuntimeException e) {
+            scheduler.shutdownNow();
+            recreator.shutdownNow();
+            throw e;
+        }
+        scheduler.scheduleWithFixedDelay(this::heartbeat, options.heartbeatInterval(),
+                                                options.heartbeatInterval(), MILLISECONDS);
+    }
+
+    public SupervisedSession create() {
+        return create(null);
+    }
+
+    /**
+     * @param settings kept to re-create the session, <code>null</code> for the default settings
+     *
+     * @throws BrowserCrashedException if the browser is being restarted
+     */
+    public SupervisedSession create(SessionSettings settings) {
+        SessionFactory factory = getFactory();
+        Session session = settings == null ? factory.create() : factory.create(settings);
+        SupervisedSession supervised = new SupervisedSession(this, settings, session);
+        sessions.add(supervised);
+        return supervised;
+    }
+
+    /**
+     * @return SessionFactory of the current browser
+     *
+     * @throws BrowserCrashedException if the browser is being restarted
+     */
+    public SessionFactory getFactory() {
+        if ( closed ) {
+            throw new CdpException("Browser supervisor closed");
+        }
+        SupervisedBrowser current = browser;
+        if ( current.failed.get() ) {
+            throw new BrowserCrashedException("Browser is being restarted");
+        }
+        return current.factory;
+    }
+
+    /**
+     * @return number of times the browser was launched again
+     */
+    public int getRestarts() {
+        return restarts.get();
+    }
+
+    /**
+     * @return number of crashed renderers
+     */
+    public int getTargetCrashes() {
+        return targetCrashes.get();
+    }
+
+    public SupervisorOptions getOptions() {
+        return options;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        recreator.shutdownNow();
+        for (SupervisedSession next : sessions) {
+            next.close();
+        }
+        terminate(browser);
+    }
+
+    /**
+     * Creates the launcher of a browser. Override to start browsers differently, the channel factory must be kept.
+     */
+    protected Launcher createLauncher(Options options, ChannelFactory channelFactory) {
+        return new Launcher(options, channelFactory);
+    }
+
+    void closed(SupervisedSession session) {
+        sessions.remove(session);
+    }
+
+    private SupervisedBrowser start() {
+        Options.Builder builder = Options.builder();
+        options.options().accept(builder);
+        SupervisorChannelFactory channelFactory = new SupervisorChannelFactory(new NvWebSocketFactory());
+        Launcher launcher = createLauncher(builder.build(), channelFactory);
+        SupervisedBrowser browser = new SupervisedBrowser(launcher, channelFactory);
+        channelFactory.addCrashListener(sessionId -> targetCrashed(browser, sessionId));
+        browser.factory = launcher.launch();
+        browser.factory.addCloseListener(() -> lost(browser, "Browser connection closed"));
+        return browser;
+    }
+
+    private void heartbeat() {
+        SupervisedBrowser current = browser;
+        if ( closed || current.failed.get() ) {
+            return;
+        }
+        Channel channel = current.channelFactory.getChannel();
+        if ( channel != null && ! channel.isOpen() ) {
+            lost(current, "Browser connection lost");
+            return;
+        }
+        CompletableFuture<JsonObject> pending = current.heartbeat;
+        if ( pending != null && ! pending.isDone() ) {
+            // measured from the heartbeat in flight, not from the last time this thread ran
+            if ( nanoTime() - current.heartbeatSent > MILLISECONDS.toNanos(options.heartbeatTimeout()) ) {
+                lost(current, "Browser did not reply for " + options.heartbeatTimeout() + " ms");
+            }
+            return;
+        }
+        current.heartbeatSent = nanoTime();
+        current.heartbeat = current.channelFactory.send(null, "Browser.getVersion", null);
+    }
+
+    // called on the thread which reads the channel
+    private void targetCrashed(SupervisedBrowser browser, String sessionId) {
+        targetCrashes.incrementAndGet();
+        String reason = "Target crashed";
+        SupervisedSession crashed = null;
+        for (SupervisedSession next : sessions) {
+            if ( next.current().getId().equals(sessionId) ) {
+                crashed = next;
+                next.lost(reason);
+            }
+        }
+        browser.channelFactory.fail(sessionId, reason);
+        logger.warn("Target of session [{}] crashed", sessionId);
+        if ( crashed != null && options.recreateSessions() ) {
+            recreateLater(crashed, browser);
+        }
+    }
+
+    private void lost(SupervisedBrowser browser, String reason) {
+        if ( closed || ! browser.failed.compareAndSet(false, true) ) {
+            return;
+        }
+        logger.warn("Browser lost: {}", reason);
+        for (SupervisedSession next : sessions) {
+            next.lost(reason);
+        }
+        scheduler.execute(() -> restart(browser));
+        browser.channelFactory.fail(null, reason);
+    }
+
+    private void restart(SupervisedBrowser lost) {
+        terminate(lost);
+        if ( closed ) {
+            return;
+        }
+        if ( restarts.get() >= options.maxRestarts() ) {
+            logger.warn("Browser is not restarted, {} restarts", restarts.get());
+            return;
+        }
+        restarts.incrementAndGet();
+        long start = nanoTime();
+        SupervisedBrowser next;
+        try {
+            next = start();
+        } catch (RuntimeException e) {
+            logger.error("Browser could not be restarted", e);
+            // counted as a restart, retried after a heartbeat interval
+            scheduler.schedule(() -> restart(lost), options.heartbeatInterval(), MILLISECONDS);
+            return;
+        }
+        browser = next;
+        logger.info("Browser restarted in {} ms", (nanoTime() - start) / 1_000_000);
+        if ( ! options.recreateSessions() ) {
+            return;
+        }
+        for (SupervisedSession session : sessions) {
+            recreateLater(session, next);
+        }
+    }
+
+    private void recreateLater(SupervisedSession session, SupervisedBrowser browser) {
+        try {
+            recreator.execute(() -> recreate(session, browser));
+        } catch (RejectedExecutionException e) {
+            // the supervisor is closed
+        }
+    }
+
+    private void recreate(SupervisedSession session, SupervisedBrowser browser) {
+        if ( session.isClosed() || browser.failed.get() || closed ) {
+            return;
+        }
+        try {
+            session.recreate(browser.factory, logger);
+        } catch (RuntimeException e) {
+            logger.error("Session could not be re-created", e);
+        }
+    }
+
+    private void terminate(SupervisedBrowser browser) {
+        if ( browser == null || ! browser.terminated.compareAndSet(false, true) ) {
+            return;
+        }
+        boolean lost = browser.failed.getAndSet(true);
+        try {
+            // a lost browser would not reply to the commands sent by SessionFactory.close(),
+            // its connection is dropped instead
+            if ( ! lost && browser.factory != null && ! browser.factory.closed() ) {
+                browser.factory.close();
+            }
+        } catch (RuntimeException e) {
+            // the browser is killed anyway
+        } finally {
+            browser.launcher.kill();
+            Channel channel = browser.channelFactory.getChannel();
+            if ( lost && channel != null && channel.isOpen() ) {
+                channel.disconnect();
+            }
+            browser.channelFactory.close();
+        }
+    }
+
+    private static class SupervisedBrowser {
+
+        private final Launcher launcher;
+
+        private final SupervisorChannelFactory channelFactory;
+
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        private final AtomicBoolean terminated = new AtomicBoolean();
+
+        private volatile SessionFactory factory;
+
+        private volatile CompletableFuture<JsonObject> heartbeat;
+
+        private volatile long heartbeatSent;
+
+        SupervisedBrowser(Launcher launcher, SupervisorChannelFactory channelFactory) {
+            this.launcher = launcher;
+            this.channelFactory = channelFactory;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.session.WaitUntil.Load;
+
+// Crashes the renderer of a supervised session with chrome://crash, the pending command fails at
+// once with BrowserCrashedException and the session is re-created on the same browser.
+public class BrowserSupervisorExample {
+
+    private static final String URL = "https://webfolder.io";
+
+    public static void main(String[] args) throws Exception {
+        SupervisorOptions options = SupervisorOptions.builder()
+                                                    .heartbeatInterval(500)
+                                                    .heartbeatTimeout(3_000)
+                                                    .options(builder -> builder.headless(true))
+                                                .build();
+
+        try (BrowserSupervisor supervisor = new BrowserSupervisor(options);
+                            SupervisedSession session = supervisor.create()) {
+            session.addRecreateListener(s -> s.navigateAndWait(URL, Load, 30_000));
+            session.call(s -> s.navigateAndWait(URL, Load, 30_000));
+            String title = session.call(s -> s.getTitle());
+            System.out.println(title);
+
+            try {
+                session.call(s -> s.navigateAndWait("chrome://crash", Load, 30_000));
+            } catch (BrowserCrashedException e) {
+                System.out.println("Crashed: " + e.getMessage());
+            }
+
+            while ( session.isLost() ) {
+                Thread.sleep(100);
+            }
+            title = session.call(s -> s.getTitle());
+            System.out.println(title + ", re-created " + session.getGeneration() + " time(s)");
+        }
+    }
+}
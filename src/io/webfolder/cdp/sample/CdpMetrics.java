@@ -0,0 +1,89 @@
+package io.webfolder.cdp.sample;
+
+/**
+ * Receives the measurements of {@link MetricsChannelFactory}.
+ *
+ * Methods are called on the thread which sends the command, reads the message or runs the
+ * event task, implementations must be thread safe and should not block. Each <code>...Started</code>
+ * style method returns a context object (e.g. the statistics of the command, or a flight recorder
+ * event) which is passed back to the matching completion method, it might be <code>null</code>.
+ *
+ * {@link HistogramMetrics} aggregates the measurements per command and event,
+ * {@link JmxMetrics} and {@link LoggingMetrics} publish them, {@link FlightRecorderMetrics}
+ * emits JDK Flight Recorder events. Use {@link #of(CdpMetrics...)} to combine them.
+ */
+public interface CdpMetrics {
+
+    /**
+     * @param sessionId target session id or <code>null</code> for the browser session
+     * @param method fully qualified command name e.g. <code>Page.navigate</code>
+     * @param bytes size of the request
+     *
+     * @return context passed to {@link #commandCompleted(Object, String, long, boolean, int)}
+     */
+    Object commandSent(String sessionId, String method, int bytes);
+
+    /**
+     * Called when the reply of a command arrives, or when the channel is closed before it arrives.
+     *
+     * @param latency nanoseconds between sending the request and reading the reply
+     * @param error <code>true</code> if the reply is an error, or if no reply arrived
+     * @param bytes size of the reply, <code>0</code> if no reply arrived
+     */
+    void commandCompleted(Object context, String method, long latency, boolean error, int bytes);
+
+    /**
+     * Called before the event is passed to the cdp4j message handler.
+     *
+     * @param method fully qualified event name e.g. <code>Network.requestWillBeSent</code>
+     * @param bytes size of the message
+     *
+     * @return context passed to {@link #eventDispatched(Object, String, long)}
+     */
+    Object eventReceived(String method, int bytes);
+
+    /**
+     * @param duration nanoseconds spent in the cdp4j message handler on the reading thread,
+     *                 which only queues the message to <code>Options.workerThreadPool</code>
+     */
+    void eventDispatched(Object context, String method, long duration);
+
+    /**
+     * Called when the task which decodes the event starts to run on a worker thread pool
+     * instrumented with {@link MetricsChannelFactory#instrument(java.util.concurrent.ExecutorService)}.
+     *
+     * @param queued nanoseconds the task waited in the worker thread pool
+     *
+     * @return context passed to {@link #decodeCompleted(Object, String, long)}
+     */
+    Object decodeStarted(String method, long queued);
+
+    /**
+     * @param duration nanoseconds spent decoding the event and submitting the listener task
+     *                 to <code>Options.eventHandlerThreadPool</code>
+     */
+    void decodeCompleted(Object context, String method, long duration);
+
+    /**
+     * Called when the listener task of an event starts to run on an event handler thread pool
+     * instrumented with {@link MetricsChannelFactory#instrument(java.util.concurrent.ExecutorService)},
+     * the worker thread pool must be instrumented as well.
+     *
+     * @param queued nanoseconds the task waited in the event handler thread pool
+     *
+     * @return context passed to {@link #listenerCompleted(Object, String, long)}
+     */
+    Object listenerStarted(String method, long queued);
+
+    /**
+     * @param duration nanoseconds spent in the listeners
+     */
+    void listenerCompleted(Object context, String method, long duration);
+
+    /**
+     * @return metrics which forwards every measurement to all of the given metrics
+     */
+    static CdpMetrics of(CdpMetrics... metrics) {
+        return metrics.length == 1 ? metrics[0] : new CompositeMetrics(metrics);
+    }
+}
@@ -0,0 +1,171 @@
+package io.webfolder.cdp.sample;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import io.webfolder.cdp.command.Runtime;
+import io.webfolder.cdp.event.Events;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.listener.EventListener;
+
+/**
+ * An out-of-process iframe or a worker attached to a page by {@link AutoAttachChannelFactory}.
+ *
+ * A child session shares the channel of its page but has its own session id: its commands are
+ * sent with the id space of {@link AsyncChannelFactory} and its events are delivered to its own
+ * listeners, so children and their page can be queried from several threads at the same time.
+ *
+ * <pre>
+ * for (ChildSession frame : channelFactory.getChildren(session)) {
+ *     executor.submit(() -&gt; frame.evaluate("document.title"));
+ * }
+ * </pre>
+ */
+public class ChildSession {
+
+    private final AutoAttachChannelFactory channelFactory;
+
+    private final String id;
+
+    private final String targetId;
+
+    private final String type;
+
+    private final String url;
+
+    private final String parentId;
+
+    private final String rootId;
+
+    private final AsyncCommand command;
+
+    private final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean attached = true;
+
+    ChildSession(AutoAttachChannelFactory channelFactory, String id, String targetId, String type,
+                    String url, String parentId, String rootId) {
+        this.channelFactory = channelFactory;
+        this.id = id;
+        this.targetId = targetId;
+        this.type = type;
+        this.url = url;
+        this.parentId = parentId;
+        this.rootId = rootId;
+        this.command = new AsyncCommand(id, channelFactory);
+    }
+
+    /**
+     * Sends a command and waits for its reply.
+     *
+     * <pre>
+     * child.call(DOM.class, dom -&gt; dom.getDocument());
+     * </pre>
+     */
+    public <D, T> T call(Class<D> domain, Function<D, T> command) {
+        if ( ! attached ) {
+            throw new CdpException("Session [" + id + "] is detached");
+        }
+        try {
+            return this.command.call(domain, command).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CdpException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof CdpException ? (CdpException) cause : new CdpException(cause);
+        }
+    }
+
+    /**
+     * @return the result of the expression by value, <code>null</code> for undefined
+     */
+    public Object evaluate(String expression) {
+        return ConcurrentSession.value(call(Runtime.class, runtime -> runtime.evaluate(expression, null, false, true, null,
+                                                            true, false, false, true, null, null, null, null, null, null)));
+    }
+
+    /**
+     * @return non-blocking commands of this session
+     */
+    public AsyncCommand getCommand() {
+        return command;
+    }
+
+    /**
+     * Listeners are notified on the thread which reads the channel, like the sync listeners of a
+     * Session, they must not wait for the reply of a command.
+     */
+    public void addEventListener(EventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeEventListener(EventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTargetId() {
+        return targetId;
+    }
+
+    /**
+     * @return target type, e.g. <code>iframe</code>, <code>worker</code> or <code>service_worker</code>
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return URL of the target when it was attached
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return session id of the page or the frame the target was attached to
+     */
+    public String getParentId() {
+        return parentId;
+    }
+
+    /**
+     * @return session id of the page on which auto attach was enabled
+     */
+    public String getRootId() {
+        return rootId;
+    }
+
+    public boolean isAttached() {
+        return attached;
+    }
+
+    public AutoAttachChannelFactory getChannelFactory() {
+        return channelFactory;
+    }
+
+    boolean hasListeners() {
+        return ! listeners.isEmpty();
+    }
+
+    void dispatch(Events event, Object value) {
+        for (EventListener next : listeners) {
+            next.onEvent(event, value);
+        }
+    }
+
+    void detached() {
+        attached = false;
+    }
+
+    @Override
+    public String toString() {
+        return "ChildSession [id=" + id + ", type=" + type + ", url=" + url + ", attached=" + attached + "]";
+    }
+}
@@ -0,0 +1,96 @@
+package io.webfolder.cdp.sample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.sample.AsyncCommand.Invocation;
+
+/**
+ * Collects several commands and writes them to the channel back-to-back,
+ * replies are correlated by id so the whole batch costs a single round trip.
+ *
+ * <pre>
+ * CommandBatch batch = async.batch();
+ * for (Integer nodeId : nodeIds) {
+ *     batch.add(DOM.class, dom -&gt; dom.getOuterHTML(nodeId, null, null));
+ * }
+ * List&lt;Object&gt; html = batch.execute().join();
+ * </pre>
+ */
+public class CommandBatch {
+
+    private final AsyncCommand command;
+
+    private final List<Invocation> invocations = new ArrayList<>();
+
+    private final List<CompletableFuture<Object>> futures = new ArrayList<>();
+
+    private boolean executed;
+
+    CommandBatch(AsyncCommand command) {
+        this.command = command;
+    }
+
+    /**
+     * Adds a command to the batch, nothing is sent until {@link #execute()} is called.
+     *
+     * @return future which is completed with the result of this command
+     */
+    @SuppressWarnings("unchecked")
+    public <D, T> CompletableFuture<T> add(Class<D> domain, Function<D, T> call) {
+        checkNotExecuted();
+        invocations.add(command.record(domain, call::apply));
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        futures.add(future);
+        return (CompletableFuture<T>) future;
+    }
+
+    public <D> CompletableFuture<Void> addVoid(Class<D> domain, Consumer<D> call) {
+        return add(domain, proxy -> {
+            call.accept(proxy);
+            return null;
+        }).thenApply(result -> null);
+    }
+
+    /**
+     * Sends all commands without waiting for the replies.
+     *
+     * @return results of the commands, in the order they were added
+     */
+    public CompletableFuture<List<Object>> execute() {
+        checkNotExecuted();
+        executed = true;
+        for (int i = 0; i < invocations.size(); i++) {
+            CompletableFuture<Object> target = futures.get(i);
+            command.send(invocations.get(i)).whenComplete((result, error) -> {
+                if ( error != null ) {
+                    target.completeExceptionally(error);
+                } else {
+                    target.complete(result);
+                }
+            });
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                                .thenApply(done -> {
+                                    List<Object> results = new ArrayList<>(futures.size());
+                                    for (CompletableFuture<Object> future : futures) {
+                                        results.add(future.join());
+                                    }
+                                    return results;
+                                });
+    }
+
+    public int size() {
+        return invocations.size();
+    }
+
+    private void checkNotExecuted() {
+        if ( executed ) {
+            throw new CdpException("Batch already executed");
+        }
+    }
+}
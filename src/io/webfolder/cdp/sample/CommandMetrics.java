@@ -0,0 +1,41 @@
+package io.webfolder.cdp.sample;
+
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Per command latency histograms, in-flight commands, bytes in/out and event queue time.
+// The same measurements are available as MXBeans with JmxMetrics (see jconsole, io.webfolder.cdp domain).
+public class CommandMetrics {
+
+    public static void main(String[] args) {
+        LoggingMetrics metrics = new LoggingMetrics(Options.builder().build());
+
+        MetricsChannelFactory channelFactory = new MetricsChannelFactory(new NvWebSocketFactory(), metrics);
+
+        Options options = Options.builder()
+                                    .headless(true)
+                                    .workerThreadPool(channelFactory.instrument(newSingleThreadExecutor()))
+                                    .eventHandlerThreadPool(channelFactory.instrument(newSingleThreadExecutor()))
+                                .build();
+
+        Launcher launcher = new Launcher(options, channelFactory);
+
+        try (SessionFactory factory = launcher.launch();
+                            Session session = factory.create()) {
+            session.getCommand().getNetwork().enable();
+            session.navigate("https://webfolder.io");
+            session.waitDocumentReady();
+            for (int i = 0; i < 100; i++) {
+                session.evaluate("document.title");
+            }
+            metrics.dump();
+        } finally {
+            launcher.kill();
+        }
+    }
+}
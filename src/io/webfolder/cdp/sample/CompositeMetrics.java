@@ -0,0 +1,82 @@
+package io.webfolder.cdp.sample;
+
+/**
+ * Forwards the measurements to several {@link CdpMetrics}, the context is an
+ * array with the context of each of them.
+ */
+class CompositeMetrics implements CdpMetrics {
+
+    private final CdpMetrics[] metrics;
+
+    CompositeMetrics(CdpMetrics[] metrics) {
+        this.metrics = metrics.clone();
+    }
+
+    @Override
+    public Object commandSent(String sessionId, String method, int bytes) {
+        Object[] context = new Object[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            context[i] = metrics[i].commandSent(sessionId, method, bytes);
+        }
+        return context;
+    }
+
+    @Override
+    public void commandCompleted(Object context, String method, long latency, boolean error, int bytes) {
+        Object[] contexts = (Object[]) context;
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i].commandCompleted(contexts[i], method, latency, error, bytes);
+        }
+    }
+
+    @Override
+    public Object eventReceived(String method, int bytes) {
+        Object[] context = new Object[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            context[i] = metrics[i].eventReceived(method, bytes);
+        }
+        return context;
+    }
+
+    @Override
+    public void eventDispatched(Object context, String method, long duration) {
+        Object[] contexts = (Object[]) context;
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i].eventDispatched(contexts[i], method, duration);
+        }
+    }
+
+    @Override
+    public Object decodeStarted(String method, long queued) {
+        Object[] context = new Object[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            context[i] = metrics[i].decodeStarted(method, queued);
+        }
+        return context;
+    }
+
+    @Override
+    public void decodeCompleted(Object context, String method, long duration) {
+        Object[] contexts = (Object[]) context;
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i].decodeCompleted(contexts[i], method, duration);
+        }
+    }
+
+    @Override
+    public Object listenerStarted(String method, long queued) {
+        Object[] context = new Object[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            context[i] = metrics[i].listenerStarted(method, queued);
+        }
+        return context;
+    }
+
+    @Override
+    public void listenerCompleted(Object context, String method, long duration) {
+        Object[] contexts = (Object[]) context;
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i].listenerCompleted(contexts[i], method, duration);
+        }
+    }
+}
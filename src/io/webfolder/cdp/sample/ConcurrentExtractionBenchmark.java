@@ -0,0 +1,115 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.session.WaitUntil.Load;
+import static java.lang.System.nanoTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.DevToolsConnection;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+import io.webfolder.cdp.session.SessionSettings;
+import io.webfolder.cdp.type.page.Frame;
+
+// Extractions per second on one session with 8 threads, half of them in the main frame and
+// half in a child frame, against FakeDevTools with a 2 ms reply delay (a heavy page or a remote
+// browser). Session.evaluate alone already runs concurrently, but the frame is stored in the
+// session: threads using switchFrame must take turns, or a thread evaluates in the frame another
+// thread switched to. With ConcurrentSession each thread passes its own execution context and the
+// commands of both frames are in flight at the same time. Every result is checked against the URL
+// of its frame. No browser required.
+public class ConcurrentExtractionBenchmark {
+
+    private static final int THREADS = 8;
+
+    private static final int EXTRACTIONS = 2_000;
+
+    private static final int REPLY_DELAY = 2;
+
+    public static void main(String[] args) throws Exception {
+        try (FakeDevTools devTools = new FakeDevTools()) {
+            devTools.setReplyDelay(REPLY_DELAY);
+            SessionFactory factory = new SessionFactory(Options.builder().build(), new NvWebSocketFactory(),
+                                                                new DevToolsConnection(devTools.getPort()));
+            try (Session session = factory.create(new SessionSettings(true))) {
+                session.navigateAndWait("http://page.test/1", Load, 10_000);
+                String pageUrl = (String) session.evaluate("location.href");
+                Frame child = null;
+                for (Frame next : session.getFrames()) {
+                    if ( next.getParentId() != null ) {
+                        child = next;
+                    }
+                }
+                String frameId = child.getId();
+                String frameUrl = child.getUrl();
+
+                // the frame is stored in the session, threads working in different frames must take turns
+                Object lock = new Object();
+                Callable<Object> sharedMain = () -> {
+                    synchronized (lock) {
+                        session.switchToRootFrame();
+                        return check(session.evaluate("location.href"), pageUrl);
+                    }
+                };
+                Callable<Object> sharedFrame = () -> {
+                    synchronized (lock) {
+                        session.switchFrame(frameId);
+                        return check(session.evaluate("location.href"), frameUrl);
+                    }
+                };
+                // without switchFrame the session needs no lock
+                Callable<Object> mainOnly = () -> check(session.evaluate("location.href"), pageUrl);
+
+                ConcurrentSession page = new ConcurrentSession(session);
+                ConcurrentSession frame = page.forFrame(frameId);
+                Callable<Object> mainFrame = () -> check(page.evaluate("location.href"), pageUrl);
+                Callable<Object> childFrame = () -> check(frame.evaluate("location.href"), frameUrl);
+
+                measure("Session, 1 thread, 2 frames             ", 1, sharedMain, sharedFrame);
+                measure("Session, " + THREADS + " threads, 2 frames in turns  ", THREADS, sharedMain, sharedFrame);
+                session.switchToRootFrame();
+                measure("Session, " + THREADS + " threads, main frame only    ", THREADS, mainOnly, mainOnly);
+                measure("ConcurrentSession, " + THREADS + " threads, 2 frames ", THREADS, mainFrame, childFrame);
+            } finally {
+                factory.close();
+            }
+        }
+    }
+
+    private static Object check(Object value, String expected) {
+        if ( ! expected.equals(value) ) {
+            throw new IllegalStateException("Evaluated in the wrong frame: " + value + ", expected: " + expected);
+        }
+        return value;
+    }
+
+    private static void measure(String name, int threads, Callable<Object> even, Callable<Object> odd) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            run(executor, EXTRACTIONS / 10, even, odd);
+            long start = nanoTime();
+            run(executor, EXTRACTIONS, even, odd);
+            long elapsed = nanoTime() - start;
+            System.out.printf("%s %8.0f extractions/s%n", name, EXTRACTIONS / (elapsed / 1e9));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void run(ExecutorService executor, int count, Callable<Object> even, Callable<Object> odd) throws Exception {
+        List<Future<Object>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(executor.submit(i % 2 == 0 ? even : odd));
+        }
+        for (Future<Object> next : results) {
+            next.get();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package io.webfolder.cdp.sample;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonPrimitive;
+
+import io.webfolder.cdp.command.Runtime;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.type.runtime.EvaluateResult;
+import io.webfolder.cdp.type.runtime.ExceptionDetails;
+
+/**
+ * Extraction methods of a {@link Session} which can be called by several threads at the same time.
+ *
+ * The Dom, Selector and JavaScript methods of a Session evaluate in the execution context stored in
+ * the session, which {@link Session#switchFrame(String)} changes for every thread: two threads
+ * working in different frames must take turns. A ConcurrentSession captures its execution context
+ * when it is created and passes it with every <code>Runtime.evaluate</code>, so the commands of
+ * all threads are in flight on the same target at the same time.
+ *
+ * <pre>
+ * ConcurrentSession page = new ConcurrentSession(session);
+ * ConcurrentSession frame = page.forFrame(frameId);
+ * executor.submit(() -&gt; page.getTexts("h2"));
+ * executor.submit(() -&gt; frame.getText("#price"));
+ * </pre>
+ *
+ * The execution context of a frame is an isolated world created with <code>Page.createIsolatedWorld</code>,
+ * it shares the DOM of the frame but not its global variables, and it is destroyed when the frame navigates.
+ */
+public class ConcurrentSession {
+
+    private static final String WORLD_NAME = "cdp4j";
+
+    private final Session session;
+
+    private final Integer executionContextId;
+
+    private final String frameId;
+
+    /**
+     * Evaluates in the default execution context of the main frame.
+     */
+    public ConcurrentSession(Session session) {
+        this(session, null, null);
+    }
+
+    private ConcurrentSession(Session session, String frameId, Integer executionContextId) {
+        this.session = session;
+        this.frameId = frameId;
+        this.executionContextId = executionContextId;
+    }
+
+    /**
+     * Creates an execution context in a frame, must be called again after the frame navigated.
+     */
+    public ConcurrentSession forFrame(String frameId) {
+        Integer contextId = session.getCommand().getPage().createIsolatedWorld(frameId, WORLD_NAME, true);
+        if ( contextId == null ) {
+            throw new CdpException("Execution context of frame [" + frameId + "] could not be created");
+        }
+        return new ConcurrentSession(session, frameId, contextId);
+    }
+
+    /**
+     * @return the result of the expression by value, <code>null</code> for undefined
+     */
+    public Object evaluate(String expression) {
+        Runtime runtime = session.getCommand().getRuntime();
+        EvaluateResult result = runtime.evaluate(expression, null, false, true, executionContextId,
+                                                    true, false, false, true, null, null, null, null, null, null);
+        return value(result);
+    }
+
+    /**
+     * @return text content of the first element matching the selector, <code>null</code> if none matches
+     */
+    public String getText(String selector) {
+        return string(evaluate("(e => e ? e.textContent : null)(document.querySelector(" + quote(selector) + "))"));
+    }
+
+    /**
+     * @return text content of every element matching the selector
+     */
+    public List<String> getTexts(String selector) {
+        Object value = evaluate("Array.from(document.querySelectorAll(" + quote(selector) + "), e => e.textContent)");
+        if ( ! (value instanceof List) ) {
+            return emptyList();
+        }
+        List<String> texts = new ArrayList<>();
+        for (Object next : (List<?>) value) {
+            texts.add(string(next));
+        }
+        return texts;
+    }
+
+    /**
+     * @return attribute of the first element matching the selector, <code>null</code> if none matches
+     */
+    public String getAttribute(String selector, String name) {
+        return string(evaluate("(e => e ? e.getAttribute(" + quote(name) + ") : null)(document.querySelector(" + quote(selector) + "))"));
+    }
+
+    public String getOuterHtml(String selector) {
+        return string(evaluate("(e => e ? e.outerHTML : null)(document.querySelector(" + quote(selector) + "))"));
+    }
+
+    /**
+     * @return number of elements matching the selector
+     */
+    public int getCount(String selector) {
+        Object value = evaluate("document.querySelectorAll(" + quote(selector) + ").length");
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * @return the frame of the execution context, <code>null</code> for the main frame
+     */
+    public String getFrameId() {
+        return frameId;
+    }
+
+    public Integer getExecutionContextId() {
+        return executionContextId;
+    }
+
+    // value of a Runtime.evaluate with returnByValue, the exception thrown by the expression is rethrown
+    static Object value(EvaluateResult result) {
+        ExceptionDetails exception = result.getExceptionDetails();
+        if ( exception != null ) {
+            String description = exception.getException() != null ? exception.getException().getDescription() : null;
+            throw new CdpException(description != null ? description : exception.getText());
+        }
+        return result.getResult() == null ? null : result.getResult().getValue();
+    }
+
+    private static String quote(String value) {
+        return new JsonPrimitive(value).toString();
+    }
+
+    private static String string(Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentSession [session=" + session.getId() + ", frameId=" + frameId
+                        + ", executionContextId=" + executionContextId + "]";
+    }
+}
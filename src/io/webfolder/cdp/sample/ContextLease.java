@@ -0,0 +1,82 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.event.Events.PageFrameNavigated;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.webfolder.cdp.event.page.FrameNavigated;
+import io.webfolder.cdp.sample.BrowserContextPool.PooledContext;
+import io.webfolder.cdp.session.Session;
+
+/**
+ * A browser context leased from a {@link BrowserContextPool}, closing the lease closes its
+ * sessions and returns the context to the pool.
+ *
+ * Sessions must be created with {@link #create()}, the origins they navigate to are recorded
+ * to clear their data when the context is returned.
+ */
+public class ContextLease implements AutoCloseable {
+
+    private final BrowserContextPool pool;
+
+    private final PooledContext pooled;
+
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+
+    private final Set<String> origins = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean released;
+
+    ContextLease(BrowserContextPool pool, PooledContext pooled) {
+        this.pool = pool;
+        this.pooled = pooled;
+    }
+
+    public String getBrowserContextId() {
+        return pooled.browserContextId;
+    }
+
+    /**
+     * Creates a session in the leased context.
+     */
+    public Session create() {
+        if ( released ) {
+            throw new IllegalStateException("Browser context already returned to the pool");
+        }
+        Session session = pool.getFactory().create(pooled.browserContextId);
+        session.addSyncEventListener((event, value) -> {
+            if ( PageFrameNavigated.equals(event) ) {
+                String origin = ((FrameNavigated) value).getFrame().getSecurityOrigin();
+                if ( origin != null && origin.startsWith("http") ) {
+                    origins.add(origin);
+                }
+            }
+        });
+        sessions.add(session);
+        return session;
+    }
+
+    public List<Session> getSessions() {
+        return new ArrayList<>(sessions);
+    }
+
+    /**
+     * Closes the sessions, resets the context and returns it to the pool.
+     */
+    @Override
+    public void close() {
+        if ( released ) {
+            return;
+        }
+        released = true;
+        pool.release(this, new ArrayList<>(sessions), origins);
+    }
+
+    PooledContext getPooledContext() {
+        return pooled;
+    }
+}
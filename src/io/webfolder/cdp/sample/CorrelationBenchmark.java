@@ -0,0 +1,98 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import com.google.gson.JsonObject;
+import com.sun.management.ThreadMXBean;
+
+// Allocation and latency of the command correlation path (register on invoke, remove on reply)
+// with 64 commands in flight: boxed ConcurrentHashMap with one timeout task per command
+// compared to CorrelationTable with recycled entries. No browser required.
+public class CorrelationBenchmark {
+
+    private static final int IN_FLIGHT = 64;
+
+    private static final int WARMUP = 2_000_000;
+
+    private static final int ITERATIONS = 5_000_000;
+
+    private static final JsonObject RESULT = new JsonObject();
+
+    public static void main(String[] args) {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1);
+        timer.setRemoveOnCancelPolicy(true);
+
+        Map<Integer, CompletableFuture<JsonObject>> map = new ConcurrentHashMap<>();
+        Runnable baseline = new Runnable() {
+
+            private int id = AsyncChannelFactory.FIRST_ID;
+
+            @Override
+            public void run() {
+                int next = id++;
+                CompletableFuture<JsonObject> future = new CompletableFuture<>();
+                map.put(next, future);
+                ScheduledFuture<?> timeout = timer.schedule(() -> {
+                    CompletableFuture<JsonObject> expired = map.remove(next);
+                    if ( expired != null ) {
+                        expired.completeExceptionally(new IllegalStateException());
+                    }
+                }, 10_000, MILLISECONDS);
+                future.whenComplete((result, error) -> timeout.cancel(false));
+                if ( next - IN_FLIGHT >= AsyncChannelFactory.FIRST_ID ) {
+                    map.remove(next - IN_FLIGHT).complete(RESULT);
+                }
+            }
+        };
+
+        CorrelationTable table = new CorrelationTable(1024);
+        Runnable pooled = new Runnable() {
+
+            private int id = AsyncChannelFactory.FIRST_ID;
+
+            @Override
+            public void run() {
+                int next = id++;
+                CompletableFuture<JsonObject> future = new CompletableFuture<>();
+                table.put(next, future, "Runtime.evaluate", nanoTime() + 10_000_000_000L);
+                if ( next - IN_FLIGHT >= AsyncChannelFactory.FIRST_ID ) {
+                    table.remove(next - IN_FLIGHT).complete(RESULT);
+                }
+            }
+        };
+
+        measure("ConcurrentHashMap + timer ", baseline);
+        measure("CorrelationTable           ", pooled);
+
+        timer.shutdownNow();
+    }
+
+    private static void measure(String name, Runnable operation) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long start = nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        long elapsed = nanoTime() - start;
+        allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+
+        System.out.printf("%s %8.1f ns/op %8.1f B/op%n", name,
+                                (double) elapsed / ITERATIONS,
+                                (double) allocated / ITERATIONS);
+    }
+}
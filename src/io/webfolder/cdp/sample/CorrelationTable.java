@@ -0,0 +1,178 @@
+package io.webfolder.cdp.sample;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Pending commands of {@link AsyncChannelFactory} keyed by a primitive int id.
+ *
+ * Open addressing table with a bounded probe window, the home slot of an id is
+ * <code>id &amp; mask</code> so sequential ids land in consecutive slots. Entries are
+ * recycled and claimed with a CAS on their id, put and remove neither box the id nor
+ * allocate a node. When the whole probe window is taken by older commands the entry
+ * is kept in an overflow map. Ids must be positive.
+ */
+class CorrelationTable {
+
+    private static final int MAX_PROBE = 16;
+
+    private static final int FREE = 0;
+
+    private static final AtomicIntegerFieldUpdater<Entry> ID = AtomicIntegerFieldUpdater.newUpdater(Entry.class, "id");
+
+    private final AtomicReferenceArray<Entry> slots;
+
+    private final int mask;
+
+    private final ArrayBlockingQueue<Entry> pool;
+
+    private final Map<Integer, Entry> overflow = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    CorrelationTable(int capacity) {
+        int length = Integer.highestOneBit(Math.max(capacity, MAX_PROBE) * 2 - 1);
+        this.slots = new AtomicReferenceArray<>(length);
+        this.mask = length - 1;
+        this.pool = new ArrayBlockingQueue<>(length);
+    }
+
+    /**
+     * @param deadline {@link System#nanoTime()} after which the command expires
+     */
+    void put(int id, CompletableFuture<JsonObject> future, String method, long deadline) {
+        Entry entry = pool.poll();
+        if ( entry == null ) {
+            entry = new Entry();
+        }
+        entry.future = future;
+        entry.method = method;
+        entry.deadline = deadline;
+        // volatile write, publishes the fields above
+        entry.id = id;
+        size.incrementAndGet();
+        int home = id & mask;
+        for (int i = 0; i < MAX_PROBE; i++) {
+            int slot = (home + i) & mask;
+            if ( slots.get(slot) == null && slots.compareAndSet(slot, null, entry) ) {
+                return;
+            }
+        }
+        overflow.put(id, entry);
+    }
+
+    /**
+     * @return future of the command or <code>null</code> if the id is unknown or already removed
+     */
+    CompletableFuture<JsonObject> remove(int id) {
+        int home = id & mask;
+        for (int i = 0; i < MAX_PROBE; i++) {
+            int slot = (home + i) & mask;
+            Entry entry = slots.get(slot);
+            if ( entry != null && entry.id == id ) {
+                if ( ! ID.compareAndSet(entry, id, FREE) ) {
+                    return null;
+                }
+                if ( ! slots.compareAndSet(slot, entry, null) ) {
+                    // read from a stale slot, the entry was recycled into another slot of the window
+                    detach(entry, id, home);
+                }
+                return release(entry);
+            }
+        }
+        if ( ! overflow.isEmpty() ) {
+            Entry entry = overflow.get(id);
+            if ( entry != null && ID.compareAndSet(entry, id, FREE) ) {
+                overflow.remove(id, entry);
+                return release(entry);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the commands whose deadline is not after <code>now</code>.
+     * With <code>Long.MAX_VALUE</code> all pending commands are removed.
+     */
+    void removeExpired(long now, BiConsumer<CompletableFuture<JsonObject>, String> consumer) {
+        for (int slot = 0; slot < slots.length(); slot++) {
+            Entry entry = slots.get(slot);
+            if ( entry == null ) {
+                continue;
+            }
+            int id = entry.id;
+            // the entry might have been recycled meanwhile, the CAS on the id detects it
+            if ( id == FREE || entry.deadline > now || ! ID.compareAndSet(entry, id, FREE) ) {
+                continue;
+            }
+            if ( ! slots.compareAndSet(slot, entry, null) ) {
+                // recycled and put into another slot before the CAS, that slot owns it
+                unclaim(entry, id);
+                continue;
+            }
+            String method = entry.method;
+            consumer.accept(release(entry), method);
+        }
+        if ( ! overflow.isEmpty() ) {
+            for (Entry entry : overflow.values()) {
+                int id = entry.id;
+                if ( id == FREE || entry.deadline > now || ! ID.compareAndSet(entry, id, FREE) ) {
+                    continue;
+                }
+                if ( ! overflow.remove(id, entry) ) {
+                    unclaim(entry, id);
+                    continue;
+                }
+                String method = entry.method;
+                consumer.accept(release(entry), method);
+            }
+        }
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    private void detach(Entry entry, int id, int home) {
+        for (int i = 0; i < MAX_PROBE; i++) {
+            if ( slots.compareAndSet((home + i) & mask, entry, null) ) {
+                return;
+            }
+        }
+        overflow.remove(id, entry);
+    }
+
+    // gives back an entry claimed by mistake, it is expired already: a reply missed
+    // meanwhile ends as a timeout on the next sweep
+    private static void unclaim(Entry entry, int id) {
+        ID.compareAndSet(entry, FREE, id);
+    }
+
+    private CompletableFuture<JsonObject> release(Entry entry) {
+        CompletableFuture<JsonObject> future = entry.future;
+        entry.future = null;
+        entry.method = null;
+        size.decrementAndGet();
+        pool.offer(entry);
+        return future;
+    }
+
+    private static class Entry {
+
+        volatile int id;
+
+        CompletableFuture<JsonObject> future;
+
+        String method;
+
+        long deadline;
+    }
+}
@@ -0,0 +1,424 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.event.Events.NetworkLoadingFailed;
+import static io.webfolder.cdp.event.Events.NetworkLoadingFinished;
+import static io.webfolder.cdp.event.Events.NetworkResponseReceived;
+import static io.webfolder.cdp.event.Events.PageLifecycleEvent;
+import static java.lang.System.nanoTime;
+import static java.util.Base64.getDecoder;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import io.webfolder.cdp.event.network.LoadingFailed;
+import io.webfolder.cdp.event.network.LoadingFinished;
+import io.webfolder.cdp.event.network.ResponseReceived;
+import io.webfolder.cdp.event.page.LifecycleEvent;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.logger.CdpLogger;
+import io.webfolder.cdp.logger.CdpLoggerFactory;
+import io.webfolder.cdp.sample.Crawler.Resource;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+import io.webfolder.cdp.type.network.GetResponseBodyResult;
+import io.webfolder.cdp.type.network.Response;
+import io.webfolder.cdp.type.page.NavigateResult;
+
+/**
+ * Crawls with {@link CrawlOptions#sessionsPerFactory()} sessions of each SessionFactory in parallel,
+ * every session runs on its own thread and is reused from page to page.
+ *
+ * URLs are taken from a shared {@link CrawlFrontier} which limits the pages loading at the same time
+ * per host and waits {@link CrawlOptions#politenessDelay()} between two pages of a host, so the
+ * sessions work on different hosts while a host is throttled. The body of each document (and of its
+ * sub resources with {@link CrawlOptions#captureResources()}) is captured with
+ * <code>Network.getResponseBody</code>, the links of the page are added to the frontier and the
+ * result is passed to a {@link CrawlSink}.
+ *
+ * <pre>
+ * CrawlEngine engine = new CrawlEngine(asList(factory1, factory2), options);
+ * engine.crawl(asList("https://webfolder.io"), result -&gt; System.out.println(result));
+ * </pre>
+ */
+public class CrawlEngine {
+
+    private static final String LINKS = "JSON.stringify(Array.from(document.links, a => a.href))";
+
+    private final List<SessionFactory> factories;
+
+    private final CrawlOptions options;
+
+    private final CdpLogger logger;
+
+    private final AtomicLong pages = new AtomicLong();
+
+    private final AtomicLong errors = new AtomicLong();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    private volatile CrawlFrontier frontier;
+
+    public CrawlEngine(SessionFactory factory) {
+        this(singletonList(factory), CrawlOptions.builder().build());
+    }
+
+    public CrawlEngine(List<SessionFactory> factories, CrawlOptions options) {
+        if ( factories.isEmpty() ) {
+            throw new IllegalArgumentException("factories");
+        }
+        this.factories = new ArrayList<>(factories);
+        this.options = options;
+        this.logger = new CdpLoggerFactory(factories.get(0).getOptions()).getLogger("cdp4j.crawler");
+    }
+
+    /**
+     * Crawls from the seed URLs until the frontier is empty, {@link CrawlOptions#maxPages()} pages
+     * were loaded or {@link #stop()} is called.
+     *
+     * @return number of loaded pages, failed pages included
+     */
+    public long crawl(Collection<String> seeds, CrawlSink sink) {
+        CrawlFrontier frontier = new CrawlFrontier(options);
+        Predicate<String> filter = options.linkFilter();
+        if ( filter == null ) {
+            Set<String> hosts = new HashSet<>();
+            for (String next : seeds) {
+                hosts.add(CrawlFrontier.host(next));
+            }
+            filter = link -> hosts.contains(CrawlFrontier.host(link));
+        }
+        for (String next : seeds) {
+            frontier.add(next, 0);
+        }
+        this.frontier = frontier;
+        long start = pages.get();
+        List<Thread> workers = new ArrayList<>();
+        int counter = 0;
+        for (SessionFactory factory : factories) {
+            for (int i = 0; i < options.sessionsPerFactory(); i++) {
+                Worker worker = new Worker(factory, frontier, filter, sink);
+                Thread thread = new Thread(worker, "cdp4j-CrawlEngine-" + (++counter));
+                thread.setDaemon(true);
+                thread.start();
+                workers.add(thread);
+            }
+        }
+        try {
+            for (Thread next : workers) {
+                next.join();
+            }
+        } catch (InterruptedException e) {
+            frontier.stop();
+            Thread.currentThread().interrupt();
+            throw new CdpException(e);
+        } finally {
+            this.frontier = null;
+        }
+        return pages.get() - start;
+    }
+
+    /**
+     * Stops a running crawl, pages which are loading are completed.
+     */
+    public void stop() {
+        CrawlFrontier current = frontier;
+        if ( current != null ) {
+            current.stop();
+        }
+    }
+
+    public CrawlOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return pages loaded by all crawls, failed pages included
+     */
+    public long getPageCount() {
+        return pages.get();
+    }
+
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * @return decoded size of the captured bodies
+     */
+    public long getCapturedBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * @return URLs waiting in the frontier of the running crawl
+     */
+    public int getQueuedCount() {
+        CrawlFrontier current = frontier;
+        return current == null ? 0 : current.getQueuedCount();
+    }
+
+    private class Worker implements Runnable {
+
+        private final SessionFactory factory;
+
+        private final CrawlFrontier frontier;
+
+        private final Predicate<String> filter;
+
+        private final CrawlSink sink;
+
+        private Session session;
+
+        private volatile Visit visit = new Visit();
+
+        Worker(SessionFactory factory, CrawlFrontier frontier, Predicate<String> filter, CrawlSink sink) {
+            this.factory = factory;
+            this.frontier = frontier;
+            this.filter = filter;
+            this.sink = sink;
+        }
+
+        @Override
+        public void run() {
+            try {
+                session();
+            } catch (CdpException e) {
+                logger.error("Crawl session could not be created", e);
+                return;
+            }
+            try {
+                while ( true ) {
+                    CrawlFrontier.Request request = frontier.take();
+                    if ( request == null ) {
+                        return;
+                    }
+                    try {
+                        CrawlResult result = load(request);
+                        if ( request.depth < options.maxDepth() ) {
+                            for (String link : result.getLinks()) {
+                                if ( filter.test(link) ) {
+                                    frontier.add(link, request.depth + 1);
+                                }
+                            }
+                        }
+                        accept(result);
+                    } finally {
+                        frontier.complete(request);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private CrawlResult load(CrawlFrontier.Request request) {
+            long start = nanoTime();
+            try {
+                Session session = session();
+                Visit visit = new Visit();
+                this.visit = visit;
+                NavigateResult navigation = session.getCommand().getPage().navigate(request.url);
+                if ( navigation.getErrorText() != null ) {
+                    return new CrawlResult(request.url, request.depth, null, null, null, navigation.getErrorText(), nanoTime() - start);
+                }
+                String loaderId = navigation.getLoaderId();
+                String error = visit.await(loaderId, options.pageLoadTimeout());
+                if ( error != null ) {
+                    session.getCommand().getPage().stopLoading();
+                }
+                Resource document = null;
+                List<Resource> resources = new ArrayList<>();
+                for (Map.Entry<String, Response> next : visit.responses().entrySet()) {
+                    boolean main = next.getKey().equals(loaderId);
+                    if ( main || (options.captureResources() && visit.isFinished(next.getKey())) ) {
+                        Resource resource = capture(session, next.getKey(), next.getValue(), main && error == null);
+                        if ( main ) {
+                            document = resource;
+                        } else {
+                            resources.add(resource);
+                        }
+                    }
+                }
+                List<String> links = error == null ? links(session) : null;
+                return new CrawlResult(request.url, request.depth, document, resources, links, error, nanoTime() - start);
+            } catch (CdpException e) {
+                return new CrawlResult(request.url, request.depth, null, null, null, String.valueOf(e.getMessage()), nanoTime() - start);
+            }
+        }
+
+        private Resource capture(Session session, String requestId, Response response, boolean body) {
+            Resource resource = new Resource();
+            resource.setRequestId(requestId);
+            resource.setUrl(response.getUrl());
+            resource.setStatus(response.getStatus() == null ? 0 : response.getStatus());
+            resource.setResponseHeaders(response.getHeaders());
+            if ( ! body ) {
+                return resource;
+            }
+            try {
+                GetResponseBodyResult result = session.getCommand().getNetwork().getResponseBody(requestId);
+                if ( Boolean.TRUE.equals(result.getBase64Encoded()) ) {
+                    resource.setContent(getDecoder().decode(result.getBody()));
+                    bytes.addAndGet(resource.getContent().length);
+                } else {
+                    resource.setDocument(result.getBody());
+                    bytes.addAndGet(result.getBody() == null ? 0 : result.getBody().length());
+                }
+            } catch (CdpException e) {
+                // redirects and evicted resources have no body
+            }
+            return resource;
+        }
+
+        private List<String> links(Session session) {
+            Object value = session.evaluate(LINKS);
+            List<String> links = new ArrayList<>();
+            if ( value instanceof String ) {
+                JsonElement json = JsonParser.parseString((String) value);
+                if ( json.isJsonArray() ) {
+                    JsonArray array = json.getAsJsonArray();
+                    for (JsonElement next : array) {
+                        links.add(next.getAsString());
+                    }
+                }
+            }
+            return links;
+        }
+
+        private void accept(CrawlResult result) {
+            pages.incrementAndGet();
+            if ( ! result.isSuccess() ) {
+                errors.incrementAndGet();
+            }
+            try {
+                sink.accept(result);
+            } catch (RuntimeException e) {
+                logger.error("Crawl sink failed for [" + result.getUrl() + "]", e);
+            }
+        }
+
+        // creates the session lazily and replaces it after a crash
+        private Session session() {
+            if ( session != null && session.isConnected() && ! session.isDisposed() ) {
+                return session;
+            }
+            session = factory.create();
+            if ( session == null ) {
+                throw new CdpException("Session could not be created");
+            }
+            Session current = session;
+            current.getCommand().getNetwork().enable();
+            current.addSyncEventListener((event, value) -> {
+                if ( PageLifecycleEvent.equals(event) ) {
+                    LifecycleEvent lifecycle = (LifecycleEvent) value;
+                    if ( "load".equals(lifecycle.getName()) && current.getTargetId().equals(lifecycle.getFrameId()) ) {
+                        visit.loaded(lifecycle.getLoaderId());
+                    }
+                } else if ( NetworkResponseReceived.equals(event) ) {
+                    ResponseReceived received = (ResponseReceived) value;
+                    String url = received.getResponse().getUrl();
+                    if ( url != null && url.startsWith("http") ) {
+                        visit.received(received.getRequestId(), received.getResponse());
+                    }
+                } else if ( NetworkLoadingFinished.equals(event) ) {
+                    visit.finished(((LoadingFinished) value).getRequestId());
+                } else if ( NetworkLoadingFailed.equals(event) ) {
+                    LoadingFailed failed = (LoadingFailed) value;
+                    visit.failed(failed.getRequestId(), failed.getErrorText());
+                }
+            });
+            return current;
+        }
+
+        private void close() {
+            try {
+                if ( session != null && session.isConnected() ) {
+                    session.close();
+                }
+            } catch (CdpException e) {
+                // the browser is gone
+            }
+        }
+    }
+
+    /**
+     * Network and lifecycle events of the page being loaded by a worker, written by the listener
+     * of its session.
+     */
+    private static final class Visit {
+
+        private final Map<String, Response> responses = new LinkedHashMap<>();
+
+        private final Set<String> finished = new HashSet<>();
+
+        private final Map<String, String> failures = new HashMap<>();
+
+        private final Set<String> loaded = new HashSet<>();
+
+        synchronized void received(String requestId, Response response) {
+            responses.put(requestId, response);
+        }
+
+        synchronized void finished(String requestId) {
+            finished.add(requestId);
+        }
+
+        synchronized void failed(String requestId, String errorText) {
+            failures.put(requestId, errorText);
+            notifyAll();
+        }
+
+        synchronized void loaded(String loaderId) {
+            loaded.add(loaderId);
+            notifyAll();
+        }
+
+        /**
+         * @return <code>null</code> when the page is loaded, or the reason of the failure
+         */
+        synchronized String await(String loaderId, int timeout) {
+            long deadline = nanoTime() + MILLISECONDS.toNanos(timeout);
+            while ( ! loaded.contains(loaderId) ) {
+                // the request id of a document is the loader id of its navigation
+                if ( failures.containsKey(loaderId) ) {
+                    return failures.get(loaderId);
+                }
+                long remaining = deadline - nanoTime();
+                if ( remaining <= 0 ) {
+                    return "Page load timeout (" + timeout + " ms)";
+                }
+                try {
+                    MILLISECONDS.timedWait(this, Math.max(1, remaining / 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CdpException(e);
+                }
+            }
+            return null;
+        }
+
+        synchronized Map<String, Response> responses() {
+            return new LinkedHashMap<>(responses);
+        }
+
+        synchronized boolean isFinished(String requestId) {
+            return finished.contains(requestId);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.util.Locale.ENGLISH;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * URLs waiting to be loaded by a {@link CrawlEngine}, queued per host.
+ *
+ * Hosts are served round-robin. A host is skipped while it has
+ * {@link CrawlOptions#maxConnectionsPerHost()} pages loading or until
+ * {@link CrawlOptions#politenessDelay()} has elapsed since its last page load.
+ * Each URL is accepted once, without its fragment.
+ */
+class CrawlFrontier {
+
+    private final int maxConnectionsPerHost;
+
+    private final long politenessDelay;
+
+    private final int maxPages;
+
+    private final Map<String, Host> hosts = new HashMap<>();
+
+    // hosts with queued URLs
+    private final Deque<Host> rotation = new ArrayDeque<>();
+
+    private final Set<String> seen = new HashSet<>();
+
+    private int accepted;
+
+    private int loading;
+
+    private boolean stopped;
+
+    CrawlFrontier(CrawlOptions options) {
+        this.maxConnectionsPerHost = options.maxConnectionsPerHost();
+        this.politenessDelay = options.politenessDelay() * 1_000_000L;
+        this.maxPages = options.maxPages();
+    }
+
+    /**
+     * @return <code>false</code> if the URL was seen before, is not an http URL or the page limit is reached
+     */
+    synchronized boolean add(String url, int depth) {
+        if ( stopped || accepted >= maxPages ) {
+            return false;
+        }
+        String normalized = normalize(url);
+        if ( normalized == null || ! seen.add(normalized) ) {
+            return false;
+        }
+        String name = host(normalized);
+        Host host = hosts.get(name);
+        if ( host == null ) {
+            host = new Host();
+            hosts.put(name, host);
+        }
+        if ( host.queue.isEmpty() ) {
+            rotation.add(host);
+        }
+        host.queue.add(new Request(normalized, depth, host));
+        accepted++;
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Waits for a URL whose host may be loaded.
+     *
+     * @return <code>null</code> if the frontier is empty and no page is loading, or it was stopped
+     */
+    synchronized Request take() throws InterruptedException {
+        while ( true ) {
+            if ( stopped || (rotation.isEmpty() && loading == 0) ) {
+                return null;
+            }
+            long now = nanoTime();
+            long wait = Long.MAX_VALUE;
+            for (int i = rotation.size(); i > 0; i--) {
+                Host host = rotation.poll();
+                if ( host.loading < maxConnectionsPerHost && host.next - now <= 0 ) {
+                    Request request = host.queue.poll();
+                    host.loading++;
+                    loading++;
+                    if ( ! host.queue.isEmpty() ) {
+                        rotation.add(host);
+                    }
+                    return request;
+                }
+                if ( host.loading < maxConnectionsPerHost ) {
+                    wait = Math.min(wait, host.next - now);
+                }
+                rotation.add(host);
+            }
+            if ( wait == Long.MAX_VALUE ) {
+                wait();
+            } else {
+                long millis = wait / 1_000_000;
+                wait(millis, (int) (wait - millis * 1_000_000));
+            }
+        }
+    }
+
+    /**
+     * Releases the host of a request taken with {@link #take()}, its links must be added before.
+     */
+    synchronized void complete(Request request) {
+        Host host = request.host;
+        host.loading--;
+        host.next = nanoTime() + politenessDelay;
+        loading--;
+        notifyAll();
+    }
+
+    synchronized void stop() {
+        stopped = true;
+        notifyAll();
+    }
+
+    synchronized int getQueuedCount() {
+        int queued = 0;
+        for (Host next : rotation) {
+            queued += next.queue.size();
+        }
+        return queued;
+    }
+
+    static String host(String url) {
+        try {
+            String host = new URI(url).getHost();
+            return host == null ? "" : host.toLowerCase(ENGLISH);
+        } catch (URISyntaxException e) {
+            return "";
+        }
+    }
+
+    private static String normalize(String url) {
+        if ( url == null ) {
+            return null;
+        }
+        int fragment = url.indexOf('#');
+        String normalized = fragment < 0 ? url : url.substring(0, fragment);
+        String lower = normalized.toLowerCase(ENGLISH);
+        if ( ! lower.startsWith("http://") && ! lower.startsWith("https://") ) {
+            return null;
+        }
+        return host(normalized).isEmpty() ? null : normalized;
+    }
+
+    private static final class Host {
+
+        final Deque<Request> queue = new ArrayDeque<>();
+
+        int loading;
+
+        long next = nanoTime();
+    }
+
+    static final class Request {
+
+        final String url;
+
+        final int depth;
+
+        private final Host host;
+
+        Request(String url, int depth, Host host) {
+            this.url = url;
+            this.depth = depth;
+            this.host = host;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package io.webfolder.cdp.sample;
+
+import java.util.function.Predicate;
+
+/**
+ * Settings of a {@link CrawlEngine}.
+ *
+ * <pre>
+ * CrawlOptions.builder()
+ *                     .sessionsPerFactory(4)
+ *                     .maxConnectionsPerHost(2)
+ *                     .politenessDelay(500)
+ *                     .maxPages(1_000)
+ *                  .build();
+ * </pre>
+ */
+public class CrawlOptions {
+
+    private int sessionsPerFactory;
+
+    private int maxConnectionsPerHost;
+
+    private int politenessDelay;
+
+    private int pageLoadTimeout;
+
+    private int maxPages;
+
+    private int maxDepth;
+
+    private boolean captureResources;
+
+    private Predicate<String> linkFilter;
+
+    private CrawlOptions() {
+        // no op
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int sessionsPerFactory() {
+        return sessionsPerFactory;
+    }
+
+    public int maxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public int politenessDelay() {
+        return politenessDelay;
+    }
+
+    public int pageLoadTimeout() {
+        return pageLoadTimeout;
+    }
+
+    public int maxPages() {
+        return maxPages;
+    }
+
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    public boolean captureResources() {
+        return captureResources;
+    }
+
+    public Predicate<String> linkFilter() {
+        return linkFilter;
+    }
+
+    public static class Builder {
+
+        private final CrawlOptions options = new CrawlOptions();
+
+        private Builder() {
+            options.politenessDelay = -1;
+            options.maxDepth = -1;
+        }
+
+        /**
+         * Parallel sessions of each SessionFactory, 4 by default.
+         * The free version of cdp4j allows 5 sessions per SessionFactory.
+         */
+        public Builder sessionsPerFactory(int sessionsPerFactory) {
+            if ( sessionsPerFactory < 1 ) {
+                throw new IllegalArgumentException("sessionsPerFactory");
+            }
+            options.sessionsPerFactory = sessionsPerFactory;
+            return this;
+        }
+
+        /**
+         * Pages of the same host loaded at the same time by all sessions, 2 by default.
+         */
+        public Builder maxConnectionsPerHost(int maxConnectionsPerHost) {
+            if ( maxConnectionsPerHost < 1 ) {
+                throw new IllegalArgumentException("maxConnectionsPerHost");
+            }
+            options.maxConnectionsPerHost = maxConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * Milliseconds between the end of a page load and the start of the next one on the same host,
+         * 500 ms by default, 0 to disable.
+         */
+        public Builder politenessDelay(int politenessDelay) {
+            if ( politenessDelay < 0 ) {
+                throw new IllegalArgumentException("politenessDelay");
+            }
+            options.politenessDelay = politenessDelay;
+            return this;
+        }
+
+        /**
+         * Milliseconds to wait for the load event of a page, 30 seconds by default.
+         */
+        public Builder pageLoadTimeout(int pageLoadTimeout) {
+            options.pageLoadTimeout = pageLoadTimeout;
+            return this;
+        }
+
+        /**
+         * Number of pages after which no new URL is accepted, unlimited by default.
+         */
+        public Builder maxPages(int maxPages) {
+            options.maxPages = maxPages;
+            return this;
+        }
+
+        /**
+         * Number of links followed from a seed URL, unlimited by default, 0 to load the seeds only.
+         */
+        public Builder maxDepth(int maxDepth) {
+            if ( maxDepth < 0 ) {
+                throw new IllegalArgumentException("maxDepth");
+            }
+            options.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * Captures the bodies of the sub resources of a page (scripts, images, XHR...) with
+         * <code>Network.getResponseBody</code>, <code>false</code> by default.
+         * The body of the document is always captured.
+         */
+        public Builder captureResources(boolean captureResources) {
+            options.captureResources = captureResources;
+            return this;
+        }
+
+        /**
+         * Links accepted in the frontier, by default the http and https links of the hosts of the seed URLs.
+         */
+        public Builder linkFilter(Predicate<String> linkFilter) {
+            options.linkFilter = linkFilter;
+            return this;
+        }
+
+        public CrawlOptions build() {
+            if ( options.sessionsPerFactory == 0 ) {
+                options.sessionsPerFactory = 4;
+            }
+            if ( options.maxConnectionsPerHost == 0 ) {
+                options.maxConnectionsPerHost = 2;
+            }
+            if ( options.politenessDelay < 0 ) {
+                options.politenessDelay = 500;
+            }
+            if ( options.pageLoadTimeout <= 0 ) {
+                options.pageLoadTimeout = 30_000;
+            }
+            if ( options.maxPages <= 0 ) {
+                options.maxPages = Integer.MAX_VALUE;
+            }
+            if ( options.maxDepth < 0 ) {
+                options.maxDepth = Integer.MAX_VALUE;
+            }
+            return options;
+        }
+    }
+}
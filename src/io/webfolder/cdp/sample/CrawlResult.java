@@ -0,0 +1,99 @@
+package io.webfolder.cdp.sample;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+import java.util.List;
+
+import io.webfolder.cdp.sample.Crawler.Resource;
+
+/**
+ * A page loaded by a {@link CrawlEngine}.
+ */
+public class CrawlResult {
+
+    private final String url;
+
+    private final int depth;
+
+    private final Resource document;
+
+    private final List<Resource> resources;
+
+    private final List<String> links;
+
+    private final String error;
+
+    private final long loadTime;
+
+    CrawlResult(String url, int depth, Resource document, List<Resource> resources,
+                    List<String> links, String error, long loadTime) {
+        this.url = url;
+        this.depth = depth;
+        this.document = document;
+        this.resources = resources == null ? emptyList() : unmodifiableList(resources);
+        this.links = links == null ? emptyList() : unmodifiableList(links);
+        this.error = error;
+        this.loadTime = loadTime;
+    }
+
+    /**
+     * @return URL taken from the frontier, see {@link #getDocument()} for the URL after redirects
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return number of links followed from a seed URL
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the main document, <code>null</code> if its response was not received
+     */
+    public Resource getDocument() {
+        return document;
+    }
+
+    /**
+     * @return sub resources of the page, empty unless {@link CrawlOptions#captureResources()} is enabled
+     */
+    public List<Resource> getResources() {
+        return resources;
+    }
+
+    /**
+     * @return absolute URLs of the links of the page
+     */
+    public List<String> getLinks() {
+        return links;
+    }
+
+    /**
+     * @return reason of the failure, <code>null</code> if the page was loaded
+     */
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return nanoseconds from the navigation to the end of the capture
+     */
+    public long getLoadTime() {
+        return loadTime;
+    }
+
+    @Override
+    public String toString() {
+        return "CrawlResult [url=" + url + ", depth=" + depth + ", status="
+                        + (document == null ? 0 : document.getStatus()) + ", links=" + links.size()
+                        + ", resources=" + resources.size() + ", error=" + error + "]";
+    }
+}
@@ -0,0 +1,13 @@
+package io.webfolder.cdp.sample;
+
+/**
+ * Receives the pages loaded by a {@link CrawlEngine}, e.g. to store them or to index them.
+ *
+ * Called concurrently by the sessions of the engine, implementations must be thread safe.
+ * A slow sink slows down the crawl, the session waits until the result is accepted.
+ */
+@FunctionalInterface
+public interface CrawlSink {
+
+    void accept(CrawlResult result);
+}
@@ -0,0 +1,332 @@
+package io.webfolder.cdp.sample;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableSet;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.webfolder.cdp.channel.Channel;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.channel.Connection;
+import io.webfolder.cdp.event.Events;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.listener.EventListener;
+import io.webfolder.cdp.session.MessageHandler;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Decorates a {@link ChannelFactory} so that events which have no subscriber are
+ * dropped before cdp4j deserializes them.
+ *
+ * The event name is read from the <code>{"method":"</code> prefix and the
+ * session id from the trailing <code>"sessionId":"</code> member, the payload
+ * itself is never parsed. Filtering is enabled per session by the first call to
+ * {@link #addEventListener(Session, EnumSet, EventListener)} or
+ * {@link #subscribe(Session, EnumSet)}, other sessions receive every event.
+ *
+ * Events used by cdp4j itself (target, execution context and page lifecycle
+ * events) are always delivered. Features such as <code>Session.enableConsoleLog()</code>
+ * register their own listeners, their events must be subscribed with
+ * {@link #subscribe(Session, EnumSet)}.
+ */
+public class EventFilterChannelFactory implements ChannelFactory {
+
+    private static final byte[] EVENT_PREFIX = "{\"method\":\"".getBytes(UTF_8);
+
+    private static final byte[] SESSION_ID = "\"sessionId\":\"".getBytes(UTF_8);
+
+    // session ids are 32 hex digits, the tail always contains the whole member
+    private static final int TAIL_LENGTH = 128;
+
+    private static final int HEAD_LENGTH = 128;
+
+    private static final Map<String, Events> EVENTS = new HashMap<>();
+
+    private static final Set<Events> INTERNAL_EVENTS;
+
+    static {
+        Set<Events> internal = EnumSet.noneOf(Events.class);
+        for (Events next : Events.values()) {
+            EVENTS.put(next.domain + "." + next.name, next);
+            if ( "Target".equals(next.domain) ||
+                        "Inspector".equals(next.domain) ||
+                        ("Runtime".equals(next.domain) && next.name.startsWith("executionContext")) ||
+                        ("Page".equals(next.domain) && (next.name.startsWith("frame") ||
+                                                        "lifecycleEvent".equals(next.name) ||
+                                                        "loadEventFired".equals(next.name) ||
+                                                        "domContentEventFired".equals(next.name))) ) {
+                internal.add(next);
+            }
+        }
+        INTERNAL_EVENTS = unmodifiableSet(internal);
+    }
+
+    private final ChannelFactory delegate;
+
+    private final Map<String, Set<Events>> subscriptions = new ConcurrentHashMap<>();
+
+    private final AtomicLong skippedBytes = new AtomicLong();
+
+    private final AtomicLong skippedEvents = new AtomicLong();
+
+    public EventFilterChannelFactory(ChannelFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Channel createChannel(Connection connection, SessionFactory factory, MessageHandler handler) {
+        return delegate.createChannel(connection, factory, new EventFilterMessageHandler(handler));
+    }
+
+    /**
+     * Adds a listener which is notified only for the given event types, payloads of
+     * the other event types are no longer deserialized for this session.
+     */
+    public void addEventListener(Session session, EnumSet<Events> events, EventListener listener) {
+        Set<Events> types = EnumSet.copyOf(events);
+        subscribe(session, events);
+        session.addEventListener((event, value) -> {
+            if ( types.contains(event) ) {
+                listener.onEvent(event, value);
+            }
+        });
+    }
+
+    /**
+     * Adds event types to the subscription of the session without registering a listener.
+     */
+    public void subscribe(Session session, EnumSet<Events> events) {
+        String sessionId = session.getId();
+        boolean[] created = { false };
+        subscriptions.compute(sessionId, (key, current) -> {
+            // copy on write, the reader thread never sees a set that is being modified
+            created[0] = current == null;
+            Set<Events> next = current == null ? EnumSet.copyOf(INTERNAL_EVENTS) : EnumSet.copyOf(current);
+            next.addAll(events);
+            return next;
+        });
+        if ( created[0] ) {
+            session.addCloseListener(() -> subscriptions.remove(sessionId));
+        }
+    }
+
+    public Set<Events> getSubscription(Session session) {
+        Set<Events> events = subscriptions.get(session.getId());
+        return events == null ? EnumSet.allOf(Events.class) : unmodifiableSet(events);
+    }
+
+    /**
+     * @return total size of the event messages that were dropped without deserialization
+     */
+    public long getSkippedBytes() {
+        return skippedBytes.get();
+    }
+
+    public long getSkippedEvents() {
+        return skippedEvents.get();
+    }
+
+    /**
+     * @return the event type of a method name such as <code>Page.loadEventFired</code>, <code>null</code> if unknown
+     */
+    static Events getEvent(String method) {
+        return EVENTS.get(method);
+    }
+
+    static Set<Events> getInternalEvents() {
+        return INTERNAL_EVENTS;
+    }
+
+    private Events filterable(String method) {
+        if ( method == null ) {
+            return null;
+        }
+        Events event = EVENTS.get(method);
+        return event == null || INTERNAL_EVENTS.contains(event) ? null : event;
+    }
+
+    private boolean skip(Events event, String sessionId, int length) {
+        if ( sessionId == null ) {
+            return false;
+        }
+        Set<Events> events = subscriptions.get(sessionId);
+        if ( events == null || events.contains(event) ) {
+            return false;
+        }
+        skippedBytes.addAndGet(length);
+        skippedEvents.incrementAndGet();
+        return true;
+    }
+
+    static String readMethod(byte[] message, int length) {
+        if ( length <= EVENT_PREFIX.length ) {
+            return null;
+        }
+        for (int i = 0; i < EVENT_PREFIX.length; i++) {
+            if ( message[i] != EVENT_PREFIX[i] ) {
+                return null;
+            }
+        }
+        for (int i = EVENT_PREFIX.length; i < length; i++) {
+            if ( message[i] == '"' ) {
+                return new String(message, EVENT_PREFIX.length, i - EVENT_PREFIX.length, UTF_8);
+            }
+        }
+        return null;
+    }
+
+    static String readMethod(String message) {
+        if ( ! message.startsWith("{\"method\":\"") ) {
+            return null;
+        }
+        int end = message.indexOf('"', EVENT_PREFIX.length);
+        return end < 0 ? null : message.substring(EVENT_PREFIX.length, end);
+    }
+
+    static String readSessionId(byte[] message, int offset, int length) {
+        int last = offset + length - SESSION_ID.length;
+        for (int start = last; start >= offset; start--) {
+            boolean found = true;
+            for (int i = 0; i < SESSION_ID.length; i++) {
+                if ( message[start + i] != SESSION_ID[i] ) {
+                    found = false;
+                    break;
+                }
+            }
+            if ( found ) {
+                int begin = start + SESSION_ID.length;
+                for (int i = begin; i < offset + length; i++) {
+                    if ( message[i] == '"' ) {
+                        return new String(message, begin, i - begin, UTF_8);
+                    }
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    static String readSessionId(String message) {
+        int start = message.lastIndexOf("\"sessionId\":\"");
+        if ( start < 0 ) {
+            return null;
+        }
+        int begin = start + SESSION_ID.length;
+        int end = message.indexOf('"', begin);
+        return end < 0 ? null : message.substring(begin, end);
+    }
+
+    /**
+     * Reads a streamed message to its end and closes the stream, a pipe reuses the buffer of the
+     * message only when its stream is closed.
+     */
+    static byte[] readAll(InputStream message) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        byte[] chunk = new byte[8192];
+        int read;
+        try (InputStream is = message) {
+            while ( (read = is.read(chunk)) > 0 ) {
+                buffer.write(chunk, 0, read);
+            }
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private class EventFilterMessageHandler implements MessageHandler {
+
+        private final MessageHandler handler;
+
+        EventFilterMessageHandler(MessageHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void process(String message) {
+            Events event = subscriptions.isEmpty() ? null : filterable(readMethod(message));
+            if ( event == null || ! skip(event, readSessionId(message), message.length()) ) {
+                handler.process(message);
+            }
+        }
+
+        @Override
+        public void process(byte[] message) {
+            Events event = subscriptions.isEmpty() ? null : filterable(readMethod(message, message.length));
+            if ( event == null ) {
+                handler.process(message);
+                return;
+            }
+            int offset = Math.max(0, message.length - TAIL_LENGTH);
+            if ( ! skip(event, readSessionId(message, offset, message.length - offset), message.length) ) {
+                handler.process(message);
+            }
+        }
+
+        @Override
+        public void process(InputStream message) {
+            if ( subscriptions.isEmpty() ) {
+                handler.process(message);
+                return;
+            }
+            InputStream is = message.markSupported() ? message : new BufferedInputStream(message);
+            try {
+                is.mark(Integer.MAX_VALUE);
+                byte[] head = new byte[HEAD_LENGTH];
+                int headLength = read(is, head);
+                Events event = filterable(readMethod(head, headLength));
+                if ( event == null ) {
+                    is.reset();
+                    handler.process(is);
+                    return;
+                }
+                // the session id is at the end, drain the stream and keep only the tail
+                byte[] chunk = new byte[8192];
+                byte[] tail = Arrays.copyOf(head, Math.max(TAIL_LENGTH, headLength));
+                int tailLength = headLength;
+                int length = headLength;
+                int read;
+                while ( (read = is.read(chunk)) > 0 ) {
+                    length += read;
+                    if ( read >= TAIL_LENGTH ) {
+                        System.arraycopy(chunk, read - TAIL_LENGTH, tail, 0, TAIL_LENGTH);
+                        tailLength = TAIL_LENGTH;
+                    } else {
+                        int keep = Math.min(tailLength, TAIL_LENGTH - read);
+                        System.arraycopy(tail, tailLength - keep, tail, 0, keep);
+                        System.arraycopy(chunk, 0, tail, keep, read);
+                        tailLength = keep + read;
+                    }
+                }
+                if ( skip(event, readSessionId(tail, 0, tailLength), length) ) {
+                    is.close();
+                } else {
+                    is.reset();
+                    handler.process(is);
+                }
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+        }
+
+        private int read(InputStream is, byte[] buffer) throws IOException {
+            int length = 0;
+            int read;
+            while ( length < buffer.length && (read = is.read(buffer, length, buffer.length - length)) > 0 ) {
+                length += read;
+            }
+            return length;
+        }
+    }
+}
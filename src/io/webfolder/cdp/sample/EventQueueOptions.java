@@ -0,0 +1,74 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.sample.OverflowPolicy.Block;
+
+/**
+ * Per-session event queue bounds for {@link StripedEventDispatcher}.
+ *
+ * <pre>
+ * EventQueueOptions.builder()
+ *                     .capacity(1_000)
+ *                     .overflowPolicy(OverflowPolicy.DropOldest)
+ *                  .build();
+ * </pre>
+ */
+public class EventQueueOptions {
+
+    private int capacity;
+
+    private OverflowPolicy overflowPolicy;
+
+    private EventQueueOptions() {
+        // no op
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy overflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public static class Builder {
+
+        private final EventQueueOptions options = new EventQueueOptions();
+
+        private Builder() {
+            // no op
+        }
+
+        /**
+         * Maximum number of undelivered events per session, unbounded by default.
+         */
+        public Builder capacity(int capacity) {
+            if ( capacity < 1 ) {
+                throw new IllegalArgumentException("capacity");
+            }
+            options.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Policy applied when the queue of a session is full, {@link OverflowPolicy#Block} by default.
+         */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            options.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public EventQueueOptions build() {
+            if ( options.capacity == 0 ) {
+                options.capacity = Integer.MAX_VALUE;
+            }
+            if ( options.overflowPolicy == null ) {
+                options.overflowPolicy = Block;
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.sample.WebSocketFrames.OPCODE_CLOSE;
+import static io.webfolder.cdp.sample.WebSocketFrames.OPCODE_PING;
+import static io.webfolder.cdp.sample.WebSocketFrames.OPCODE_PONG;
+import static io.webfolder.cdp.sample.WebSocketFrames.OPCODE_TEXT;
+import static io.webfolder.cdp.sample.WebSocketFrames.acceptKey;
+import static io.webfolder.cdp.sample.WebSocketFrames.encode;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.JsonObject;
+
+import io.webfolder.cdp.exception.CdpException;
+
+/**
+ * Embedded stand-in for a DevTools endpoint, used to measure cdp4j without the
+ * noise of a real browser.
+ *
+ * Serves the HTTP discovery used by <code>DevToolsConnection</code> (<code>/json/version</code>)
+ * and the browser WebSocket, every WebSocket connection talks to its own {@link ScriptedBrowser}.
+ * Events can be injected into all attached sessions, either as a burst or as a storm
+ * with a fixed rate.
+ *
+ * <pre>
+ * try (FakeDevTools devTools = new FakeDevTools()) {
+ *     SessionFactory factory = new SessionFactory(options, new NvWebSocketFactory(), new DevToolsConnection(devTools.getPort()));
+ *     ...
+ * }
+ * </pre>
+ */
+public class FakeDevTools implements AutoCloseable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_HEADER_SIZE = 16 * 1024;
+
+    private final ServerSocketChannel server;
+
+    private final Thread acceptor;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final AtomicLong receivedMessages = new AtomicLong();
+
+    private final AtomicLong sentMessages = new AtomicLong();
+
+    private final AtomicLong receivedBytes = new AtomicLong();
+
+    private final AtomicLong sentBytes = new AtomicLong();
+
+    private final String browserId = format("%032X", System.nanoTime());
+
+    private volatile ScheduledFuture<?> storm;
+
+    private volatile int pageLoadDelay;
+
+    private volatile int replyDelay;
+
+    private volatile boolean closed;
+
+    /**
+     * Listens on a free port of the loopback interface.
+     */
+    public FakeDevTools() {
+        this(0);
+    }
+
+    public FakeDevTools(int port) {
+        try {
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "cdp4j-FakeDevToolsStorm");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        scheduler = executor;
+        acceptor = new Thread(this::accept, "cdp4j-FakeDevTools");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public String getWebSocketDebuggerUrl() {
+        return format("ws://127.0.0.1:%d/devtools/browser/%s", getPort(), browserId);
+    }
+
+    /**
+     * Sends <code>count</code> events to every attached session.
+     *
+     * @param params event parameters, <code>null</code> for an empty object
+     */
+    public void burst(String method, JsonObject params, int count) {
+        for (Client client : clients) {
+            for (String sessionId : client.browser.getSessionIds()) {
+                byte[] event = ScriptedBrowser.event(method, sessionId, null, params == null ? new JsonObject() : params).getBytes(UTF_8);
+                for (int i = 0; i < count && client.open; i++) {
+                    client.send(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends events to every attached session at a fixed rate until {@link #stopStorm()}
+     * is called, a running storm is replaced.
+     *
+     * @param eventsPerSecond events per second and per session
+     */
+    public void startStorm(String method, JsonObject params, int eventsPerSecond) {
+        if ( eventsPerSecond < 1 ) {
+            throw new IllegalArgumentException("eventsPerSecond");
+        }
+        stopStorm();
+        long started = System.nanoTime();
+        long[] sent = new long[1];
+        storm = scheduler.scheduleAtFixedRate(() -> {
+            long due = (System.nanoTime() - started) * eventsPerSecond / 1_000_000_000L;
+            int count = (int) Math.min(due - sent[0], eventsPerSecond);
+            if ( count > 0 ) {
+                burst(method, params, count);
+                sent[0] += count;
+            }
+        }, 0, 1, MILLISECONDS);
+    }
+
+    public void stopStorm() {
+        ScheduledFuture<?> current = storm;
+        if ( current != null ) {
+            current.cancel(false);
+            storm = null;
+        }
+    }
+
+    /**
+     * Delays the network and lifecycle events of every navigation to simulate the load time of a page,
+     * the reply of <code>Page.navigate</code> is sent immediately.
+     *
+     * @param pageLoadDelay milliseconds, 0 to send the events with the reply
+     */
+    public void setPageLoadDelay(int pageLoadDelay) {
+        this.pageLoadDelay = pageLoadDelay;
+    }
+
+    /**
+     * Delays every reply, and the events caused by the command, to simulate the round trip to a remote
+     * browser or a slow script. Commands are still processed in parallel, a reply is not delayed by
+     * the replies of the commands sent before it.
+     *
+     * @param replyDelay milliseconds, 0 to reply immediately
+     */
+    public void setReplyDelay(int replyDelay) {
+        this.replyDelay = replyDelay;
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * @return number of commands received on all WebSocket connections
+     */
+    public long getReceivedMessages() {
+        return receivedMessages.get();
+    }
+
+    /**
+     * @return number of replies and events sent on all WebSocket connections
+     */
+    public long getSentMessages() {
+        return sentMessages.get();
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    public long getSentBytes() {
+        return sentBytes.get();
+    }
+
+    @Override
+    public void close() {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        stopStorm();
+        scheduler.shutdownNow();
+        try {
+            server.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        for (Client client : clients) {
+            client.close();
+        }
+    }
+
+    private void accept() {
+        int counter = 0;
+        while ( ! closed ) {
+            try {
+                SocketChannel channel = server.accept();
+                Thread thread = new Thread(() -> serve(channel), "cdp4j-FakeDevTools-" + (++counter));
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if ( ! closed ) {
+                    throw new CdpException(e);
+                }
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try {
+            channel.socket().setTcpNoDelay(true);
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            String header = readHeader(channel, buffer);
+            if ( header == null ) {
+                channel.close();
+                return;
+            }
+            String[] lines = header.split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            String path = requestLine.length > 1 ? requestLine[1] : "/";
+            String key = null;
+            for (int i = 1; i < lines.length; i++) {
+                int separator = lines[i].indexOf(':');
+                if ( separator > 0 && "sec-websocket-key".equals(lines[i].substring(0, separator).trim().toLowerCase(Locale.ENGLISH)) ) {
+                    key = lines[i].substring(separator + 1).trim();
+                }
+            }
+            if ( key != null && path.startsWith("/devtools/browser/") ) {
+                write(channel, ByteBuffer.wrap(("HTTP/1.1 101 Switching Protocols\r\n"
+                                    + "Upgrade: websocket\r\n"
+                                    + "Connection: Upgrade\r\n"
+                                    + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n").getBytes(ISO_8859_1)));
+                Client client = new Client(channel);
+                clients.add(client);
+                connections.incrementAndGet();
+                try {
+                    client.run(buffer);
+                } finally {
+                    clients.remove(client);
+                    connections.decrementAndGet();
+                    client.close();
+                }
+            } else {
+                respond(channel, path);
+                channel.close();
+            }
+        } catch (IOException | CdpException e) {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+                // ignore
+            }
+        }
+    }
+
+    // reads the request header, bytes after the header are left in the buffer
+    private static String readHeader(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while ( true ) {
+            if ( channel.read(buffer) < 0 ) {
+                return null;
+            }
+            byte[] data = buffer.array();
+            for (int i = 3; i < buffer.position(); i++) {
+                if ( data[i - 3] == '\r' && data[i - 2] == '\n' && data[i - 1] == '\r' && data[i] == '\n' ) {
+                    String header = new String(data, 0, i + 1, ISO_8859_1);
+                    buffer.flip();
+                    buffer.position(i + 1);
+                    buffer.compact();
+                    return header;
+                }
+            }
+            if ( buffer.position() >= MAX_HEADER_SIZE ) {
+                return null;
+            }
+        }
+    }
+
+    private void respond(SocketChannel channel, String path) throws IOException {
+        String status = "200 OK";
+        String body;
+        if ( "/json/version".equals(path) ) {
+            JsonObject version = new JsonObject();
+            version.addProperty("Browser", "HeadlessChrome/92.0.4515.131");
+            version.addProperty("Protocol-Version", "1.3");
+            version.addProperty("User-Agent", "Mozilla/5.0 HeadlessChrome/92.0.4515.131");
+            version.addProperty("V8-Version", "9.2.230.21");
+            version.addProperty("WebKit-Version", "537.36");
+            version.addProperty("webSocketDebuggerUrl", getWebSocketDebuggerUrl());
+            body = version.toString();
+        } else if ( "/json".equals(path) || "/json/list".equals(path) ) {
+            body = "[]";
+        } else {
+            status = "404 Not Found";
+            body = "{}";
+        }
+        byte[] content = body.getBytes(UTF_8);
+        write(channel, ByteBuffer.wrap(("HTTP/1.1 " + status + "\r\n"
+                            + "Content-Type: application/json; charset=UTF-8\r\n"
+                            + "Content-Length: " + content.length + "\r\n"
+                            + "Connection: close\r\n\r\n").getBytes(ISO_8859_1)));
+        write(channel, ByteBuffer.wrap(content));
+    }
+
+    private static void write(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while ( buffer.hasRemaining() ) {
+            channel.write(buffer);
+        }
+    }
+
+    private class Client {
+
+        private final SocketChannel channel;
+
+        private final ScriptedBrowser browser = new ScriptedBrowser();
+
+        private volatile boolean open = true;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void run(ByteBuffer buffer) throws IOException {
+            WebSocketFrames.Decoder decoder = new WebSocketFrames.Decoder(this::onMessage);
+            buffer.flip();
+            decoder.decode(buffer);
+            buffer.compact();
+            while ( open ) {
+                if ( ! buffer.hasRemaining() ) {
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+                int read = channel.read(buffer);
+                if ( read < 0 ) {
+                    return;
+                }
+                receivedBytes.addAndGet(read);
+                buffer.flip();
+                decoder.decode(buffer);
+                buffer.compact();
+            }
+        }
+
+        private void onMessage(int opcode, byte[] payload) {
+            switch (opcode) {
+                case OPCODE_TEXT:
+                    receivedMessages.incrementAndGet();
+                    List<String> out = new ArrayList<>(4);
+                    boolean loading = browser.process(new String(payload, UTF_8), out::add);
+                    int reply = replyDelay;
+                    int load = loading ? pageLoadDelay : 0;
+                    if ( reply > 0 || load > 0 ) {
+                        send(out.subList(0, 1), reply);
+                        send(out.subList(1, out.size()), reply + load);
+                    } else {
+                        send(out, 0);
+                    }
+                break;
+                case OPCODE_PING:
+                    sendFrame(OPCODE_PONG, payload);
+                break;
+                case OPCODE_CLOSE:
+                    sendFrame(OPCODE_CLOSE, payload);
+                    open = false;
+                break;
+                default:
+                break;
+            }
+        }
+
+        private void send(List<String> messages, int delay) {
+            if ( delay <= 0 ) {
+                for (String message : messages) {
+                    send(message.getBytes(UTF_8));
+                }
+                return;
+            }
+            scheduler.schedule(() -> send(messages, 0), delay, MILLISECONDS);
+        }
+
+        void send(byte[] message) {
+            if ( sendFrame(OPCODE_TEXT, message) ) {
+                sentMessages.incrementAndGet();
+            }
+        }
+
+        private synchronized boolean sendFrame(int opcode, byte[] payload) {
+            if ( ! open ) {
+                return false;
+            }
+            ByteBuffer frame = encode(opcode, payload, false);
+            int length = frame.remaining();
+            try {
+                write(channel, frame);
+            } catch (IOException e) {
+                open = false;
+                return false;
+            }
+            sentBytes.addAndGet(length);
+            return true;
+        }
+
+        void close() {
+            open = false;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.event.Events.NetworkDataReceived;
+import static java.lang.System.nanoTime;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.JsonObject;
+import com.sun.management.OperatingSystemMXBean;
+
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.DevToolsConnection;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.command.Runtime;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Measures cdp4j's own overhead against FakeDevTools instead of Chrome:
+// memory per session, command latency (p50/p99) with concurrent callers,
+// messages per second per CPU core and event throughput during an event storm.
+//
+// Arguments: [connections] [sessions per connection] [commands per session] [storm events per second and session]
+// (the free version of cdp4j allows 5 sessions per SessionFactory)
+public class FakeDevToolsLoadTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int sessionsPerConnection = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int commands = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        int stormRate = args.length > 3 ? Integer.parseInt(args[3]) : 1_000;
+        int sessions = connections * sessionsPerConnection;
+
+        OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+        try (FakeDevTools devTools = new FakeDevTools()) {
+            Options options = Options.builder().build();
+            List<SessionFactory> factories = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                factories.add(new SessionFactory(options, new NvWebSocketFactory(), new DevToolsConnection(devTools.getPort())));
+            }
+
+            // memory per session, the first session loads the classes and
+            // its close events are processed before the baseline is taken
+            factories.get(0).create().close();
+            Thread.sleep(500);
+            long heap = usedHeap();
+            List<Session> list = new ArrayList<>();
+            for (SessionFactory factory : factories) {
+                for (int i = 0; i < sessionsPerConnection; i++) {
+                    list.add(factory.create());
+                }
+            }
+            System.out.printf("memory per session: %.1f KB%n", (usedHeap() - heap) / 1024.0 / sessions);
+
+            // command latency, one caller thread per session
+            long[][] latencies = new long[sessions][commands];
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < sessions; i++) {
+                Runtime runtime = list.get(i).getCommand().getRuntime();
+                long[] latency = latencies[i];
+                callers.add(new Thread(() -> {
+                    for (int j = 0; j < commands; j++) {
+                        long start = nanoTime();
+                        runtime.evaluate("1");
+                        latency[j] = nanoTime() - start;
+                    }
+                }));
+            }
+            long messages = devTools.getReceivedMessages() + devTools.getSentMessages();
+            long cpu = os.getProcessCpuTime();
+            long start = nanoTime();
+            for (Thread next : callers) {
+                next.start();
+            }
+            for (Thread next : callers) {
+                next.join();
+            }
+            double elapsed = (nanoTime() - start) / 1_000_000_000.0;
+            double cpuSeconds = (os.getProcessCpuTime() - cpu) / 1_000_000_000.0;
+            messages = devTools.getReceivedMessages() + devTools.getSentMessages() - messages;
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("commands: %d in %.2f s, %.0f commands/s%n", all.length, elapsed, all.length / elapsed);
+            System.out.printf("command latency p50: %.1f us, p99: %.1f us%n",
+                                all[all.length / 2] / 1_000.0,
+                                all[all.length * 99 / 100] / 1_000.0);
+            // the fake endpoint runs in the same process, its CPU time is included
+            System.out.printf("messages per second per core: %.0f%n", messages / cpuSeconds);
+
+            // event storm
+            AtomicLong received = new AtomicLong();
+            for (Session session : list) {
+                session.addSyncEventListener((event, value) -> {
+                    if ( NetworkDataReceived.equals(event) ) {
+                        received.incrementAndGet();
+                    }
+                });
+            }
+            JsonObject params = new JsonObject();
+            params.addProperty("requestId", "1000.1");
+            params.addProperty("timestamp", 51232.21803);
+            params.addProperty("dataLength", 4096);
+            params.addProperty("encodedDataLength", 1024);
+            cpu = os.getProcessCpuTime();
+            start = nanoTime();
+            devTools.startStorm("Network.dataReceived", params, stormRate);
+            Thread.sleep(3_000);
+            devTools.stopStorm();
+            elapsed = (nanoTime() - start) / 1_000_000_000.0;
+            cpuSeconds = (os.getProcessCpuTime() - cpu) / 1_000_000_000.0;
+            System.out.printf("event storm: %d events delivered, %.0f events/s, %.0f events per CPU second%n",
+                                received.get(), received.get() / elapsed, received.get() / cpuSeconds);
+
+            for (Session session : list) {
+                session.close();
+            }
+            for (SessionFactory factory : factories) {
+                factory.close();
+            }
+        }
+    }
+
+    // collects until the used heap does not shrink anymore
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            memory.gc();
+            long next = memory.getHeapMemoryUsage().getUsed();
+            if ( next >= used ) {
+                break;
+            }
+            used = next;
+        }
+        return used;
+    }
+}
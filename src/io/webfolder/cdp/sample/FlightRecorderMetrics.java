@@ -0,0 +1,199 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.sample.JfrEventType.DATA_AMOUNT;
+import static io.webfolder.cdp.sample.JfrEventType.TIMESPAN;
+import static io.webfolder.cdp.sample.JfrEventType.commit;
+import static io.webfolder.cdp.sample.JfrEventType.set;
+
+import java.util.function.Predicate;
+
+import io.webfolder.cdp.sample.JfrEventType.Field;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.WaitUntil;
+
+/**
+ * Emits JDK Flight Recorder events, visible in JDK Mission Control under the <code>cdp4j</code> category:
+ *
+ * <ul>
+ * <li><code>io.webfolder.cdp.Command</code> - from sending a command until its reply is read (domain, method, session id, bytes)</li>
+ * <li><code>io.webfolder.cdp.Event</code> - hand-off of an event to the worker thread pool on the reading thread (type, bytes)</li>
+ * <li><code>io.webfolder.cdp.EventDecode</code> - decode task of an event on the worker thread pool (type, queue time)</li>
+ * <li><code>io.webfolder.cdp.EventListener</code> - listener task of an event on the event handler thread pool (type, queue time)</li>
+ * <li><code>io.webfolder.cdp.Wait</code> - blocking waits started with the static methods of this class</li>
+ * </ul>
+ *
+ * <code>EventDecode</code> requires the worker thread pool, <code>EventListener</code> both thread pools
+ * instrumented with {@link MetricsChannelFactory#instrument(java.util.concurrent.ExecutorService)}.
+ *
+ * Events are only created while a recording is running, e.g. with
+ * <code>-XX:StartFlightRecording=filename=cdp4j.jfr</code>. Requires a JVM with <code>jdk.jfr</code>
+ * (Java 11+ or 8u262+), otherwise nothing is recorded.
+ */
+public class FlightRecorderMetrics implements CdpMetrics {
+
+    private static final JfrEventType COMMAND = new JfrEventType("io.webfolder.cdp.Command", "CDP Command",
+                                    "DevTools command, from sending the request until the reply is read",
+                                    new Field("domain", String.class, "Domain"),
+                                    new Field("method", String.class, "Method"),
+                                    new Field("sessionId", String.class, "Session Id"),
+                                    new Field("bytesOut", long.class, "Request Size", DATA_AMOUNT),
+                                    new Field("bytesIn", long.class, "Reply Size", DATA_AMOUNT),
+                                    new Field("error", boolean.class, "Error"));
+
+    private static final JfrEventType EVENT = new JfrEventType("io.webfolder.cdp.Event", "CDP Event",
+                                    "DevTools event, queued to the cdp4j worker thread pool on the reading thread",
+                                    new Field("type", String.class, "Type"),
+                                    new Field("bytes", long.class, "Size", DATA_AMOUNT));
+
+    private static final JfrEventType DECODE = new JfrEventType("io.webfolder.cdp.EventDecode", "CDP Event Decode",
+                                    "DevTools event decoded and its listener task submitted, on the cdp4j worker thread pool",
+                                    new Field("type", String.class, "Type"),
+                                    new Field("queueTime", long.class, "Queue Time", TIMESPAN));
+
+    private static final JfrEventType LISTENER = new JfrEventType("io.webfolder.cdp.EventListener", "CDP Event Listener",
+                                    "Listeners of a DevTools event, on the cdp4j event handler thread pool",
+                                    new Field("type", String.class, "Type"),
+                                    new Field("queueTime", long.class, "Queue Time", TIMESPAN));
+
+    private static final JfrEventType WAIT = new JfrEventType("io.webfolder.cdp.Wait", "CDP Wait",
+                                    "Thread blocked until the page reaches a state",
+                                    new Field("operation", String.class, "Operation"),
+                                    new Field("sessionId", String.class, "Session Id"),
+                                    new Field("timeout", long.class, "Timeout", TIMESPAN),
+                                    new Field("success", boolean.class, "Success"));
+
+    /**
+     * @return <code>true</code> if the JVM supports JDK Flight Recorder events
+     */
+    public static boolean isAvailable() {
+        return JfrEventType.isAvailable();
+    }
+
+    @Override
+    public Object commandSent(String sessionId, String method, int bytes) {
+        Object event = COMMAND.begin();
+        if ( event != null ) {
+            int separator = method.indexOf('.');
+            set(event, 0, separator < 0 ? "" : method.substring(0, separator));
+            set(event, 1, method);
+            set(event, 2, sessionId);
+            set(event, 3, (long) bytes);
+        }
+        return event;
+    }
+
+    @Override
+    public void commandCompleted(Object context, String method, long latency, boolean error, int bytes) {
+        if ( context != null ) {
+            set(context, 4, (long) bytes);
+            set(context, 5, error);
+            commit(context);
+        }
+    }
+
+    @Override
+    public Object eventReceived(String method, int bytes) {
+        Object event = EVENT.begin();
+        if ( event != null ) {
+            set(event, 0, method);
+            set(event, 1, (long) bytes);
+        }
+        return event;
+    }
+
+    @Override
+    public void eventDispatched(Object context, String method, long duration) {
+        commit(context);
+    }
+
+    @Override
+    public Object decodeStarted(String method, long queued) {
+        Object event = DECODE.begin();
+        if ( event != null ) {
+            set(event, 0, method);
+            set(event, 1, queued);
+        }
+        return event;
+    }
+
+    @Override
+    public void decodeCompleted(Object context, String method, long duration) {
+        commit(context);
+    }
+
+    @Override
+    public Object listenerStarted(String method, long queued) {
+        Object event = LISTENER.begin();
+        if ( event != null ) {
+            set(event, 0, method);
+            set(event, 1, queued);
+        }
+        return event;
+    }
+
+    @Override
+    public void listenerCompleted(Object context, String method, long duration) {
+        commit(context);
+    }
+
+    /**
+     * {@link Session#waitDocumentReady(int)} recorded as a <code>io.webfolder.cdp.Wait</code> event.
+     */
+    public static Session waitDocumentReady(Session session, int timeout) {
+        Object event = beginWait("waitDocumentReady", session, timeout);
+        boolean success = false;
+        try {
+            session.waitDocumentReady(timeout);
+            success = true;
+            return session;
+        } finally {
+            endWait(event, success);
+        }
+    }
+
+    /**
+     * {@link Session#waitUntil(Predicate, int)} recorded as a <code>io.webfolder.cdp.Wait</code> event.
+     */
+    public static boolean waitUntil(Session session, Predicate<Session> condition, int timeout) {
+        Object event = beginWait("waitUntil", session, timeout);
+        boolean success = false;
+        try {
+            success = session.waitUntil(condition, timeout);
+            return success;
+        } finally {
+            endWait(event, success);
+        }
+    }
+
+    /**
+     * {@link Session#navigateAndWait(String, WaitUntil, int)} recorded as a <code>io.webfolder.cdp.Wait</code> event.
+     */
+    public static Session navigateAndWait(Session session, String url, WaitUntil condition, int timeout) {
+        Object event = beginWait("navigateAndWait " + condition, session, timeout);
+        boolean success = false;
+        try {
+            session.navigateAndWait(url, condition, timeout);
+            success = true;
+            return session;
+        } finally {
+            endWait(event, success);
+        }
+    }
+
+    private static Object beginWait(String operation, Session session, int timeout) {
+        Object event = WAIT.begin();
+        if ( event != null ) {
+            set(event, 0, operation);
+            set(event, 1, session.getId());
+            set(event, 2, timeout * 1_000_000L);
+        }
+        return event;
+    }
+
+    private static void endWait(Object event, boolean success) {
+        if ( event != null ) {
+            set(event, 3, success);
+            commit(event);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.session.WaitUntil.Load;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Records commands, events, their decode and listener tasks, and waits as JDK Flight Recorder events.
+// Run with -XX:StartFlightRecording=filename=cdp4j.jfr and open the recording in JDK Mission Control (cdp4j category)
+// or print it with: jfr print --categories cdp4j cdp4j.jfr
+public class FlightRecording {
+
+    public static void main(String[] args) {
+        if ( ! FlightRecorderMetrics.isAvailable() ) {
+            System.err.println("JDK Flight Recorder is not available on this JVM");
+        }
+
+        MetricsChannelFactory channelFactory = new MetricsChannelFactory(new NvWebSocketFactory(),
+                                                        CdpMetrics.of(new FlightRecorderMetrics(), new JmxMetrics()));
+
+        Options options = Options.builder()
+                                    .headless(true)
+                                    .workerThreadPool(channelFactory.instrument(newSingleThreadExecutor()))
+                                    .eventHandlerThreadPool(channelFactory.instrument(newSingleThreadExecutor()))
+                                .build();
+
+        Launcher launcher = new Launcher(options, channelFactory);
+
+        try (SessionFactory factory = launcher.launch();
+                            Session session = factory.create()) {
+            session.getCommand().getNetwork().enable();
+            FlightRecorderMetrics.navigateAndWait(session, "https://webfolder.io", Load, 10_000);
+            FlightRecorderMetrics.waitUntil(session, s -> s.getTitle() != null, 1_000);
+            for (int i = 0; i < 100; i++) {
+                session.evaluate("document.title");
+            }
+        } finally {
+            launcher.kill();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package io.webfolder.cdp.sample;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the measurements of {@link MetricsChannelFactory} per command and event,
+ * latencies and queue times are recorded in a {@link LatencyHistogram}.
+ */
+public class HistogramMetrics implements CdpMetrics {
+
+    private final Map<String, CommandStats> commands = new ConcurrentHashMap<>();
+
+    private final Map<String, EventStats> events = new ConcurrentHashMap<>();
+
+    @Override
+    public Object commandSent(String sessionId, String method, int bytes) {
+        CommandStats stats = command(method);
+        stats.inFlight.incrementAndGet();
+        stats.bytesOut.addAndGet(bytes);
+        return stats;
+    }
+
+    @Override
+    public void commandCompleted(Object context, String method, long latency, boolean error, int bytes) {
+        CommandStats stats = (CommandStats) context;
+        stats.inFlight.decrementAndGet();
+        stats.bytesIn.addAndGet(bytes);
+        stats.latency.record(latency);
+        if ( error ) {
+            stats.errors.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Object eventReceived(String method, int bytes) {
+        EventStats stats = event(method);
+        stats.count.incrementAndGet();
+        stats.bytesIn.addAndGet(bytes);
+        return stats;
+    }
+
+    @Override
+    public void eventDispatched(Object context, String method, long duration) {
+        ((EventStats) context).dispatchTime.record(duration);
+    }
+
+    @Override
+    public Object decodeStarted(String method, long queued) {
+        EventStats stats = event(method);
+        stats.decodeQueueTime.record(queued);
+        return stats;
+    }
+
+    @Override
+    public void decodeCompleted(Object context, String method, long duration) {
+        ((EventStats) context).decodeTime.record(duration);
+    }
+
+    @Override
+    public Object listenerStarted(String method, long queued) {
+        EventStats stats = event(method);
+        stats.listenerQueueTime.record(queued);
+        return stats;
+    }
+
+    @Override
+    public void listenerCompleted(Object context, String method, long duration) {
+        ((EventStats) context).listenerTime.record(duration);
+    }
+
+    /**
+     * @return statistics per command, sorted by command name
+     */
+    public Map<String, CommandStats> getCommands() {
+        return unmodifiableMap(new TreeMap<>(commands));
+    }
+
+    /**
+     * @return statistics per event, sorted by event name
+     */
+    public Map<String, EventStats> getEvents() {
+        return unmodifiableMap(new TreeMap<>(events));
+    }
+
+    public int getInFlight() {
+        int total = 0;
+        for (CommandStats next : commands.values()) {
+            total += next.getInFlight();
+        }
+        return total;
+    }
+
+    public long getBytesOut() {
+        long total = 0;
+        for (CommandStats next : commands.values()) {
+            total += next.getBytesOut();
+        }
+        return total;
+    }
+
+    public long getBytesIn() {
+        long total = 0;
+        for (CommandStats next : commands.values()) {
+            total += next.getBytesIn();
+        }
+        for (EventStats next : events.values()) {
+            total += next.getBytesIn();
+        }
+        return total;
+    }
+
+    /**
+     * Called once for every command name, before its first measurement is recorded.
+     */
+    protected void created(String method, CommandStats stats) {
+        // no op
+    }
+
+    /**
+     * Called once for every event name, before its first measurement is recorded.
+     */
+    protected void created(String method, EventStats stats) {
+        // no op
+    }
+
+    private CommandStats command(String method) {
+        CommandStats stats = commands.get(method);
+        if ( stats == null ) {
+            stats = commands.computeIfAbsent(method, key -> {
+                CommandStats created = new CommandStats();
+                created(key, created);
+                return created;
+            });
+        }
+        return stats;
+    }
+
+    private EventStats event(String method) {
+        EventStats stats = events.get(method);
+        if ( stats == null ) {
+            stats = events.computeIfAbsent(method, key -> {
+                EventStats created = new EventStats();
+                created(key, created);
+                return created;
+            });
+        }
+        return stats;
+    }
+
+    public static class CommandStats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicLong errors = new AtomicLong();
+
+        private final AtomicLong bytesOut = new AtomicLong();
+
+        private final AtomicLong bytesIn = new AtomicLong();
+
+        /**
+         * @return send-to-reply latency in nanoseconds
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return commands which are sent and not yet replied
+         */
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+
+        public long getBytesOut() {
+            return bytesOut.get();
+        }
+
+        public long getBytesIn() {
+            return bytesIn.get();
+        }
+    }
+
+    public static class EventStats {
+
+        private final LatencyHistogram dispatchTime = new LatencyHistogram();
+
+        private final LatencyHistogram decodeQueueTime = new LatencyHistogram();
+
+        private final LatencyHistogram decodeTime = new LatencyHistogram();
+
+        private final LatencyHistogram listenerQueueTime = new LatencyHistogram();
+
+        private final LatencyHistogram listenerTime = new LatencyHistogram();
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong bytesIn = new AtomicLong();
+
+        /**
+         * @return nanoseconds spent in the cdp4j message handler on the reading thread, which
+         *         only queues the message to the worker thread pool
+         */
+        public LatencyHistogram getDispatchTime() {
+            return dispatchTime;
+        }
+
+        /**
+         * @return nanoseconds spent in the queue of the instrumented worker thread pool
+         */
+        public LatencyHistogram getDecodeQueueTime() {
+            return decodeQueueTime;
+        }
+
+        /**
+         * @return nanoseconds spent decoding on the instrumented worker thread pool, submitting
+         *         the listener task included
+         */
+        public LatencyHistogram getDecodeTime() {
+            return decodeTime;
+        }
+
+        /**
+         * @return nanoseconds spent in the queue of the instrumented event handler thread pool
+         */
+        public LatencyHistogram getListenerQueueTime() {
+            return listenerQueueTime;
+        }
+
+        /**
+         * @return nanoseconds spent in the listeners, per task of the instrumented event handler thread pool
+         */
+        public LatencyHistogram getListenerTime() {
+            return listenerTime;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getBytesIn() {
+            return bytesIn.get();
+        }
+    }
+}
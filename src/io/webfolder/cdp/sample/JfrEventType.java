@@ -0,0 +1,194 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDK Flight Recorder event type which is defined at runtime with <code>jdk.jfr.EventFactory</code>.
+ *
+ * The samples are compiled for Java 8 where <code>jdk.jfr</code> is not part of the platform
+ * API, the flight recorder classes are therefore used through method handles. On a JVM without
+ * <code>jdk.jfr</code> (Java 8 before 8u262) every method is a no-op.
+ */
+final class JfrEventType {
+
+    static final String TIMESPAN = "jdk.jfr.Timespan";
+
+    static final String DATA_AMOUNT = "jdk.jfr.DataAmount";
+
+    private static final MethodHandle CREATE;
+
+    private static final MethodHandle NEW_EVENT;
+
+    private static final MethodHandle GET_EVENT_TYPE;
+
+    private static final MethodHandle IS_ENABLED;
+
+    private static final MethodHandle BEGIN;
+
+    private static final MethodHandle SET;
+
+    private static final MethodHandle COMMIT;
+
+    private static final Constructor<?> ANNOTATION_ELEMENT;
+
+    private static final Constructor<?> VALUE_DESCRIPTOR;
+
+    private final Object factory;
+
+    private final Object eventType;
+
+    static {
+        MethodHandle create = null, newEvent = null, getEventType = null, isEnabled = null;
+        MethodHandle begin = null, set = null, commit = null;
+        Constructor<?> annotationElement = null, valueDescriptor = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+            Class<?> event = Class.forName("jdk.jfr.Event");
+            Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+            create = lookup.findStatic(eventFactory, "create", methodType(eventFactory, List.class, List.class))
+                                .asType(methodType(Object.class, List.class, List.class));
+            newEvent = lookup.findVirtual(eventFactory, "newEvent", methodType(event))
+                                .asType(methodType(Object.class, Object.class));
+            getEventType = lookup.findVirtual(eventFactory, "getEventType", methodType(eventTypeClass))
+                                .asType(methodType(Object.class, Object.class));
+            isEnabled = lookup.findVirtual(eventTypeClass, "isEnabled", methodType(boolean.class))
+                                .asType(methodType(boolean.class, Object.class));
+            begin = lookup.findVirtual(event, "begin", methodType(void.class))
+                                .asType(methodType(void.class, Object.class));
+            set = lookup.findVirtual(event, "set", methodType(void.class, int.class, Object.class))
+                                .asType(methodType(void.class, Object.class, int.class, Object.class));
+            commit = lookup.findVirtual(event, "commit", methodType(void.class))
+                                .asType(methodType(void.class, Object.class));
+            annotationElement = Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class);
+            valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class, List.class);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            create = null;
+        }
+        CREATE = create;
+        NEW_EVENT = newEvent;
+        GET_EVENT_TYPE = getEventType;
+        IS_ENABLED = isEnabled;
+        BEGIN = begin;
+        SET = set;
+        COMMIT = commit;
+        ANNOTATION_ELEMENT = annotationElement;
+        VALUE_DESCRIPTOR = valueDescriptor;
+    }
+
+    /**
+     * @param fields name, type, label and optional content type annotation ({@link #TIMESPAN}
+     *               or {@link #DATA_AMOUNT}) of each field, in the order used by {@link #set(Object, int, Object)}
+     */
+    JfrEventType(String name, String label, String description, Field... fields) {
+        Object factory = null;
+        Object eventType = null;
+        if ( CREATE != null ) {
+            try {
+                List<Object> annotations = new ArrayList<>();
+                annotations.add(annotation("jdk.jfr.Name", name));
+                annotations.add(annotation("jdk.jfr.Label", label));
+                annotations.add(annotation("jdk.jfr.Description", description));
+                annotations.add(annotation("jdk.jfr.Category", new String[] { "cdp4j" }));
+                List<Object> values = new ArrayList<>();
+                for (Field next : fields) {
+                    List<Object> fieldAnnotations = new ArrayList<>();
+                    fieldAnnotations.add(annotation("jdk.jfr.Label", next.label));
+                    if ( TIMESPAN.equals(next.contentType) ) {
+                        fieldAnnotations.add(annotation(TIMESPAN, "NANOSECONDS"));
+                    } else if ( DATA_AMOUNT.equals(next.contentType) ) {
+                        fieldAnnotations.add(annotation(DATA_AMOUNT, "BYTES"));
+                    }
+                    values.add(VALUE_DESCRIPTOR.newInstance(next.type, next.name, fieldAnnotations));
+                }
+                factory = CREATE.invoke(annotations, values);
+                eventType = GET_EVENT_TYPE.invoke(factory);
+            } catch (Throwable e) {
+                factory = null;
+                eventType = null;
+            }
+        }
+        this.factory = factory;
+        this.eventType = eventType;
+    }
+
+    static boolean isAvailable() {
+        return CREATE != null;
+    }
+
+    /**
+     * @return started event, or <code>null</code> if the event type is not recorded
+     */
+    Object begin() {
+        if ( eventType == null ) {
+            return null;
+        }
+        try {
+            if ( ! (boolean) IS_ENABLED.invoke(eventType) ) {
+                return null;
+            }
+            Object event = NEW_EVENT.invoke(factory);
+            BEGIN.invoke(event);
+            return event;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    static void set(Object event, int index, Object value) {
+        if ( event == null ) {
+            return;
+        }
+        try {
+            SET.invoke(event, index, value);
+        } catch (Throwable e) {
+            // ignore, the event is still committed
+        }
+    }
+
+    /**
+     * Ends and commits the event, the duration is the time since {@link #begin()}.
+     */
+    static void commit(Object event) {
+        if ( event == null ) {
+            return;
+        }
+        try {
+            COMMIT.invoke(event);
+        } catch (Throwable e) {
+            // ignore
+        }
+    }
+
+    private static Object annotation(String type, Object value) throws ReflectiveOperationException {
+        return ANNOTATION_ELEMENT.newInstance(Class.forName(type), value);
+    }
+
+    static final class Field {
+
+        private final String name;
+
+        private final Class<?> type;
+
+        private final String label;
+
+        private final String contentType;
+
+        Field(String name, Class<?> type, String label) {
+            this(name, type, label, null);
+        }
+
+        Field(String name, Class<?> type, String label, String contentType) {
+            this.name = name;
+            this.type = type;
+            this.label = label;
+            this.contentType = contentType;
+        }
+    }
+}
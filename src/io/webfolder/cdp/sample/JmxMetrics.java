@@ -0,0 +1,268 @@
+package io.webfolder.cdp.sample;
+
+import static javax.management.ObjectName.quote;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import io.webfolder.cdp.exception.CdpException;
+
+/**
+ * {@link HistogramMetrics} which registers an MXBean for every command and event
+ * on the platform MBean server, e.g.
+ * <code>io.webfolder.cdp:type=Command,scope=default,domain=Page,name=navigate</code>.
+ * Latencies are published in microseconds.
+ */
+public class JmxMetrics extends HistogramMetrics implements AutoCloseable {
+
+    private static final String JMX_DOMAIN = "io.webfolder.cdp";
+
+    private final MBeanServer server;
+
+    private final String scope;
+
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+
+    public JmxMetrics() {
+        this("default");
+    }
+
+    /**
+     * @param scope distinguishes the MBeans of several instances in the same JVM
+     */
+    public JmxMetrics(String scope) {
+        this.server = ManagementFactory.getPlatformMBeanServer();
+        this.scope = scope;
+        register(name("Metrics", null), new SummaryMXBean() {
+
+            @Override
+            public int getInFlight() {
+                return JmxMetrics.this.getInFlight();
+            }
+
+            @Override
+            public long getBytesOut() {
+                return JmxMetrics.this.getBytesOut();
+            }
+
+            @Override
+            public long getBytesIn() {
+                return JmxMetrics.this.getBytesIn();
+            }
+        });
+    }
+
+    @Override
+    protected void created(String method, CommandStats stats) {
+        register(name("Command", method), new CommandMXBean() {
+
+            @Override
+            public long getCount() {
+                return stats.getLatency().getCount();
+            }
+
+            @Override
+            public long getErrors() {
+                return stats.getErrors();
+            }
+
+            @Override
+            public int getInFlight() {
+                return stats.getInFlight();
+            }
+
+            @Override
+            public long getBytesOut() {
+                return stats.getBytesOut();
+            }
+
+            @Override
+            public long getBytesIn() {
+                return stats.getBytesIn();
+            }
+
+            @Override
+            public double getLatencyMean() {
+                return stats.getLatency().getMean() / 1_000;
+            }
+
+            @Override
+            public double getLatencyP50() {
+                return stats.getLatency().getValueAtPercentile(50) / 1_000.0;
+            }
+
+            @Override
+            public double getLatencyP99() {
+                return stats.getLatency().getValueAtPercentile(99) / 1_000.0;
+            }
+
+            @Override
+            public double getLatencyP999() {
+                return stats.getLatency().getValueAtPercentile(99.9) / 1_000.0;
+            }
+
+            @Override
+            public double getLatencyMax() {
+                return stats.getLatency().getMax() / 1_000.0;
+            }
+        });
+    }
+
+    @Override
+    protected void created(String method, EventStats stats) {
+        register(name("Event", method), new EventMXBean() {
+
+            @Override
+            public long getCount() {
+                return stats.getCount();
+            }
+
+            @Override
+            public long getBytesIn() {
+                return stats.getBytesIn();
+            }
+
+            @Override
+            public double getDispatchTimeP99() {
+                return stats.getDispatchTime().getValueAtPercentile(99) / 1_000.0;
+            }
+
+            @Override
+            public double getDecodeQueueTimeP99() {
+                return stats.getDecodeQueueTime().getValueAtPercentile(99) / 1_000.0;
+            }
+
+            @Override
+            public double getDecodeTimeP99() {
+                return stats.getDecodeTime().getValueAtPercentile(99) / 1_000.0;
+            }
+
+            @Override
+            public double getListenerQueueTimeP50() {
+                return stats.getListenerQueueTime().getValueAtPercentile(50) / 1_000.0;
+            }
+
+            @Override
+            public double getListenerQueueTimeP99() {
+                return stats.getListenerQueueTime().getValueAtPercentile(99) / 1_000.0;
+            }
+
+            @Override
+            public double getListenerQueueTimeMax() {
+                return stats.getListenerQueueTime().getMax() / 1_000.0;
+            }
+
+            @Override
+            public double getListenerTimeP50() {
+                return stats.getListenerTime().getValueAtPercentile(50) / 1_000.0;
+            }
+
+            @Override
+            public double getListenerTimeP99() {
+                return stats.getListenerTime().getValueAtPercentile(99) / 1_000.0;
+            }
+        });
+    }
+
+    /**
+     * Unregisters the MBeans of this instance.
+     */
+    @Override
+    public void close() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // already unregistered
+            }
+        }
+        registered.clear();
+    }
+
+    private ObjectName name(String type, String method) {
+        StringBuilder name = new StringBuilder(JMX_DOMAIN).append(":type=").append(type)
+                                                .append(",scope=").append(quote(scope));
+        if ( method != null ) {
+            int separator = method.indexOf('.');
+            name.append(",domain=").append(quote(separator < 0 ? "" : method.substring(0, separator)))
+                .append(",name=").append(quote(method.substring(separator + 1)));
+        }
+        try {
+            return new ObjectName(name.toString());
+        } catch (JMException e) {
+            throw new CdpException(e);
+        }
+    }
+
+    private void register(ObjectName name, Object mbean) {
+        try {
+            if ( server.isRegistered(name) ) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+            registered.add(name);
+        } catch (JMException e) {
+            throw new CdpException(e);
+        }
+    }
+
+    public interface SummaryMXBean {
+
+        int getInFlight();
+
+        long getBytesOut();
+
+        long getBytesIn();
+    }
+
+    public interface CommandMXBean {
+
+        long getCount();
+
+        long getErrors();
+
+        int getInFlight();
+
+        long getBytesOut();
+
+        long getBytesIn();
+
+        double getLatencyMean();
+
+        double getLatencyP50();
+
+        double getLatencyP99();
+
+        double getLatencyP999();
+
+        double getLatencyMax();
+    }
+
+    public interface EventMXBean {
+
+        long getCount();
+
+        long getBytesIn();
+
+        double getDispatchTimeP99();
+
+        double getDecodeQueueTimeP99();
+
+        double getDecodeTimeP99();
+
+        double getListenerQueueTimeP50();
+
+        double getListenerQueueTimeP99();
+
+        double getListenerQueueTimeMax();
+
+        double getListenerTimeP50();
+
+        double getListenerTimeP99();
+    }
+}
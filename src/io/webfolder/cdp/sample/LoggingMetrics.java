@@ -0,0 +1,91 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.String.format;
+
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.logger.CdpLogger;
+import io.webfolder.cdp.logger.CdpLoggerFactory;
+
+/**
+ * {@link HistogramMetrics} which writes a table of all commands and events to the
+ * cdp4j logger, on demand with {@link #dump()} or periodically after {@link #start(long, TimeUnit)}.
+ * Latencies are logged in microseconds.
+ */
+public class LoggingMetrics extends HistogramMetrics implements AutoCloseable {
+
+    private final CdpLogger logger;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Logs with the logger type of the options (<code>Options.loggerType</code>).
+     */
+    public LoggingMetrics(Options options) {
+        this(new CdpLoggerFactory(options).getLogger("cdp4j.metrics"));
+    }
+
+    public LoggingMetrics(CdpLogger logger) {
+        this.logger = logger;
+    }
+
+    public synchronized void start(long period, TimeUnit unit) {
+        if ( scheduler != null ) {
+            return;
+        }
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "cdp4j-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::dump, period, period, unit);
+        scheduler = executor;
+    }
+
+    public void dump() {
+        Map<String, CommandStats> commands = getCommands();
+        Map<String, EventStats> events = getEvents();
+        logger.info(format("cdp4j metrics, in flight: %d, bytes out: %d, bytes in: %d", getInFlight(), getBytesOut(), getBytesIn()));
+        if ( ! commands.isEmpty() ) {
+            logger.info(format("%-45s %10s %7s %9s %10s %10s %10s %10s", "command", "count", "errors", "in flight",
+                                                                     "p50 us", "p99 us", "max us", "bytes in"));
+            for (Map.Entry<String, CommandStats> next : commands.entrySet()) {
+                CommandStats stats = next.getValue();
+                LatencyHistogram latency = stats.getLatency();
+                logger.info(format("%-45s %10d %7d %9d %10.1f %10.1f %10.1f %10d", next.getKey(), latency.getCount(),
+                                                stats.getErrors(), stats.getInFlight(),
+                                                latency.getValueAtPercentile(50) / 1_000.0,
+                                                latency.getValueAtPercentile(99) / 1_000.0,
+                                                latency.getMax() / 1_000.0, stats.getBytesIn()));
+            }
+        }
+        if ( ! events.isEmpty() ) {
+            logger.info(format("%-45s %10s %10s %12s %10s %10s %10s %12s", "event", "count", "bytes in", "dispatch p99",
+                                                                     "decode p99", "queue p50", "queue p99", "listener p99"));
+            for (Map.Entry<String, EventStats> next : events.entrySet()) {
+                EventStats stats = next.getValue();
+                logger.info(format("%-45s %10d %10d %12.1f %10.1f %10.1f %10.1f %12.1f", next.getKey(), stats.getCount(), stats.getBytesIn(),
+                                                stats.getDispatchTime().getValueAtPercentile(99) / 1_000.0,
+                                                stats.getDecodeTime().getValueAtPercentile(99) / 1_000.0,
+                                                stats.getListenerQueueTime().getValueAtPercentile(50) / 1_000.0,
+                                                stats.getListenerQueueTime().getValueAtPercentile(99) / 1_000.0,
+                                                stats.getListenerTime().getValueAtPercentile(99) / 1_000.0));
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic dump.
+     */
+    @Override
+    public synchronized void close() {
+        if ( scheduler != null ) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.webfolder.cdp.sample;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.Channel;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.channel.Connection;
+import io.webfolder.cdp.channel.WebSocketConnection;
+import io.webfolder.cdp.session.MessageHandler;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * In-process channel without a browser or a socket, requests are answered by a
+ * responder on the sending thread and the replies are passed to the cdp4j message handler.
+ * Used to measure cdp4j itself, the default responder is {@link ScriptedBrowser}.
+ */
+class LoopbackChannelFactory implements ChannelFactory {
+
+    private final BiConsumer<String, Consumer<String>> responder;
+
+    private volatile MessageHandler handler;
+
+    LoopbackChannelFactory() {
+        this(new ScriptedBrowser()::process);
+    }
+
+    /**
+     * @param responder receives each request and a consumer for the reply and event messages
+     */
+    LoopbackChannelFactory(BiConsumer<String, Consumer<String>> responder) {
+        this.responder = responder;
+    }
+
+    SessionFactory connect(Options options) {
+        return new SessionFactory(options, this, new WebSocketConnection("ws://loopback/devtools/browser"));
+    }
+
+    @Override
+    public Channel createChannel(Connection connection, SessionFactory factory, MessageHandler handler) {
+        this.handler = handler;
+        return new LoopbackChannel();
+    }
+
+    /**
+     * Delivers an event (or any other message) as if it was sent by the browser.
+     */
+    void emit(byte[] message) {
+        handler.process(message);
+    }
+
+    MessageHandler getHandler() {
+        return handler;
+    }
+
+    private class LoopbackChannel implements Channel {
+
+        private final Consumer<String> out = message -> handler.process(message.getBytes(UTF_8));
+
+        private volatile boolean open;
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void disconnect() {
+            open = false;
+        }
+
+        @Override
+        public void sendText(String message) {
+            responder.accept(message, out);
+        }
+
+        @Override
+        public void sendText(byte[] message) {
+            sendText(new String(message, UTF_8));
+        }
+
+        @Override
+        public void connect() {
+            open = true;
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.webfolder.cdp.channel.Channel;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.channel.Connection;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.session.MessageHandler;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Decorates a {@link ChannelFactory} and reports the traffic of the channel to a
+ * {@link CdpMetrics}: send-to-reply latency, in-flight commands and bytes per command,
+ * events and bytes per event.
+ *
+ * Requests and replies are not parsed, the id, session id and method are read from
+ * the fixed layout of the messages (<code>{"id":1,"sessionId":"...","method":"..."</code>
+ * for requests, <code>{"id":1,"result"</code> or <code>{"id":1,"error"</code> for replies).
+ *
+ * The cdp4j message handler only queues a message to <code>Options.workerThreadPool</code>, the
+ * worker decodes it and submits the listener task of an event to <code>Options.eventHandlerThreadPool</code>.
+ * The queue and run times of both stages are measured when the executors are wrapped with
+ * {@link #instrument(ExecutorService)}: the event is tagged on the reading thread and the tag is
+ * carried into the decode task, so that the listener task it submits is attributed to the event.
+ *
+ * The commands in flight are tracked by id, which is unique within a browser only: a factory serves
+ * a single SessionFactory, the browsers of a process use a factory each and may share the {@link CdpMetrics}.
+ *
+ * <pre>
+ * CdpMetrics metrics = new JmxMetrics();
+ * MetricsChannelFactory channelFactory = new MetricsChannelFactory(new NvWebSocketFactory(), metrics);
+ * Options options = Options.builder()
+ *                         .workerThreadPool(channelFactory.instrument(Executors.newSingleThreadExecutor()))
+ *                         .eventHandlerThreadPool(channelFactory.instrument(Executors.newSingleThreadExecutor()))
+ *                     .build();
+ * Launcher launcher = new Launcher(options, channelFactory);
+ * </pre>
+ */
+public class MetricsChannelFactory implements ChannelFactory {
+
+    private static final byte[] REPLY_PREFIX = "{\"id\":".getBytes(UTF_8);
+
+    private static final String SESSION_ID = ",\"sessionId\":\"";
+
+    private static final String METHOD = ",\"method\":\"";
+
+    private static final byte[] ERROR = ",\"error\"".getBytes(UTF_8);
+
+    private static final int HEAD_LENGTH = 128;
+
+    private static final int TAIL_LENGTH = 128;
+
+    // event which is being processed by the reading thread, the decode task submitted meanwhile belongs to it
+    private static final ThreadLocal<String> RECEIVED_EVENT = new ThreadLocal<>();
+
+    // event which is being decoded by a worker thread, the listener task submitted meanwhile belongs to it
+    private static final ThreadLocal<String> DECODED_EVENT = new ThreadLocal<>();
+
+    private final ChannelFactory delegate;
+
+    private final CdpMetrics metrics;
+
+    private final Map<RequestKey, Request> requests = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean bound = new AtomicBoolean();
+
+    public MetricsChannelFactory(ChannelFactory delegate, CdpMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @throws IllegalStateException if the factory is used by another SessionFactory already
+     */
+    @Override
+    public Channel createChannel(Connection connection, SessionFactory factory, MessageHandler handler) {
+        if ( ! bound.compareAndSet(false, true) ) {
+            throw new IllegalStateException("MetricsChannelFactory is used by another SessionFactory");
+        }
+        factory.addCloseListener(this::failAll);
+        return new MetricsChannel(delegate.createChannel(connection, factory, new MetricsMessageHandler(handler)));
+    }
+
+    public CdpMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Wraps an executor so that the queue time and the run time of event tasks are reported, with
+     * {@link CdpMetrics#decodeStarted(String, long)} for the tasks submitted by the reading thread and
+     * {@link CdpMetrics#listenerStarted(String, long)} for the tasks submitted by a decode task.
+     * Tasks which are not submitted while an event is processed are not measured.
+     */
+    public ExecutorService instrument(ExecutorService executor) {
+        return new InstrumentedExecutor(executor);
+    }
+
+    private void failAll() {
+        for (RequestKey key : requests.keySet()) {
+            Request request = requests.remove(key);
+            if ( request != null ) {
+                metrics.commandCompleted(request.context, request.method, nanoTime() - request.start, true, 0);
+            }
+        }
+    }
+
+    private void sent(String message, int bytes) {
+        if ( ! message.startsWith("{\"id\":") ) {
+            return;
+        }
+        int position = REPLY_PREFIX.length;
+        int id = 0;
+        char c;
+        while ( position < message.length() && (c = message.charAt(position)) >= '0' && c <= '9' ) {
+            id = id * 10 + (c - '0');
+            position++;
+        }
+        String sessionId = null;
+        if ( message.startsWith(SESSION_ID, position) ) {
+            int begin = position + SESSION_ID.length();
+            position = message.indexOf('"', begin);
+            if ( position < 0 ) {
+                return;
+            }
+            sessionId = message.substring(begin, position);
+            position++;
+        }
+        if ( ! message.startsWith(METHOD, position) ) {
+            return;
+        }
+        int begin = position + METHOD.length();
+        int end = message.indexOf('"', begin);
+        if ( end < 0 ) {
+            return;
+        }
+        String method = message.substring(begin, end);
+        Object context = metrics.commandSent(sessionId, method, bytes);
+        requests.put(new RequestKey(sessionId, id), new Request(method, context, nanoTime()));
+    }
+
+    // returns the received event, null for replies
+    private ReceivedEvent received(String message) {
+        int id = AsyncChannelFactory.readReplyId(message);
+        if ( id < 0 ) {
+            return event(EventFilterChannelFactory.readMethod(message), message.length());
+        }
+        int position = REPLY_PREFIX.length + digits(id);
+        completed(readTrailingSessionId(message), id,
+                            message.startsWith(",\"error\"", position), message.length());
+        return null;
+    }
+
+    private ReceivedEvent received(byte[] head, int headLength, byte[] tail, int tailOffset, int tailLength, int bytes) {
+        int id = readReplyId(head, headLength);
+        if ( id < 0 ) {
+            return event(EventFilterChannelFactory.readMethod(head, headLength), bytes);
+        }
+        int position = REPLY_PREFIX.length + digits(id);
+        boolean error = position + ERROR.length <= headLength;
+        for (int i = 0; error && i < ERROR.length; i++) {
+            error = head[position + i] == ERROR[i];
+        }
+        String sessionId = null;
+        int end = tailOffset + tailLength;
+        if ( tailLength >= 2 && tail[end - 1] == '}' && tail[end - 2] == '"' ) {
+            // the last member must be the session id, a result might contain a sessionId too
+            sessionId = readTrailingSessionId(new String(tail, tailOffset, tailLength, UTF_8));
+        }
+        completed(sessionId, id, error, bytes);
+        return null;
+    }
+
+    private ReceivedEvent event(String method, int bytes) {
+        if ( method == null ) {
+            return null;
+        }
+        ReceivedEvent event = new ReceivedEvent(method, metrics.eventReceived(method, bytes), nanoTime());
+        RECEIVED_EVENT.set(method);
+        return event;
+    }
+
+    private void dispatched(ReceivedEvent event) {
+        if ( event != null ) {
+            RECEIVED_EVENT.remove();
+            metrics.eventDispatched(event.context, event.method, nanoTime() - event.start);
+        }
+    }
+
+    private void completed(String sessionId, int id, boolean error, int bytes) {
+        Request request = requests.remove(new RequestKey(sessionId, id));
+        if ( request != null ) {
+            metrics.commandCompleted(request.context, request.method, nanoTime() - request.start, error, bytes);
+        }
+    }
+
+    // session id of a reply is the last member: {"id":1,"result":{},"sessionId":"..."}
+    static String readTrailingSessionId(String message) {
+        if ( ! message.endsWith("\"}") ) {
+            return null;
+        }
+        int start = message.lastIndexOf(SESSION_ID);
+        if ( start < 0 ) {
+            return null;
+        }
+        int begin = start + SESSION_ID.length();
+        return message.indexOf('"', begin) == message.length() - 2 ? message.substring(begin, message.length() - 2) : null;
+    }
+
+    private static int readReplyId(byte[] message, int length) {
+        if ( length <= REPLY_PREFIX.length ) {
+            return -1;
+        }
+        for (int i = 0; i < REPLY_PREFIX.length; i++) {
+            if ( message[i] != REPLY_PREFIX[i] ) {
+                return -1;
+            }
+        }
+        int id = 0;
+        for (int i = REPLY_PREFIX.length; i < length; i++) {
+            byte b = message[i];
+            if ( b < '0' || b > '9' ) {
+                return i == REPLY_PREFIX.length ? -1 : id;
+            }
+            id = id * 10 + (b - '0');
+        }
+        return -1;
+    }
+
+    private static int digits(int id) {
+        int digits = 1;
+        while ( id >= 10 ) {
+            id /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static final class ReceivedEvent {
+
+        private final String method;
+
+        private final Object context;
+
+        private final long start;
+
+        ReceivedEvent(String method, Object context, long start) {
+            this.method = method;
+            this.context = context;
+            this.start = start;
+        }
+    }
+
+    private static final class RequestKey {
+
+        private final String sessionId;
+
+        private final int id;
+
+        RequestKey(String sessionId, int id) {
+            this.sessionId = sessionId;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if ( ! (other instanceof RequestKey) ) {
+                return false;
+            }
+            RequestKey key = (RequestKey) other;
+            return id == key.id && Objects.equals(sessionId, key.sessionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * id + (sessionId == null ? 0 : sessionId.hashCode());
+        }
+    }
+
+    private static final class Request {
+
+        private final String method;
+
+        private final Object context;
+
+        private final long start;
+
+        Request(String method, Object context, long start) {
+            this.method = method;
+            this.context = context;
+            this.start = start;
+        }
+    }
+
+    private class MetricsChannel implements Channel {
+
+        private final Channel channel;
+
+        MetricsChannel(Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void disconnect() {
+            channel.disconnect();
+        }
+
+        @Override
+        public void sendText(String message) {
+            sent(message, message.length());
+            channel.sendText(message);
+        }
+
+        @Override
+        public void sendText(byte[] message) {
+            int length = Math.min(message.length, HEAD_LENGTH);
+            sent(new String(message, 0, length, UTF_8), message.length);
+            channel.sendText(message);
+        }
+
+        @Override
+        public void connect() {
+            channel.connect();
+        }
+    }
+
+    private class MetricsMessageHandler implements MessageHandler {
+
+        private final MessageHandler handler;
+
+        MetricsMessageHandler(MessageHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void process(String message) {
+            ReceivedEvent event = received(message);
+            try {
+                handler.process(message);
+            } finally {
+                dispatched(event);
+            }
+        }
+
+        @Override
+        public void process(byte[] message) {
+            int tailOffset = Math.max(0, message.length - TAIL_LENGTH);
+            ReceivedEvent event = received(message, Math.min(message.length, HEAD_LENGTH),
+                                     message, tailOffset, message.length - tailOffset, message.length);
+            try {
+                handler.process(message);
+            } finally {
+                dispatched(event);
+            }
+        }
+
+        @Override
+        public void process(InputStream message) {
+            InputStream is = message.markSupported() ? message : new BufferedInputStream(message);
+            ReceivedEvent event;
+            try {
+                // the session id of a reply is at the end, the stream is read once and reset
+                is.mark(Integer.MAX_VALUE);
+                byte[] head = new byte[HEAD_LENGTH];
+                int headLength = 0;
+                int read;
+                while ( headLength < head.length && (read = is.read(head, headLength, head.length - headLength)) > 0 ) {
+                    headLength += read;
+                }
+                byte[] tail = new byte[TAIL_LENGTH];
+                int tailLength = Math.min(headLength, TAIL_LENGTH);
+                System.arraycopy(head, headLength - tailLength, tail, 0, tailLength);
+                int length = headLength;
+                byte[] chunk = new byte[8192];
+                while ( (read = is.read(chunk)) > 0 ) {
+                    length += read;
+                    int keep = Math.min(tailLength, TAIL_LENGTH - Math.min(read, TAIL_LENGTH));
+                    System.arraycopy(tail, tailLength - keep, tail, 0, keep);
+                    int copy = Math.min(read, TAIL_LENGTH);
+                    System.arraycopy(chunk, read - copy, tail, keep, copy);
+                    tailLength = keep + copy;
+                }
+                is.reset();
+                event = received(head, headLength, tail, 0, tailLength, length);
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+            try {
+                handler.process(is);
+            } finally {
+                dispatched(event);
+            }
+        }
+    }
+
+    private class InstrumentedExecutor extends AbstractExecutorService {
+
+        private final ExecutorService executor;
+
+        InstrumentedExecutor(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            String received = RECEIVED_EVENT.get();
+            if ( received != null ) {
+                long submitted = nanoTime();
+                executor.execute(() -> {
+                    long start = nanoTime();
+                    Object context = metrics.decodeStarted(received, start - submitted);
+                    DECODED_EVENT.set(received);
+                    try {
+                        command.run();
+                    } finally {
+                        DECODED_EVENT.remove();
+                        metrics.decodeCompleted(context, received, nanoTime() - start);
+                    }
+                });
+                return;
+            }
+            String decoded = DECODED_EVENT.get();
+            if ( decoded != null ) {
+                long submitted = nanoTime();
+                executor.execute(() -> {
+                    long start = nanoTime();
+                    Object context = metrics.listenerStarted(decoded, start - submitted);
+                    try {
+                        command.run();
+                    } finally {
+                        metrics.listenerCompleted(context, decoded, nanoTime() - start);
+                    }
+                });
+                return;
+            }
+            executor.execute(command);
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
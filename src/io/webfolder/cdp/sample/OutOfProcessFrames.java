@@ -0,0 +1,56 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.session.WaitUntil.Load;
+import static java.util.Arrays.asList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Cross-site iframes run in their own renderer with --site-per-process. Each of them is attached
+// as a ChildSession on the channel of the page and queried in parallel with the page, without
+// switching the frame of the page session.
+public class OutOfProcessFrames {
+
+    public static void main(String[] args) throws Exception {
+        AutoAttachChannelFactory channelFactory = new AutoAttachChannelFactory(new NvWebSocketFactory());
+        channelFactory.addAttachListener(child -> System.out.println("Attached: " + child));
+
+        Options options = Options.builder()
+                                .arguments(asList("--site-per-process"))
+                            .build();
+
+        Launcher launcher = new Launcher(options, channelFactory);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try (SessionFactory factory = launcher.launch();
+                            Session session = factory.create()) {
+            channelFactory.autoAttach(session);
+            session.navigateAndWait("data:text/html,<h1>page</h1>"
+                                    + "<iframe src='https://example.com'></iframe>"
+                                    + "<iframe src='https://webfolder.io'></iframe>", Load);
+
+            List<Future<String>> titles = new ArrayList<>();
+            titles.add(executor.submit(() -> "page: " + session.evaluate("document.querySelector('h1').textContent")));
+            for (ChildSession frame : channelFactory.getChildren(session)) {
+                titles.add(executor.submit(() -> frame.getType() + " " + frame.getUrl() + ": " + frame.evaluate("document.title")));
+            }
+            for (Future<String> next : titles) {
+                System.out.println(next.get());
+            }
+        } finally {
+            executor.shutdown();
+            launcher.kill();
+            channelFactory.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.webfolder.cdp.sample;
+
+/**
+ * What a bounded session event queue does when it is full.
+ *
+ * @see EventQueueOptions
+ */
+public enum OverflowPolicy {
+    /**
+     * The thread which delivers the event waits until there is space, cdp4j stops
+     * processing incoming messages until the listener catches up.
+     * Listeners must not wait for command replies with this policy, the replies
+     * are processed by the same blocked thread.
+     */
+    Block,
+    /**
+     * The oldest queued event is discarded.
+     */
+    DropOldest,
+    /**
+     * The incoming event is discarded.
+     */
+    DropNewest,
+    /**
+     * A queued event of the same type is replaced by the incoming one, only the
+     * latest value of each event type is kept. Falls back to {@link #DropOldest}
+     * when the queue is full with distinct event types.
+     */
+    Coalesce
+}
@@ -0,0 +1,74 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.sample.BrowserPool.BrowserProcess;
+import io.webfolder.cdp.sample.Crawler.HttpClient;
+import io.webfolder.cdp.sample.Crawler.Resource;
+import io.webfolder.cdp.sample.Crawler.SitemapParser;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Crawls the sitemap of Crawler with a CrawlEngine: 2 browsers with 4 sessions each load
+// pages in parallel, with at most 2 pages per host at a time, and the documents are
+// written to a directory by the sink.
+public class ParallelCrawler {
+
+    public static void main(String[] args) throws Exception {
+        Launcher launcher = new Launcher();
+
+        List<String> seeds;
+        try (SessionFactory factory = launcher.launch();
+                            HttpClient client = new HttpClient(factory, 60_000)) {
+            Resource sitemap = client.fetch("https://webfolder.io/sitemap.xml");
+            seeds = new SitemapParser().parse(sitemap.getDocument());
+        } finally {
+            launcher.kill();
+        }
+
+        CrawlOptions options = CrawlOptions.builder()
+                                        .sessionsPerFactory(4)
+                                        .maxConnectionsPerHost(2)
+                                        .politenessDelay(250)
+                                        .maxPages(200)
+                                    .build();
+
+        Path directory = Files.createTempDirectory("cdp4j-crawl-");
+        AtomicInteger files = new AtomicInteger();
+
+        CrawlSink sink = result -> {
+            System.out.println(result);
+            Resource document = result.getDocument();
+            if ( document != null && document.getDocument() != null ) {
+                try {
+                    Files.write(directory.resolve(files.incrementAndGet() + ".html"), document.getDocument().getBytes(UTF_8));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        try (BrowserPool browsers = new BrowserPool(BrowserPoolOptions.builder().processes(2).build())) {
+            List<SessionFactory> factories = browsers.getProcesses()
+                                                    .stream()
+                                                    .map(BrowserProcess::getFactory)
+                                                .collect(toList());
+            CrawlEngine engine = new CrawlEngine(factories, options);
+            long start = nanoTime();
+            long pages = engine.crawl(seeds, sink);
+            double seconds = (nanoTime() - start) / 1e9;
+            System.out.printf("%d pages (%d errors, %d KB) in %.1f s, %.1f pages/s, saved to %s%n",
+                                pages, engine.getErrorCount(), engine.getCapturedBytes() / 1024,
+                                seconds, pages / seconds, directory);
+        }
+    }
+}
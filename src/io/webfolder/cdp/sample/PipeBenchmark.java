@@ -0,0 +1,57 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.command.Runtime;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Compares the default WebSocket transport with PipeLauncher (GNU/Linux only):
+// small command round trips and large replies (1 MB string).
+public class PipeBenchmark {
+
+    private static final int WARMUP = 1_000;
+
+    private static final int ROUND_TRIPS = 10_000;
+
+    private static final int LARGE_REPLIES = 200;
+
+    public static void main(String[] args) {
+        Options options = Options.builder()
+                                    .headless(true)
+                                .build();
+
+        run("WebSocket", new Launcher(options));
+        run("Pipe     ", new PipeLauncher(options));
+    }
+
+    private static void run(String name, Launcher launcher) {
+        try (SessionFactory factory = launcher.launch();
+                            Session session = factory.create()) {
+            Runtime runtime = session.getCommand().getRuntime();
+            runtime.evaluate("window.payload = 'x'.repeat(1024 * 1024)");
+
+            for (int i = 0; i < WARMUP; i++) {
+                runtime.evaluate("1");
+            }
+
+            long start = nanoTime();
+            for (int i = 0; i < ROUND_TRIPS; i++) {
+                runtime.evaluate("1");
+            }
+            double roundTrip = (nanoTime() - start) / 1_000.0 / ROUND_TRIPS;
+
+            start = nanoTime();
+            for (int i = 0; i < LARGE_REPLIES; i++) {
+                runtime.evaluate("window.payload");
+            }
+            double throughput = LARGE_REPLIES / ((nanoTime() - start) / 1_000_000_000.0);
+
+            System.out.printf("%s round trip: %8.1f us, 1 MB replies: %8.1f MB/s%n", name, roundTrip, throughput);
+        } finally {
+            launcher.kill();
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package io.webfolder.cdp.sample;
+
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.webfolder.cdp.channel.Channel;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.channel.Connection;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.session.MessageHandler;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Talks to Chrome over <code>--remote-debugging-pipe</code>.
+ *
+ * Chrome reads NUL terminated messages from fd 3 and writes to fd 4,
+ * {@link PipeLauncher} binds both descriptors to named pipes (FIFO).
+ * A single thread reads the incoming pipe into pooled direct buffers and hands
+ * each message to {@link MessageHandler#process(InputStream)} as a view of the buffer,
+ * the buffer returns to the pool after the message handler closes every view.
+ * Only the tail of a message which crosses a buffer boundary is copied.
+ */
+public class PipeChannelFactory implements ChannelFactory, AutoCloseable {
+
+    static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final int CONNECT_TIMEOUT = 10_000;
+
+    private final Path toBrowser;
+
+    private final Path fromBrowser;
+
+    private final int bufferSize;
+
+    private final Queue<Segment> pool = new ConcurrentLinkedQueue<>();
+
+    private volatile PipeChannel channel;
+
+    public PipeChannelFactory(Path toBrowser, Path fromBrowser) {
+        this(toBrowser, fromBrowser, DEFAULT_BUFFER_SIZE);
+    }
+
+    public PipeChannelFactory(Path toBrowser, Path fromBrowser, int bufferSize) {
+        this.toBrowser = toBrowser;
+        this.fromBrowser = fromBrowser;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public Channel createChannel(Connection connection, SessionFactory factory, MessageHandler handler) {
+        channel = new PipeChannel(factory, handler);
+        return channel;
+    }
+
+    @Override
+    public void close() {
+        PipeChannel channel = this.channel;
+        if ( channel != null ) {
+            channel.disconnect();
+        }
+        pool.clear();
+    }
+
+    private Segment acquire(int minCapacity) {
+        if ( minCapacity <= bufferSize ) {
+            Segment segment = pool.poll();
+            if ( segment != null ) {
+                segment.retain();
+                return segment;
+            }
+            return new Segment(allocateDirect(bufferSize));
+        }
+        return new Segment(allocateDirect(minCapacity));
+    }
+
+    private class PipeChannel implements Channel {
+
+        private final SessionFactory factory;
+
+        private final MessageHandler handler;
+
+        private final AtomicBoolean open = new AtomicBoolean();
+
+        private final CountDownLatch connected = new CountDownLatch(1);
+
+        private final ByteBuffer terminator = allocateDirect(1);
+
+        private volatile FileChannel writer;
+
+        private volatile FileChannel reader;
+
+        private volatile Thread readerThread;
+
+        PipeChannel(SessionFactory factory, MessageHandler handler) {
+            this.factory = factory;
+            this.handler = handler;
+        }
+
+        @Override
+        public void connect() {
+            try {
+                // READ + WRITE (O_RDWR) opens the fifo without waiting for the other end
+                writer = FileChannel.open(toBrowser, READ, WRITE);
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+            open.set(true);
+            readerThread = new Thread(this::read, "cdp4j-PipeReader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+            try {
+                if ( ! connected.await(CONNECT_TIMEOUT, MILLISECONDS) ) {
+                    disconnect();
+                    throw new CdpException("Unable to open " + fromBrowser);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CdpException(e);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open.get();
+        }
+
+        @Override
+        public void disconnect() {
+            if ( open.compareAndSet(true, false) ) {
+                closeQuietly(writer);
+                if ( reader == null ) {
+                    // the reader thread still waits for chrome, open the other end to release it
+                    try {
+                        closeQuietly(FileChannel.open(fromBrowser, READ, WRITE));
+                    } catch (IOException e) {
+                        // ignore
+                    }
+                }
+                closeQuietly(reader);
+                Thread thread = readerThread;
+                if ( thread != null && thread != Thread.currentThread() ) {
+                    thread.interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void sendText(String message) {
+            sendText(message.getBytes(UTF_8));
+        }
+
+        @Override
+        public void sendText(byte[] message) {
+            if ( ! open.get() ) {
+                throw new CdpException("Pipe is closed");
+            }
+            ByteBuffer[] buffers = new ByteBuffer[] { ByteBuffer.wrap(message), null };
+            synchronized (this) {
+                terminator.clear();
+                terminator.put((byte) 0).flip();
+                buffers[1] = terminator;
+                try {
+                    while ( buffers[1].hasRemaining() ) {
+                        writer.write(buffers);
+                    }
+                } catch (IOException e) {
+                    disconnect();
+                    throw new CdpException(e);
+                }
+            }
+        }
+
+        private void read() {
+            try {
+                // blocks until chrome opens fd 4
+                reader = FileChannel.open(fromBrowser, READ);
+            } catch (IOException e) {
+                return;
+            } finally {
+                connected.countDown();
+            }
+            Segment segment = acquire(bufferSize);
+            int start = 0;
+            try {
+                while ( open.get() ) {
+                    ByteBuffer buffer = segment.buffer;
+                    if ( ! buffer.hasRemaining() ) {
+                        int pending = buffer.position() - start;
+                        Segment next = acquire(pending * 2);
+                        if ( pending > 0 ) {
+                            ByteBuffer tail = buffer.duplicate();
+                            tail.position(start).limit(start + pending);
+                            next.buffer.put(tail);
+                        }
+                        segment.release();
+                        segment = next;
+                        buffer = next.buffer;
+                        start = 0;
+                    }
+                    int scan = buffer.position();
+                    if ( reader.read(buffer) < 0 ) {
+                        break;
+                    }
+                    int end = buffer.position();
+                    for (int i = scan; i < end; i++) {
+                        if ( buffer.get(i) == 0 ) {
+                            segment.retain();
+                            handler.process(new SegmentInputStream(segment, start, i));
+                            start = i + 1;
+                        }
+                    }
+                    if ( start == end ) {
+                        // all messages consumed, reuse the rest of the buffer from scratch
+                        // only if nobody else still reads from it
+                        if ( segment.refs.get() == 1 ) {
+                            buffer.clear();
+                            start = 0;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // pipe closed
+            } finally {
+                segment.release();
+                if ( open.get() ) {
+                    // browser closed the pipe
+                    disconnect();
+                    factory.close();
+                }
+            }
+        }
+    }
+
+    private class Segment {
+
+        private final ByteBuffer buffer;
+
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        Segment(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void retain() {
+            refs.incrementAndGet();
+        }
+
+        void release() {
+            if ( refs.decrementAndGet() == 0 && buffer.capacity() == bufferSize ) {
+                buffer.clear();
+                pool.offer(this);
+            }
+        }
+    }
+
+    private static class SegmentInputStream extends InputStream {
+
+        private final Segment segment;
+
+        private final ByteBuffer view;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        SegmentInputStream(Segment segment, int start, int end) {
+            this.segment = segment;
+            ByteBuffer view = segment.buffer.duplicate();
+            view.limit(end).position(start);
+            this.view = view.slice();
+        }
+
+        @Override
+        public int read() {
+            return view.hasRemaining() ? view.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if ( len == 0 ) {
+                return 0;
+            }
+            if ( ! view.hasRemaining() ) {
+                return -1;
+            }
+            int count = Math.min(len, view.remaining());
+            view.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.min(n, view.remaining());
+            view.position(view.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return view.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            view.mark();
+        }
+
+        @Override
+        public synchronized void reset() {
+            view.reset();
+        }
+
+        @Override
+        public void close() {
+            if ( closed.compareAndSet(false, true) ) {
+                segment.release();
+            }
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if ( channel != null ) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.ProcessBuilder.Redirect.INHERIT;
+import static java.nio.file.Files.createTempDirectory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.Connection;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Launches Chrome with <code>--remote-debugging-pipe</code> on GNU/Linux.
+ *
+ * Two named pipes are created with <code>mkfifo</code> and bound to fd 3 and fd 4
+ * of the browser process by the shell, the connection is served by {@link PipeChannelFactory}.
+ * The temporary directory of the fifos, which holds the profile too unless {@link Options#userDataDir()}
+ * is set, is deleted by {@link ProfileCleaner#getDefault()} when the browser is killed.
+ */
+public class PipeLauncher extends Launcher {
+
+    private final Options options;
+
+    private Process process;
+
+    private volatile Path fifoDirectory;
+
+    private PipeChannelFactory channelFactory;
+
+    public PipeLauncher() {
+        this(Options.builder().build());
+    }
+
+    public PipeLauncher(Options options) {
+        super(options);
+        this.options = options;
+    }
+
+    @Override
+    public SessionFactory launch() {
+        if ( ! System.getProperty("os.name").toLowerCase().contains("linux") ) {
+            throw new CdpException("PipeLauncher requires GNU/Linux");
+        }
+        String browser = options.browserExecutablePath();
+        if ( browser == null || browser.trim().isEmpty() ) {
+            browser = findChrome();
+        }
+        try {
+            fifoDirectory = createTempDirectory("cdp4j-pipe");
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+        Path toBrowser = fifoDirectory.resolve("in");
+        Path fromBrowser = fifoDirectory.resolve("out");
+        mkfifo(toBrowser);
+        mkfifo(fromBrowser);
+
+        List<String> arguments = new ArrayList<>(getCommonParameters(browser, options.arguments()));
+        Path userDataDir = options.userDataDir();
+        if ( userDataDir == null ) {
+            userDataDir = fifoDirectory.resolve("profile");
+        }
+        arguments.add("--user-data-dir=" + userDataDir.toString());
+        if ( options.headless() ) {
+            arguments.add("--headless");
+        }
+        arguments.add("--remote-debugging-pipe");
+
+        // the shell opens the fifos as fd 3 (browser reads) and fd 4 (browser writes) then replaces itself with chrome
+        List<String> command = new ArrayList<>();
+        command.add("/bin/sh");
+        command.add("-c");
+        command.add("exec \"$@\" 3<\"" + toBrowser + "\" 4>\"" + fromBrowser + "\"");
+        command.add("sh");
+        command.addAll(arguments);
+
+        channelFactory = new PipeChannelFactory(toBrowser, fromBrowser);
+        try {
+            process = new ProcessBuilder(command)
+                                .redirectOutput(INHERIT)
+                                .redirectError(INHERIT)
+                            .start();
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+
+        SessionFactory factory = new SessionFactory(options, channelFactory, new PipeConnection(toBrowser));
+        factory.addCloseListener(this::kill);
+        return factory;
+    }
+
+    @Override
+    public boolean kill() {
+        boolean killed = false;
+        // the pipe reader sees EOF when the browser exits and closes the SessionFactory
+        if ( process != null && process.isAlive() ) {
+            process.destroy();
+            killed = true;
+        }
+        Path directory = fifoDirectory;
+        if ( directory != null ) {
+            fifoDirectory = null;
+            // the fifos and the default profile, retried by the cleaner while the browser is exiting
+            ProfileCleaner.getDefault().delete(directory);
+        }
+        return killed;
+    }
+
+    private static void mkfifo(Path path) {
+        try {
+            Process mkfifo = new ProcessBuilder("mkfifo", "-m", "600", path.toString()).start();
+            if ( mkfifo.waitFor() != 0 ) {
+                throw new CdpException("mkfifo failed: " + path);
+            }
+        } catch (IOException e) {
+            throw new CdpException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CdpException(e);
+        }
+    }
+
+    private static class PipeConnection implements Connection {
+
+        private final Path path;
+
+        PipeConnection(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public String getUrl() {
+            return "pipe://" + path;
+        }
+
+        @Override
+        public boolean isValid() {
+            return path.toFile().exists();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.List;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.command.DOM;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Extracts the outer html of all links twice:
+// first with one blocking round trip per element, then with a single pipelined batch.
+public class PipelinedBatch {
+
+    public static void main(String[] args) {
+        AsyncChannelFactory channelFactory = new AsyncChannelFactory(new NvWebSocketFactory());
+
+        Launcher launcher = new Launcher(channelFactory);
+
+        try (SessionFactory factory = launcher.launch();
+                            Session session = factory.create()) {
+            session.navigate("https://news.ycombinator.com");
+            session.waitDocumentReady();
+
+            DOM dom = session.getCommand().getDOM();
+            Integer root = dom.getDocument().getNodeId();
+            List<Integer> links = dom.querySelectorAll(root, "a");
+
+            long start = nanoTime();
+            for (Integer nodeId : links) {
+                dom.getOuterHTML(nodeId, null, null);
+            }
+            long sequential = NANOSECONDS.toMillis(nanoTime() - start);
+
+            AsyncCommand async = new AsyncCommand(session, channelFactory);
+
+            start = nanoTime();
+            CommandBatch batch = async.batch();
+            for (Integer nodeId : links) {
+                batch.add(DOM.class, d -> d.getOuterHTML(nodeId, null, null));
+            }
+            List<Object> html = batch.execute().join();
+            long pipelined = NANOSECONDS.toMillis(nanoTime() - start);
+
+            System.out.println("Links          : " + html.size());
+            System.out.println("Sequential (ms): " + sequential);
+            System.out.println("Pipelined  (ms): " + pipelined);
+        } finally {
+            launcher.kill();
+            channelFactory.close();
+        }
+    }
+}
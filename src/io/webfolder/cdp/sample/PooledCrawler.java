@@ -0,0 +1,60 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.session.WaitUntil.Load;
+import static java.lang.System.nanoTime;
+import static java.util.Arrays.asList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Crawls with a SessionPool: warmed sessions are leased per URL and reset on return
+// instead of creating and closing a target (see Crawler) for every page.
+public class PooledCrawler {
+
+    public static void main(String[] args) throws Exception {
+        List<String> urls = asList("https://webfolder.io",
+                                   "https://webfolder.io/cdp4j.html",
+                                   "https://httpbin.org/html",
+                                   "https://httpbin.org/cookies/set?visited=1",
+                                   "https://example.com");
+
+        Launcher launcher = new Launcher();
+
+        SessionPoolOptions options = SessionPoolOptions.builder()
+                                                    .size(4)
+                                                    .initializer(session -> session.getCommand().getNetwork().enable())
+                                                    .maxLeases(100)
+                                                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(options.size());
+
+        try (SessionFactory factory = launcher.launch();
+                            SessionPool pool = new SessionPool(factory, options)) {
+            long start = nanoTime();
+            List<Future<String>> results = new ArrayList<>();
+            for (String url : urls) {
+                results.add(executor.submit(() -> {
+                    try (SessionLease lease = pool.lease()) {
+                        Session session = lease.getSession();
+                        session.navigateAndWait(url, Load, 30_000);
+                        return url + " - " + session.getTitle();
+                    }
+                }));
+            }
+            for (Future<String> next : results) {
+                System.out.println(next.get());
+            }
+            System.out.printf("%d pages in %d ms%n", urls.size(), (nanoTime() - start) / 1_000_000);
+        } finally {
+            executor.shutdown();
+            launcher.kill();
+        }
+    }
+}
@@ -33,7 +33,7 @@ public class PrintPDFtoFile {
 
                 session.navigate("https://docs.jboss.org/resteasy/docs/4.0.0.Final/userguide/html_single/index.html");
                 session.waitDocumentReady(timeout);
-                session.printToPDF(file);
+                StreamTransfer.printToPDF(session, file);
             }
 
             factory.disposeBrowserContext(context);
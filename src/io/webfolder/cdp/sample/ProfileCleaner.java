@@ -0,0 +1,239 @@
+package io.webfolder.cdp.sample;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.webfolder.cdp.session.CloseListener;
+
+/**
+ * Deletes user data directories on a background thread, so that closing a browser does not wait
+ * for thousands of profile files to be removed.
+ *
+ * Directories are collected for a short delay after the first one arrives and deleted in batches,
+ * closing a pool of browsers wakes the thread once.
+ * A directory which cannot be deleted yet (files still held by an exiting browser on Windows)
+ * is retried with the next batch, up to 10 times.
+ *
+ * <pre>
+ * factory.addCloseListener(ProfileCleaner.getDefault().closeListener(userDataDir));
+ * </pre>
+ *
+ * Directories still queued when the JVM exits are deleted by a shutdown hook of the default cleaner.
+ */
+public class ProfileCleaner implements AutoCloseable {
+
+    private static final int MAX_ATTEMPTS = 10;
+
+    private static volatile ProfileCleaner defaultCleaner;
+
+    private final int batchSize;
+
+    private final int batchDelay;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private final Thread thread;
+
+    private final AtomicLong deletedDirectories = new AtomicLong();
+
+    private final AtomicLong deletedFiles = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public ProfileCleaner() {
+        this(64, 100);
+    }
+
+    /**
+     * @param batchSize maximum number of directories deleted by one batch
+     * @param batchDelay milliseconds to wait for more directories once the first one is queued
+     */
+    public ProfileCleaner(int batchSize, int batchDelay) {
+        if ( batchSize < 1 ) {
+            throw new IllegalArgumentException("batchSize");
+        }
+        if ( batchDelay < 0 ) {
+            throw new IllegalArgumentException("batchDelay");
+        }
+        this.batchSize = batchSize;
+        this.batchDelay = batchDelay;
+        this.thread = new Thread(this::run, "cdp4j-ProfileCleaner");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return a cleaner shared by the JVM, its queue is flushed on shutdown
+     */
+    public static ProfileCleaner getDefault() {
+        ProfileCleaner cleaner = defaultCleaner;
+        if ( cleaner == null ) {
+            synchronized (ProfileCleaner.class) {
+                cleaner = defaultCleaner;
+                if ( cleaner == null ) {
+                    cleaner = new ProfileCleaner();
+                    Runtime.getRuntime().addShutdownHook(new Thread(cleaner::flush, "cdp4j-ProfileCleaner-shutdown"));
+                    defaultCleaner = cleaner;
+                }
+            }
+        }
+        return cleaner;
+    }
+
+    /**
+     * Queues a directory for deletion and returns immediately.
+     */
+    public void delete(Path directory) {
+        if ( directory == null ) {
+            return;
+        }
+        if ( closed ) {
+            delete(new Pending(directory));
+            return;
+        }
+        queue.add(new Pending(directory));
+    }
+
+    /**
+     * @return a listener which queues the directory when a SessionFactory or a Session is closed
+     */
+    public CloseListener closeListener(Path directory) {
+        return () -> delete(directory);
+    }
+
+    /**
+     * Deletes the queued directories on the calling thread.
+     */
+    public void flush() {
+        List<Pending> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        for (Pending next : batch) {
+            delete(next);
+        }
+    }
+
+    /**
+     * @return number of directories waiting for deletion
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public long getDeletedDirectories() {
+        return deletedDirectories.get();
+    }
+
+    public long getDeletedFiles() {
+        return deletedFiles.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * Stops the background thread and deletes the queued directories.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        flush();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while ( ! closed ) {
+            try {
+                batch.add(queue.take());
+                if ( batchDelay > 0 ) {
+                    MILLISECONDS.sleep(batchDelay);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            batches.incrementAndGet();
+            List<Pending> retry = new ArrayList<>();
+            for (Pending next : batch) {
+                if ( ! delete(next) && ++next.attempts < MAX_ATTEMPTS ) {
+                    retry.add(next);
+                }
+            }
+            batch.clear();
+            queue.addAll(retry);
+        }
+        for (Pending next : batch) {
+            delete(next);
+        }
+    }
+
+    private boolean delete(Pending pending) {
+        if ( ! Files.exists(pending.directory) ) {
+            return true;
+        }
+        try {
+            Files.walkFileTree(pending.directory, new DeleteVisitor());
+            deletedDirectories.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static class Pending {
+
+        private final Path directory;
+
+        private int attempts;
+
+        Pending(Path directory) {
+            this.directory = directory;
+        }
+    }
+
+    private class DeleteVisitor extends SimpleFileVisitor<Path> {
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+            try {
+                Files.delete(file);
+                deletedFiles.incrementAndGet();
+            } catch (NoSuchFileException e) {
+                // removed by the browser while it exits
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+            if ( exc instanceof NoSuchFileException ) {
+                return FileVisitResult.CONTINUE;
+            }
+            throw exc;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+            if ( exc != null ) {
+                throw exc;
+            }
+            Files.deleteIfExists(dir);
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.webfolder.cdp.sample;
+
+/**
+ * How a {@link ProfileTemplate} is cloned into the user data directory of a new browser.
+ */
+public enum ProfileCloneMode {
+    /**
+     * Copy on write clone of every file with <code>cp --reflink=always</code>, on GNU/Linux file
+     * systems which support it such as Btrfs and XFS. Falls back to {@link #Hardlink} when the
+     * first clone fails.
+     */
+    Reflink,
+    /**
+     * Component data of the template (versioned directories which Chrome replaces instead of
+     * editing them) is linked, the profile directories, caches and crash reports are copied.
+     * The clone must be on the same file system as the template, falls back to {@link #Copy}
+     * when linking fails.
+     */
+    Hardlink,
+    /**
+     * Every file is copied.
+     */
+    Copy
+}
@@ -0,0 +1,277 @@
+package io.webfolder.cdp.sample;
+
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardCopyOption.COPY_ATTRIBUTES;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * A pre-warmed user data directory which is cloned for every launched browser.
+ *
+ * A browser started with an empty profile runs its first-run setup, creates its databases and
+ * registers its components before it is ready. A template is a profile in which this was done
+ * once, see {@link #create(Path, Consumer)}. Cloning it with {@link ProfileCloneMode#Reflink}
+ * or {@link ProfileCloneMode#Hardlink} shares the file contents instead of copying them, the
+ * clone must be on the same file system as the template.
+ *
+ * <pre>
+ * ProfileTemplate template = ProfileTemplate.create(Paths.get("/var/cache/cdp4j/template"), builder -&gt; builder.headless(true));
+ * Path userDataDir = template.clone(Paths.get("/var/cache/cdp4j"));
+ * </pre>
+ *
+ * @see TemplateLauncher
+ */
+public class ProfileTemplate {
+
+    // created by a running browser, a clone must not inherit them
+    private static final Set<String> LOCK_FILES = new HashSet<>(Arrays.asList("SingletonLock", "SingletonSocket",
+                                                                    "SingletonCookie", "DevToolsActivePort", "lockfile"));
+
+    private static final String CRASHPAD = "Crashpad";
+
+    private final Path directory;
+
+    private final Set<String> profiles;
+
+    private volatile ProfileCloneMode mode;
+
+    /**
+     * Uses an existing template with {@link ProfileCloneMode#Reflink}.
+     */
+    public ProfileTemplate(Path directory) {
+        this(directory, ProfileCloneMode.Reflink);
+    }
+
+    public ProfileTemplate(Path directory, ProfileCloneMode mode) {
+        if ( ! Files.isDirectory(directory) ) {
+            throw new CdpException("Profile template [" + directory + "] does not exist");
+        }
+        this.directory = directory.toAbsolutePath();
+        this.mode = mode;
+        this.profiles = findProfiles(this.directory);
+    }
+
+    /**
+     * Creates a template by starting the browser once on an empty directory, or uses the
+     * directory as it is if it is not empty.
+     *
+     * @param options customizes the options of the browser, the user data directory is set by the template
+     */
+    public static ProfileTemplate create(Path directory, Consumer<Options.Builder> options) {
+        return create(directory, options, 3_000);
+    }
+
+    /**
+     * @param warmUpTime milliseconds the browser runs before it is closed, lets it register its components
+     */
+    public static ProfileTemplate create(Path directory, Consumer<Options.Builder> options, int warmUpTime) {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                if ( files.findAny().isPresent() ) {
+                    return new ProfileTemplate(directory);
+                }
+            }
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+        Options.Builder builder = Options.builder();
+        options.accept(builder);
+        builder.userDataDir(directory);
+        Launcher launcher = new Launcher(builder.build());
+        try {
+            SessionFactory factory = launcher.launch();
+            Session session = factory.create();
+            session.getCommand().getPage().navigate("about:blank");
+            TimeUnit.MILLISECONDS.sleep(warmUpTime);
+            try {
+                // a graceful exit writes the preferences and the local state
+                factory.getBrowserSession().getCommand().getBrowser().close();
+            } catch (CdpException e) {
+                // the browser may close the connection before it replies
+            }
+            waitForExit(directory, 10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CdpException(e);
+        } finally {
+            launcher.kill();
+        }
+        removeLockFiles(directory);
+        return new ProfileTemplate(directory);
+    }
+
+    /**
+     * Clones the template into a new directory.
+     *
+     * @param parent directory of the clone, must be on the file system of the template unless the mode is {@link ProfileCloneMode#Copy}
+     *
+     * @return the user data directory of the clone
+     */
+    public Path clone(Path parent) {
+        Path target;
+        try {
+            Files.createDirectories(parent);
+            target = Files.createTempDirectory(parent, "cdp4j-profile-");
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+        ProfileCloneMode current = mode;
+        if ( current == ProfileCloneMode.Reflink ) {
+            if ( reflink(target) ) {
+                return target;
+            }
+            // not supported by the file system, or by cp
+            mode = ProfileCloneMode.Hardlink;
+            ProfileCleaner.getDefault().delete(target);
+            return clone(parent);
+        }
+        try {
+            Files.walkFileTree(directory, new CloneVisitor(target, current == ProfileCloneMode.Hardlink));
+        } catch (IOException e) {
+            ProfileCleaner.getDefault().delete(target);
+            throw new CdpException(e);
+        }
+        return target;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the mode of the next clone, a mode which failed is replaced with its fallback
+     */
+    public ProfileCloneMode getMode() {
+        return mode;
+    }
+
+    private boolean reflink(Path target) {
+        if ( ! System.getProperty("os.name").toLowerCase().contains("linux") ) {
+            return false;
+        }
+        List<String> command = Arrays.asList("cp", "-R", "--preserve=mode,timestamps", "--reflink=always",
+                                                directory.toString() + "/.", target.toString());
+        try {
+            Process process = new ProcessBuilder(command)
+                                    .redirectErrorStream(true)
+                                    .redirectOutput(new File("/dev/null"))
+                                .start();
+            return process.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CdpException(e);
+        }
+    }
+
+    /**
+     * Files under a profile directory, a cache or the crash reports are written in place by the
+     * browser, a link would modify the template.
+     */
+    private boolean isShared(Path relative) {
+        if ( relative.getNameCount() < 2 ) {
+            // Local State, First Run...
+            return false;
+        }
+        String root = relative.getName(0).toString();
+        if ( profiles.contains(root) || CRASHPAD.equals(root) ) {
+            return false;
+        }
+        for (Path next : relative) {
+            if ( next.toString().toLowerCase().contains("cache") ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // directories with a Preferences file: Default, Profile 1...
+    private static Set<String> findProfiles(Path directory) {
+        Set<String> profiles = new HashSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> Files.isRegularFile(path.resolve("Preferences")))
+                 .forEach(path -> profiles.add(path.getFileName().toString()));
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+        return profiles;
+    }
+
+    private static void waitForExit(Path directory, int timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while ( Files.exists(directory.resolve("SingletonLock"), NOFOLLOW_LINKS)
+                        && System.nanoTime() < deadline ) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+    }
+
+    private static void removeLockFiles(Path directory) {
+        for (String next : LOCK_FILES) {
+            try {
+                Files.deleteIfExists(directory.resolve(next));
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+        }
+    }
+
+    private class CloneVisitor extends SimpleFileVisitor<Path> {
+
+        private final Path target;
+
+        private boolean link;
+
+        CloneVisitor(Path target, boolean link) {
+            this.target = target;
+            this.link = link;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+            Files.createDirectories(target.resolve(directory.relativize(dir).toString()));
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+            Path relative = directory.relativize(file);
+            if ( ! attrs.isRegularFile() || (relative.getNameCount() == 1 && LOCK_FILES.contains(relative.toString())) ) {
+                return FileVisitResult.CONTINUE;
+            }
+            Path copy = target.resolve(relative.toString());
+            if ( link && isShared(relative) ) {
+                try {
+                    Files.createLink(copy, file);
+                    return FileVisitResult.CONTINUE;
+                } catch (IOException | UnsupportedOperationException e) {
+                    // another file system, or no hard links
+                    link = false;
+                    mode = ProfileCloneMode.Copy;
+                }
+            }
+            Files.copy(file, copy, COPY_ATTRIBUTES);
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
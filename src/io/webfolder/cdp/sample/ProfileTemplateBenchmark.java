@@ -0,0 +1,87 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.session.WaitUntil.Load;
+import static java.lang.System.nanoTime;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Compares browsers started on an empty profile (Options.createNewUserDataDir) with browsers started
+// on a clone of a pre-warmed ProfileTemplate. Startup is measured until a page is ready, shutdown until
+// the close returns: the default cleaner deletes the profile on the close path, TemplateLauncher only
+// queues it for the ProfileCleaner.
+public class ProfileTemplateBenchmark {
+
+    private static final int LAUNCHES = 10;
+
+    public static void main(String[] args) throws Exception {
+        Consumer<Options.Builder> options = builder -> builder.headless(true);
+
+        Path root = Files.createTempDirectory("cdp4j-template-benchmark");
+        ProfileTemplate template = ProfileTemplate.create(root.resolve("template"), options);
+
+        run("Cold           ", () -> {
+            Options.Builder builder = Options.builder();
+            options.accept(builder);
+            Launcher launcher = new Launcher(builder.createNewUserDataDir(true).build());
+            return new Launched(launcher.launch(), launcher::kill);
+        });
+        for (ProfileCloneMode mode : ProfileCloneMode.values()) {
+            ProfileTemplate next = new ProfileTemplate(template.getDirectory(), mode);
+            run(String.format("Template %-7s", mode), () -> {
+                TemplateLauncher launcher = new TemplateLauncher(next, options);
+                return new Launched(launcher.launch(), launcher::kill);
+            });
+            if ( next.getMode() != mode ) {
+                System.out.println("    " + mode + " is not supported here, fell back to " + next.getMode());
+            }
+        }
+
+        ProfileCleaner.getDefault().flush();
+        ProfileCleaner.getDefault().delete(root);
+    }
+
+    private static void run(String name, LaunchAction action) {
+        LatencyHistogram startup = new LatencyHistogram();
+        LatencyHistogram shutdown = new LatencyHistogram();
+        for (int i = 0; i < LAUNCHES; i++) {
+            long start = nanoTime();
+            Launched launched = action.launch();
+            try (Session session = launched.factory.create()) {
+                session.navigateAndWait("about:blank", Load);
+            }
+            startup.record(nanoTime() - start);
+
+            start = nanoTime();
+            launched.factory.close();
+            launched.kill.run();
+            shutdown.record(nanoTime() - start);
+        }
+        System.out.printf("%s startup p50: %6.1f ms, max: %6.1f ms, shutdown p50: %6.1f ms, max: %6.1f ms%n", name,
+                                startup.getValueAtPercentile(50) / 1e6, startup.getMax() / 1e6,
+                                shutdown.getValueAtPercentile(50) / 1e6, shutdown.getMax() / 1e6);
+    }
+
+    private interface LaunchAction {
+
+        Launched launch();
+    }
+
+    private static class Launched {
+
+        private final SessionFactory factory;
+
+        private final Runnable kill;
+
+        Launched(SessionFactory factory, Runnable kill) {
+            this.factory = factory;
+            this.kill = kill;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.event.Events.PageLifecycleEvent;
+import static java.lang.System.nanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonObject;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.WebSocketConnection;
+import io.webfolder.cdp.command.Runtime;
+import io.webfolder.cdp.event.network.RequestWillBeSent;
+import io.webfolder.cdp.event.network.ResponseReceived;
+import io.webfolder.cdp.event.page.LifecycleEvent;
+import io.webfolder.cdp.event.runtime.ConsoleAPICalled;
+import io.webfolder.cdp.serialization.GsonMapper;
+import io.webfolder.cdp.serialization.JacksonMapper;
+import io.webfolder.cdp.serialization.JsonMapper;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Measures the protocol hot paths of cdp4j in isolation, without a browser:
+// event payload decoding (Gson and Jackson), MessageHandler.process(byte[]) event dispatch,
+// request encoding + reply correlation of a synchronous command and of AsyncCommand.
+// Requests are answered in process by LoopbackChannelFactory.
+//
+// Pass --browser to measure Dom/Selector operations against a local (data: URL) page too.
+// Jackson is measured only if jackson-databind is on the classpath.
+public class ProtocolBenchmark {
+
+    private static final int WARMUP = 20_000;
+
+    private static final int ITERATIONS = 100_000;
+
+    private static final int BROWSER_ITERATIONS = 2_000;
+
+    // captured from Chrome 92, Network.requestWillBeSent of a top level navigation
+    private static final String REQUEST_WILL_BE_SENT = "{\"requestId\":\"9F1A6C6B3D5E4F2A8B7C1D0E9F8A7B6C\",\"loaderId\":\"9F1A6C6B3D5E4F2A8B7C1D0E9F8A7B6C\","
+            + "\"documentURL\":\"https://example.com/\",\"request\":{\"url\":\"https://example.com/\",\"method\":\"GET\","
+            + "\"headers\":{\"Upgrade-Insecure-Requests\":\"1\",\"User-Agent\":\"Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) HeadlessChrome/92.0.4515.131 Safari/537.36\"},"
+            + "\"mixedContentType\":\"none\",\"initialPriority\":\"VeryHigh\",\"referrerPolicy\":\"strict-origin-when-cross-origin\",\"isSameSite\":true},"
+            + "\"timestamp\":51231.918542,\"wallTime\":1629812345.123456,\"initiator\":{\"type\":\"other\"},\"redirectHasExtraInfo\":false,"
+            + "\"type\":\"Document\",\"frameId\":\"A3F7E1C2B4D6E8F0A1B3C5D7E9F1A3B5\",\"hasUserGesture\":false}";
+
+    private static final String RESPONSE_RECEIVED = "{\"requestId\":\"9F1A6C6B3D5E4F2A8B7C1D0E9F8A7B6C\",\"loaderId\":\"9F1A6C6B3D5E4F2A8B7C1D0E9F8A7B6C\","
+            + "\"timestamp\":51232.104721,\"type\":\"Document\",\"response\":{\"url\":\"https://example.com/\",\"status\":200,\"statusText\":\"\","
+            + "\"headers\":{\"age\":\"412310\",\"cache-control\":\"max-age=604800\",\"content-encoding\":\"gzip\",\"content-length\":\"648\","
+            + "\"content-type\":\"text/html; charset=UTF-8\",\"date\":\"Tue, 24 Aug 2021 13:39:05 GMT\",\"etag\":\"\\\"3147526947\\\"\","
+            + "\"expires\":\"Tue, 31 Aug 2021 13:39:05 GMT\",\"last-modified\":\"Thu, 17 Oct 2019 07:18:26 GMT\",\"server\":\"ECS (nyb/1D2E)\","
+            + "\"vary\":\"Accept-Encoding\",\"x-cache\":\"HIT\"},\"mimeType\":\"text/html\",\"connectionReused\":false,\"connectionId\":42,"
+            + "\"remoteIPAddress\":\"93.184.216.34\",\"remotePort\":443,\"fromDiskCache\":false,\"fromServiceWorker\":false,\"fromPrefetchCache\":false,"
+            + "\"encodedDataLength\":926,\"timing\":{\"requestTime\":51231.919133,\"proxyStart\":-1,\"proxyEnd\":-1,\"dnsStart\":0.18,\"dnsEnd\":12.4,"
+            + "\"connectStart\":12.4,\"connectEnd\":130.2,\"sslStart\":48.1,\"sslEnd\":130.1,\"workerStart\":-1,\"workerReady\":-1,"
+            + "\"workerFetchStart\":-1,\"workerRespondWithSettled\":-1,\"sendStart\":130.5,\"sendEnd\":130.7,\"pushStart\":0,\"pushEnd\":0,"
+            + "\"receiveHeadersEnd\":184.3},\"responseTime\":1629812345308.512,\"protocol\":\"h2\",\"securityState\":\"secure\"},"
+            + "\"frameId\":\"A3F7E1C2B4D6E8F0A1B3C5D7E9F1A3B5\"}";
+
+    private static final String LIFECYCLE_EVENT = "{\"frameId\":\"A3F7E1C2B4D6E8F0A1B3C5D7E9F1A3B5\","
+            + "\"loaderId\":\"9F1A6C6B3D5E4F2A8B7C1D0E9F8A7B6C\",\"name\":\"DOMContentLoaded\",\"timestamp\":51232.21803}";
+
+    private static final String CONSOLE_API_CALLED = "{\"type\":\"log\",\"args\":[{\"type\":\"string\",\"value\":\"loaded\"},"
+            + "{\"type\":\"object\",\"className\":\"Object\",\"description\":\"Object\",\"objectId\":\"{\\\"injectedScriptId\\\":1,\\\"id\\\":1}\","
+            + "\"preview\":{\"type\":\"object\",\"description\":\"Object\",\"overflow\":false,\"properties\":[{\"name\":\"items\",\"type\":\"number\",\"value\":\"42\"}]}}],"
+            + "\"executionContextId\":1,\"timestamp\":1629812345402.118,\"stackTrace\":{\"callFrames\":[{\"functionName\":\"\","
+            + "\"scriptId\":\"5\",\"url\":\"https://example.com/app.js\",\"lineNumber\":12,\"columnNumber\":16}]}}";
+
+    private static final String PAGE = "data:text/html,<ul>"
+            + "<li id='item-1' class='item' data-price='10'>One</li>"
+            + "<li id='item-2' class='item' data-price='20'>Two</li>"
+            + "<li id='item-3' class='item' data-price='30'>Three</li></ul>"
+            + "<input id='name' value='cdp4j'>";
+
+    public static void main(String[] args) {
+        decoding();
+        loopback();
+        if ( asList(args).contains("--browser") ) {
+            selectors();
+        }
+    }
+
+    private static void decoding() {
+        System.out.println("Event decoding (JsonMapper.fromJson)");
+        JsonMapper jackson = null;
+        try {
+            jackson = new JacksonMapper();
+        } catch (LinkageError e) {
+            System.out.println("  Jackson is not available, skipped");
+        }
+        for (JsonMapper mapper : jackson == null ? new JsonMapper[] { new GsonMapper() } :
+                                                   new JsonMapper[] { new GsonMapper(), jackson }) {
+            String name = mapper instanceof GsonMapper ? "Gson   " : "Jackson";
+            decode(name + " Network.requestWillBeSent", mapper, REQUEST_WILL_BE_SENT, RequestWillBeSent.class);
+            decode(name + " Network.responseReceived ", mapper, RESPONSE_RECEIVED, ResponseReceived.class);
+            decode(name + " Page.lifecycleEvent      ", mapper, LIFECYCLE_EVENT, LifecycleEvent.class);
+            decode(name + " Runtime.consoleAPICalled ", mapper, CONSOLE_API_CALLED, ConsoleAPICalled.class);
+        }
+    }
+
+    private static void decode(String name, JsonMapper mapper, String payload, Class<?> klass) {
+        byte[] bytes = payload.getBytes(UTF_8);
+        measure(name, ITERATIONS, () -> mapper.fromJson(new ByteArrayInputStream(bytes), klass));
+    }
+
+    private static void loopback() {
+        LoopbackChannelFactory loopback = new LoopbackChannelFactory(new EvaluateResponder(new ScriptedBrowser()));
+        AsyncChannelFactory async = new AsyncChannelFactory(loopback);
+        Options options = Options.builder().build();
+        try (SessionFactory factory = new SessionFactory(options, async, new WebSocketConnection("ws://loopback/devtools/browser"))) {
+            Session session = factory.create();
+
+            System.out.println("Event dispatch (MessageHandler.process(byte[]) to a sync listener)");
+            AtomicLong received = new AtomicLong();
+            session.addSyncEventListener((event, value) -> {
+                if ( PageLifecycleEvent.equals(event) ) {
+                    received.incrementAndGet();
+                }
+            });
+            byte[] event = ("{\"method\":\"Page.lifecycleEvent\",\"params\":" + LIFECYCLE_EVENT
+                                + ",\"sessionId\":\"" + session.getId() + "\"}").getBytes(UTF_8);
+            AtomicLong sent = new AtomicLong();
+            measure("Page.lifecycleEvent             ", ITERATIONS, () -> {
+                loopback.emit(event);
+                sent.incrementAndGet();
+            }, () -> {
+                while ( received.get() < sent.get() ) {
+                    Thread.yield();
+                }
+            });
+
+            System.out.println("Command round trip (request encoding + reply correlation)");
+            Runtime runtime = session.getCommand().getRuntime();
+            measure("Session Runtime.evaluate        ", ITERATIONS, () -> runtime.evaluate("1"));
+
+            AsyncCommand command = new AsyncCommand(session, async);
+            JsonObject params = new JsonObject();
+            params.addProperty("expression", "1");
+            measure("AsyncCommand.send               ", ITERATIONS, () -> ReplyWaitingStrategy.getResult(command.send("Runtime.evaluate", params)));
+            measure("AsyncCommand.call               ", ITERATIONS, () -> ReplyWaitingStrategy.getResult(command.call(Runtime.class, r -> r.evaluate("1"))));
+
+            CorrelationTable table = new CorrelationTable(1024);
+            int[] id = { AsyncChannelFactory.FIRST_ID };
+            measure("CorrelationTable put + remove   ", ITERATIONS * 10, () -> {
+                int next = id[0]++;
+                table.put(next, new CompletableFuture<>(), "Runtime.evaluate", Long.MAX_VALUE);
+                table.remove(next);
+            });
+        } finally {
+            async.close();
+        }
+    }
+
+    private static void selectors() {
+        System.out.println("Dom/Selector (local page)");
+        Launcher launcher = new Launcher(Options.builder().headless(true).build());
+        try (SessionFactory factory = launcher.launch();
+                            Session session = factory.create()) {
+            session.navigate(PAGE);
+            session.waitDocumentReady();
+            measure("matches                         ", BROWSER_ITERATIONS, () -> session.matches("#item-2"));
+            measure("getText                         ", BROWSER_ITERATIONS, () -> session.getText("#item-2"));
+            measure("getAttribute                    ", BROWSER_ITERATIONS, () -> session.getAttribute("#item-3", "data-price"));
+            measure("getValue                        ", BROWSER_ITERATIONS, () -> session.getValue("#name"));
+            measure("getObjectIds                    ", BROWSER_ITERATIONS, () -> session.getObjectIds(".item"));
+        } finally {
+            launcher.kill();
+        }
+    }
+
+    private static void measure(String name, int iterations, Runnable operation) {
+        measure(name, iterations, operation, () -> { });
+    }
+
+    // drain waits until the asynchronous part of the operations has completed
+    private static void measure(String name, int iterations, Runnable operation, Runnable drain) {
+        int warmup = Math.min(WARMUP, iterations);
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+        drain.run();
+        long start = nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        drain.run();
+        long elapsed = nanoTime() - start;
+        System.out.printf("  %s %10.1f ns/op %12.0f ops/s%n", name,
+                                (double) elapsed / iterations,
+                                iterations * 1_000_000_000.0 / elapsed);
+    }
+
+    // Runtime.evaluate("1") is answered with a precomputed reply so the benchmark
+    // measures cdp4j instead of the scripted browser, other commands are delegated.
+    private static class EvaluateResponder implements BiConsumer<String, Consumer<String>> {
+
+        private final ScriptedBrowser browser;
+
+        EvaluateResponder(ScriptedBrowser browser) {
+            this.browser = browser;
+        }
+
+        @Override
+        public void accept(String request, Consumer<String> out) {
+            if ( ! request.contains("\"method\":\"Runtime.evaluate\"") || ! request.contains("\"expression\":\"1\"") ) {
+                browser.process(request, out);
+                return;
+            }
+            StringBuilder reply = new StringBuilder(160);
+            reply.append("{\"id\":").append(id(request))
+                 .append(",\"result\":{\"result\":{\"type\":\"number\",\"value\":1,\"description\":\"1\"}}");
+            int start = request.indexOf("\"sessionId\":\"");
+            if ( start >= 0 ) {
+                start += 13;
+                reply.append(",\"sessionId\":\"").append(request, start, request.indexOf('"', start)).append('"');
+            }
+            out.accept(reply.append('}').toString());
+        }
+
+        private static int id(String request) {
+            int position = request.indexOf("\"id\":") + 5;
+            int id = 0;
+            char c;
+            while ( position < request.length() && (c = request.charAt(position)) >= '0' && c <= '9' ) {
+                id = id * 10 + (c - '0');
+                position++;
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import io.webfolder.cdp.exception.CdpException;
+
+/**
+ * Appends DevTools frames to a memory-mapped log file, written by {@link RecordingChannelFactory}
+ * and read by {@link ProtocolReplayer}.
+ *
+ * The file starts with a header (magic, version, start time in epoch milliseconds), each record is
+ * the payload length, the direction ({@link #OUTBOUND} or {@link #INBOUND}), the nanoseconds since
+ * the start of the recording and the UTF-8 payload. Appending is a copy into the page cache, the
+ * operating system writes the pages in the background. The file grows in regions of
+ * {@link #DEFAULT_REGION_SIZE} bytes and is truncated to its content on {@link #close()}; a log
+ * of a crashed process ends with zeros, which the reader treats as the end.
+ */
+public class ProtocolRecorder implements AutoCloseable {
+
+    public static final byte OUTBOUND = '>';
+
+    public static final byte INBOUND = '<';
+
+    public static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+
+    static final int MAGIC = 0x43445034; // CDP4
+
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = 16;
+
+    // length, direction, timestamp
+    static final int RECORD_HEADER_LENGTH = 4 + 1 + 8;
+
+    private final FileChannel channel;
+
+    private final int regionSize;
+
+    private final long start = nanoTime();
+
+    private MappedByteBuffer region;
+
+    private long regionStart;
+
+    private long records;
+
+    private boolean closed;
+
+    public ProtocolRecorder(Path file) {
+        this(file, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * @param regionSize size of the mapped regions, the file grows by this amount
+     */
+    public ProtocolRecorder(Path file, int regionSize) {
+        this.regionSize = regionSize;
+        try {
+            channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+            region = channel.map(READ_WRITE, 0, regionSize);
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+        region.putInt(MAGIC);
+        region.putInt(VERSION);
+        region.putLong(currentTimeMillis());
+    }
+
+    public void append(byte direction, byte[] payload) {
+        append(direction, payload, 0, payload.length);
+    }
+
+    public synchronized void append(byte direction, byte[] payload, int offset, int length) {
+        if ( closed || length == 0 ) {
+            return;
+        }
+        long timestamp = nanoTime() - start;
+        int size = RECORD_HEADER_LENGTH + length;
+        if ( region.remaining() < size ) {
+            remap(size);
+        }
+        region.putInt(length);
+        region.put(direction);
+        region.putLong(timestamp);
+        region.put(payload, offset, length);
+        records++;
+    }
+
+    /**
+     * @return number of records appended so far
+     */
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    /**
+     * @return bytes written to the log so far, including the headers
+     */
+    public synchronized long getSize() {
+        return regionStart + region.position();
+    }
+
+    /**
+     * Writes the mapped pages to the storage device.
+     */
+    public synchronized void force() {
+        if ( ! closed ) {
+            region.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        long size = regionStart + region.position();
+        region.force();
+        region = null;
+        try {
+            try {
+                channel.truncate(size);
+            } catch (IOException e) {
+                // the region is still mapped on some platforms, the zero tail marks the end of the log
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+    }
+
+    private void remap(int size) {
+        // the next region starts at the end of the last record, records are never split
+        long position = regionStart + region.position();
+        try {
+            region = channel.map(READ_WRITE, position, Math.max(regionSize, size));
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+        regionStart = position;
+    }
+}
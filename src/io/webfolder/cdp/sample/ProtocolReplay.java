@@ -0,0 +1,72 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.webfolder.cdp.JsonLibrary;
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Records the DevTools traffic of a page load to a memory-mapped log and replays its events
+// through the Gson and the Jackson message handler as fast as possible, without a browser.
+//
+// Arguments: [log file] [--original-speed]
+// An existing log file is replayed only, e.g. a recording of a production run.
+public class ProtocolReplay {
+
+    public static void main(String[] args) throws InterruptedException {
+        Path file = Paths.get(args.length > 0 ? args[0] : "cdp4j-protocol.log");
+        boolean originalSpeed = args.length > 1 && "--original-speed".equals(args[1]);
+
+        if ( ! Files.exists(file) ) {
+            record(file);
+        }
+
+        for (JsonLibrary library : JsonLibrary.values()) {
+            Options options = Options.builder().jsonLibrary(library).build();
+            try (ProtocolReplayer replayer = new ProtocolReplayer(file)) {
+                replayer.connect(options);
+                AtomicLong received = new AtomicLong();
+                for (Session session : replayer.getSessions()) {
+                    session.addEventListener((event, value) -> received.incrementAndGet());
+                }
+                long start = nanoTime();
+                long events = replayer.replay(originalSpeed);
+                double seconds = (nanoTime() - start) / 1e9;
+                // listeners run on the cdp4j executors, wait until they caught up
+                long delivered;
+                do {
+                    delivered = received.get();
+                    Thread.sleep(200);
+                } while ( delivered != received.get() );
+                double total = (nanoTime() - start) / 1e9;
+                System.out.printf("%-7s %d events decoded in %.3f s (%.0f events/s), %d delivered to listeners in %.3f s%n",
+                                        library, events, seconds, events / seconds, delivered, total);
+            } catch (LinkageError e) {
+                System.out.println(library + " is not available, skipped");
+            }
+        }
+    }
+
+    private static void record(Path file) {
+        try (ProtocolRecorder recorder = new ProtocolRecorder(file)) {
+            Launcher launcher = new Launcher(new RecordingChannelFactory(new NvWebSocketFactory(), recorder));
+            try (SessionFactory factory = launcher.launch();
+                                Session session = factory.create()) {
+                session.getCommand().getNetwork().enable();
+                session.navigate("https://webfolder.io");
+                session.waitDocumentReady();
+            } finally {
+                launcher.kill();
+            }
+            System.out.printf("recorded %d frames, %d bytes to %s%n", recorder.getRecords(), recorder.getSize(), file);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.sample.ProtocolRecorder.HEADER_LENGTH;
+import static io.webfolder.cdp.sample.ProtocolRecorder.INBOUND;
+import static io.webfolder.cdp.sample.ProtocolRecorder.MAGIC;
+import static io.webfolder.cdp.sample.ProtocolRecorder.RECORD_HEADER_LENGTH;
+import static io.webfolder.cdp.sample.ProtocolRecorder.VERSION;
+import static java.lang.System.nanoTime;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Collections.unmodifiableList;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.session.MessageHandler;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Feeds the events of a {@link ProtocolRecorder} log back to a cdp4j message handler,
+ * at the recorded pace or as fast as possible.
+ *
+ * {@link #connect(Options)} creates a {@link SessionFactory} without a browser whose
+ * message handler (Gson or Jackson, see <code>Options.jsonLibrary</code>) receives the events.
+ * A session is created for each recorded session id and the session id of the events is
+ * rewritten, listeners added to {@link #getSessions()} receive the recorded events.
+ * The free version of cdp4j allows 5 sessions per SessionFactory, further recorded sessions
+ * share them.
+ *
+ * Only events are replayed, replies of the recorded commands have no pending command to complete.
+ */
+public class ProtocolReplayer implements AutoCloseable {
+
+    private static final int REGION_SIZE = 256 * 1024 * 1024;
+
+    private static final int MAX_SESSIONS = 5;
+
+    private static final byte[] EVENT_PREFIX = "{\"method\":\"".getBytes(UTF_8);
+
+    private static final byte[] SESSION_ID = "\"sessionId\":\"".getBytes(UTF_8);
+
+    private static final int TAIL_LENGTH = 128;
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private final long startTime;
+
+    private final List<Session> sessions = new ArrayList<>();
+
+    // recorded session id -> session id of the replay
+    private final Map<String, byte[]> sessionIds = new LinkedHashMap<>();
+
+    private SessionFactory factory;
+
+    private MessageHandler handler;
+
+    public ProtocolReplayer(Path file) {
+        try {
+            channel = FileChannel.open(file, READ);
+            size = channel.size();
+            MappedByteBuffer header = channel.map(READ_ONLY, 0, Math.min(size, HEADER_LENGTH));
+            if ( header.remaining() < HEADER_LENGTH || header.getInt() != MAGIC ) {
+                channel.close();
+                throw new CdpException("Not a protocol recording: " + file);
+            }
+            int version = header.getInt();
+            if ( version != VERSION ) {
+                channel.close();
+                throw new CdpException("Unsupported protocol recording version: " + version);
+            }
+            startTime = header.getLong();
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+    }
+
+    /**
+     * @return start of the recording in milliseconds since the epoch
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Creates a SessionFactory without a browser and a session for each recorded session id.
+     */
+    public SessionFactory connect(Options options) {
+        if ( factory != null ) {
+            return factory;
+        }
+        LoopbackChannelFactory loopback = new LoopbackChannelFactory();
+        factory = loopback.connect(options);
+        handler = loopback.getHandler();
+        Cursor cursor = new Cursor();
+        while ( cursor.next() ) {
+            if ( cursor.direction != INBOUND ) {
+                continue;
+            }
+            byte[] payload = cursor.payload();
+            if ( ! isEvent(payload) ) {
+                continue;
+            }
+            String sessionId = readTrailingSessionId(payload);
+            if ( sessionId != null && ! sessionIds.containsKey(sessionId) ) {
+                if ( sessions.size() < MAX_SESSIONS ) {
+                    sessions.add(factory.create());
+                }
+                Session session = sessions.get(sessionIds.size() % sessions.size());
+                sessionIds.put(sessionId, session.getId().getBytes(UTF_8));
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * @return sessions of the replay, in the order the recorded sessions appear in the log
+     */
+    public List<Session> getSessions() {
+        return unmodifiableList(sessions);
+    }
+
+    /**
+     * Replays the events to the SessionFactory of {@link #connect(Options)}.
+     *
+     * @param originalSpeed <code>true</code> to keep the recorded intervals,
+     *                      <code>false</code> to replay as fast as possible
+     *
+     * @return number of replayed events
+     */
+    public long replay(boolean originalSpeed) {
+        if ( handler == null ) {
+            throw new IllegalStateException("connect() must be called before replay()");
+        }
+        return replay(handler, originalSpeed);
+    }
+
+    /**
+     * Replays the events to a message handler, session ids are rewritten only for sessions
+     * created by {@link #connect(Options)}.
+     *
+     * @return number of replayed events
+     */
+    public long replay(MessageHandler handler, boolean originalSpeed) {
+        Cursor cursor = new Cursor();
+        long events = 0;
+        long first = -1;
+        long start = nanoTime();
+        while ( cursor.next() ) {
+            if ( cursor.direction != INBOUND ) {
+                continue;
+            }
+            byte[] payload = cursor.payload();
+            if ( ! isEvent(payload) ) {
+                continue;
+            }
+            if ( originalSpeed ) {
+                if ( first < 0 ) {
+                    first = cursor.timestamp;
+                }
+                long due = start + cursor.timestamp - first;
+                long wait;
+                while ( (wait = due - nanoTime()) > 0 ) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            handler.process(rewriteSessionId(payload));
+            events++;
+        }
+        return events;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if ( factory != null ) {
+                for (Session session : sessions) {
+                    session.close();
+                }
+                factory.close();
+            }
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+        }
+    }
+
+    private byte[] rewriteSessionId(byte[] payload) {
+        if ( sessionIds.isEmpty() ) {
+            return payload;
+        }
+        int start = trailingSessionIdStart(payload);
+        if ( start < 0 ) {
+            return payload;
+        }
+        int end = payload.length - 2;
+        byte[] replacement = sessionIds.get(new String(payload, start, end - start, UTF_8));
+        if ( replacement == null ) {
+            return payload;
+        }
+        if ( replacement.length == end - start ) {
+            // Chrome and the replay use 32 character session ids
+            System.arraycopy(replacement, 0, payload, start, replacement.length);
+            return payload;
+        }
+        byte[] rewritten = new byte[start + replacement.length + 2];
+        System.arraycopy(payload, 0, rewritten, 0, start);
+        System.arraycopy(replacement, 0, rewritten, start, replacement.length);
+        rewritten[rewritten.length - 2] = '"';
+        rewritten[rewritten.length - 1] = '}';
+        return rewritten;
+    }
+
+    private static boolean isEvent(byte[] payload) {
+        if ( payload.length < EVENT_PREFIX.length ) {
+            return false;
+        }
+        for (int i = 0; i < EVENT_PREFIX.length; i++) {
+            if ( payload[i] != EVENT_PREFIX[i] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readTrailingSessionId(byte[] payload) {
+        int start = trailingSessionIdStart(payload);
+        return start < 0 ? null : new String(payload, start, payload.length - 2 - start, UTF_8);
+    }
+
+    // the session id of an event is the last member: {"method":"...","params":{},"sessionId":"..."}
+    private static int trailingSessionIdStart(byte[] payload) {
+        int length = payload.length;
+        if ( length < 2 || payload[length - 1] != '}' || payload[length - 2] != '"' ) {
+            return -1;
+        }
+        int limit = Math.max(0, length - TAIL_LENGTH);
+        for (int i = length - 2 - SESSION_ID.length; i >= limit; i--) {
+            boolean match = true;
+            for (int j = 0; match && j < SESSION_ID.length; j++) {
+                match = payload[i + j] == SESSION_ID[j];
+            }
+            if ( match ) {
+                int start = i + SESSION_ID.length;
+                for (int j = start; j < length - 2; j++) {
+                    if ( payload[j] == '"' ) {
+                        return -1;
+                    }
+                }
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    private class Cursor {
+
+        private MappedByteBuffer region;
+
+        private long regionStart = HEADER_LENGTH;
+
+        private byte direction;
+
+        private long timestamp;
+
+        private int length;
+
+        private int payloadPosition;
+
+        boolean next() {
+            long position = region == null ? regionStart : regionStart + region.position();
+            if ( position + RECORD_HEADER_LENGTH > size ) {
+                return false;
+            }
+            if ( region == null || region.remaining() < RECORD_HEADER_LENGTH ) {
+                map(position, RECORD_HEADER_LENGTH);
+            }
+            int recordLength = region.getInt(region.position());
+            // zero length is the unwritten tail of an unfinished log
+            if ( recordLength <= 0 || position + RECORD_HEADER_LENGTH + recordLength > size ) {
+                return false;
+            }
+            if ( region.remaining() < RECORD_HEADER_LENGTH + recordLength ) {
+                map(position, RECORD_HEADER_LENGTH + recordLength);
+            }
+            length = region.getInt();
+            direction = region.get();
+            timestamp = region.getLong();
+            payloadPosition = region.position();
+            region.position(payloadPosition + length);
+            return true;
+        }
+
+        byte[] payload() {
+            byte[] payload = new byte[length];
+            int position = region.position();
+            region.position(payloadPosition);
+            region.get(payload);
+            region.position(position);
+            return payload;
+        }
+
+        private void map(long position, int minimum) {
+            try {
+                region = channel.map(READ_ONLY, position, Math.min(size - position, Math.max(REGION_SIZE, minimum)));
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+            regionStart = position;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.sample.ProtocolRecorder.INBOUND;
+import static io.webfolder.cdp.sample.ProtocolRecorder.OUTBOUND;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import io.webfolder.cdp.channel.Channel;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.channel.Connection;
+import io.webfolder.cdp.session.MessageHandler;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Decorates a {@link ChannelFactory} and appends every outbound and inbound frame to a
+ * {@link ProtocolRecorder}. The recording can be fed back to cdp4j with {@link ProtocolReplayer}.
+ *
+ * <pre>
+ * try (ProtocolRecorder recorder = new ProtocolRecorder(Paths.get("cdp4j.log"))) {
+ *     Launcher launcher = new Launcher(options, new RecordingChannelFactory(new NvWebSocketFactory(), recorder));
+ *     ...
+ * }
+ * </pre>
+ *
+ * Inbound streams are read into memory before they are recorded and passed on.
+ */
+public class RecordingChannelFactory implements ChannelFactory {
+
+    private final ChannelFactory delegate;
+
+    private final ProtocolRecorder recorder;
+
+    public RecordingChannelFactory(ChannelFactory delegate, ProtocolRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Channel createChannel(Connection connection, SessionFactory factory, MessageHandler handler) {
+        return new RecordingChannel(delegate.createChannel(connection, factory, new RecordingMessageHandler(handler)));
+    }
+
+    public ProtocolRecorder getRecorder() {
+        return recorder;
+    }
+
+    private class RecordingChannel implements Channel {
+
+        private final Channel channel;
+
+        RecordingChannel(Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void disconnect() {
+            channel.disconnect();
+        }
+
+        @Override
+        public void sendText(String message) {
+            recorder.append(OUTBOUND, message.getBytes(UTF_8));
+            channel.sendText(message);
+        }
+
+        @Override
+        public void sendText(byte[] message) {
+            recorder.append(OUTBOUND, message);
+            channel.sendText(message);
+        }
+
+        @Override
+        public void connect() {
+            channel.connect();
+        }
+    }
+
+    private class RecordingMessageHandler implements MessageHandler {
+
+        private final MessageHandler handler;
+
+        RecordingMessageHandler(MessageHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void process(String message) {
+            recorder.append(INBOUND, message.getBytes(UTF_8));
+            handler.process(message);
+        }
+
+        @Override
+        public void process(byte[] message) {
+            recorder.append(INBOUND, message);
+            handler.process(message);
+        }
+
+        @Override
+        public void process(InputStream message) {
+            byte[] bytes = EventFilterChannelFactory.readAll(message);
+            recorder.append(INBOUND, bytes);
+            handler.process(new ByteArrayInputStream(bytes));
+        }
+    }
+}
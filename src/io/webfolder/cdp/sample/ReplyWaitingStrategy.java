@@ -0,0 +1,41 @@
+package io.webfolder.cdp.sample;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import io.webfolder.cdp.exception.CdpException;
+
+/**
+ * Blocks the caller until the reply of an asynchronous command arrives, the
+ * counterpart of cdp4j's <code>WaitingStrategy</code> for {@link AsyncCommand}.
+ *
+ * @see AdaptiveWaitingStrategy
+ * @see VirtualThreadWaitingStrategy
+ */
+public interface ReplyWaitingStrategy {
+
+    /**
+     * @param timeout timeout in milliseconds, <code>0</code> waits forever
+     *
+     * @return result of the command
+     *
+     * @throws io.webfolder.cdp.exception.CdpReadTimeoutException if the reply is not received in time
+     * @throws io.webfolder.cdp.exception.CommandException if the browser replied with an error
+     */
+    <T> T await(CompletableFuture<T> future, int timeout);
+
+    /**
+     * Returns the result of a completed future, exceptions are rethrown as {@link CdpException}.
+     */
+    static <T> T getResult(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if ( cause instanceof CdpException ) {
+                throw (CdpException) cause;
+            }
+            throw new CdpException(cause);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.event.Events.PageScreencastFrame;
+import static io.webfolder.cdp.type.constant.ImageFormat.Jpeg;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import io.webfolder.cdp.event.Events;
+import io.webfolder.cdp.event.page.ScreencastFrame;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.listener.EventListener;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.type.constant.ImageFormat;
+import io.webfolder.cdp.type.page.ScreencastFrameMetadata;
+
+/**
+ * Captures the frames of a session with <code>Page.startScreencast</code>.
+ *
+ * Every frame is acknowledged right away from a separate thread so the browser keeps
+ * streaming. Frames are queued in a fixed size ring and decoded on the consumer thread
+ * into byte arrays owned by the ring, which are reused for the following frames.
+ * When the consumer falls behind the ring fills up and frames are skipped: the stride
+ * (deliver every n-th frame) doubles on overflow and shrinks again once the ring is drained.
+ *
+ * <pre>
+ * try (Screencast screencast = new Screencast(session, frame -&gt; write(frame.getData(), frame.getLength()))) {
+ *     screencast.start();
+ *     ...
+ * }
+ * </pre>
+ */
+public class Screencast implements AutoCloseable {
+
+    private static final int MAX_STRIDE = 8;
+
+    private static final long FPS_WINDOW = 1_000_000_000L;
+
+    private final Session session;
+
+    private final Consumer<Frame> consumer;
+
+    private final Frame[] ring;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final EventListener listener = this::onEvent;
+
+    private final AtomicLong received = new AtomicLong();
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private long writeSequence;
+
+    private long readSequence;
+
+    private int stride = 1;
+
+    private long arrivals;
+
+    private volatile boolean running;
+
+    private volatile double fps;
+
+    private ExecutorService acknowledger;
+
+    private Thread consumerThread;
+
+    public Screencast(Session session, Consumer<Frame> consumer) {
+        this(session, 8, consumer);
+    }
+
+    /**
+     * @param ringSize number of frames which can wait for the consumer
+     */
+    public Screencast(Session session, int ringSize, Consumer<Frame> consumer) {
+        if ( ringSize < 1 ) {
+            throw new IllegalArgumentException("ringSize");
+        }
+        this.session = session;
+        this.consumer = consumer;
+        this.ring = new Frame[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            ring[i] = new Frame();
+        }
+    }
+
+    public void start() {
+        start(Jpeg, 80, null, null);
+    }
+
+    public synchronized void start(ImageFormat format, Integer quality, Integer maxWidth, Integer maxHeight) {
+        if ( running ) {
+            return;
+        }
+        running = true;
+        acknowledger = newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "cdp4j-ScreencastAck");
+            thread.setDaemon(true);
+            return thread;
+        });
+        consumerThread = new Thread(this::consume, "cdp4j-ScreencastConsumer");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+        session.addSyncEventListener(listener);
+        session.getCommand().getPage().startScreencast(format, quality, maxWidth, maxHeight, null);
+    }
+
+    public synchronized void stop() {
+        if ( ! running ) {
+            return;
+        }
+        running = false;
+        session.removeSyncEventEventListener(listener);
+        if ( session.isConnected() ) {
+            session.getCommand().getPage().stopScreencast();
+        }
+        acknowledger.shutdown();
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if ( consumerThread != Thread.currentThread() ) {
+            try {
+                consumerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    public long getReceivedFrames() {
+        return received.get();
+    }
+
+    public long getDeliveredFrames() {
+        return delivered.get();
+    }
+
+    /**
+     * @return frames which were skipped because the consumer was behind
+     */
+    public long getDroppedFrames() {
+        return dropped.get();
+    }
+
+    /**
+     * @return frames per second delivered to the consumer, measured over the last second
+     */
+    public double getFps() {
+        return fps;
+    }
+
+    /**
+     * @return current stride, <code>1</code> while every frame is delivered
+     */
+    public int getStride() {
+        lock.lock();
+        try {
+            return stride;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // runs on the cdp4j worker thread, only the reference to the encoded frame is queued
+    private void onEvent(Events event, Object value) {
+        if ( ! PageScreencastFrame.equals(event) ) {
+            return;
+        }
+        ScreencastFrame frame = (ScreencastFrame) value;
+        received.incrementAndGet();
+        acknowledge(frame.getSessionId());
+        lock.lock();
+        try {
+            long pending = writeSequence - readSequence;
+            if ( pending >= ring.length ) {
+                stride = Math.min(stride * 2, MAX_STRIDE);
+                dropped.incrementAndGet();
+                return;
+            }
+            if ( pending == 0 && stride > 1 ) {
+                stride--;
+            }
+            if ( arrivals++ % stride != 0 ) {
+                dropped.incrementAndGet();
+                return;
+            }
+            Frame slot = ring[(int) (writeSequence % ring.length)];
+            slot.encoded = frame.getData();
+            slot.metadata = frame.getMetadata();
+            slot.sequence = writeSequence;
+            writeSequence++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acknowledge(Integer frameId) {
+        try {
+            acknowledger.execute(() -> {
+                try {
+                    session.getCommand().getPage().screencastFrameAck(frameId);
+                } catch (CdpException e) {
+                    // session closed while the screencast was running
+                }
+            });
+        } catch (RuntimeException e) {
+            // stopped
+        }
+    }
+
+    private void consume() {
+        Base64.Decoder decoder = Base64.getDecoder();
+        StreamTransfer.AsciiInputStream encoded = new StreamTransfer.AsciiInputStream("");
+        long windowStart = nanoTime();
+        int windowFrames = 0;
+        while ( true ) {
+            Frame frame;
+            lock.lock();
+            try {
+                while ( running && readSequence == writeSequence ) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if ( ! running ) {
+                    return;
+                }
+                frame = ring[(int) (readSequence % ring.length)];
+            } finally {
+                lock.unlock();
+            }
+            try {
+                frame.decode(decoder, encoded);
+                consumer.accept(frame);
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            } finally {
+                lock.lock();
+                try {
+                    frame.encoded = null;
+                    readSequence++;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            delivered.incrementAndGet();
+            windowFrames++;
+            long now = nanoTime();
+            if ( now - windowStart >= FPS_WINDOW ) {
+                fps = windowFrames * 1_000_000_000.0 / (now - windowStart);
+                windowStart = now;
+                windowFrames = 0;
+            }
+        }
+    }
+
+    /**
+     * A decoded frame, the data array is reused once the consumer returns.
+     */
+    public static class Frame {
+
+        private byte[] data = new byte[0];
+
+        private int length;
+
+        private String encoded;
+
+        private ScreencastFrameMetadata metadata;
+
+        private long sequence;
+
+        private Frame() {
+            // no op
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * @return number of valid bytes in {@link #getData()}
+         */
+        public int getLength() {
+            return length;
+        }
+
+        public ScreencastFrameMetadata getMetadata() {
+            return metadata;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        void decode(Base64.Decoder decoder, StreamTransfer.AsciiInputStream source) {
+            int capacity = encoded.length() / 4 * 3;
+            if ( data.length < capacity ) {
+                data = new byte[capacity];
+            }
+            source.reset(encoded);
+            length = 0;
+            try (InputStream in = decoder.wrap(source)) {
+                int read;
+                while ( length < data.length && (read = in.read(data, length, data.length - length)) > 0 ) {
+                    length += read;
+                }
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+        }
+    }
+}
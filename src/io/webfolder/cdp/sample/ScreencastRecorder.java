@@ -0,0 +1,52 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.type.constant.ImageFormat.Jpeg;
+import static java.lang.String.format;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.Files.newOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Records five seconds of a page as JPEG frames.
+public class ScreencastRecorder {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Launcher launcher = new Launcher();
+
+        Path directory = createTempDirectory("screencast");
+
+        try (SessionFactory factory = launcher.launch();
+                            Session session = factory.create()) {
+            session.navigate("https://webfolder.io");
+            session.waitDocumentReady();
+
+            try (Screencast screencast = new Screencast(session, 16, frame -> {
+                Path file = directory.resolve(format("frame-%06d.jpg", frame.getSequence()));
+                try (OutputStream os = newOutputStream(file)) {
+                    os.write(frame.getData(), 0, frame.getLength());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })) {
+                screencast.start(Jpeg, 70, 1280, 720);
+                session.evaluate("window.scrollTo({ top: document.body.scrollHeight, behavior: 'smooth' })");
+                Thread.sleep(5_000);
+
+                System.out.println("Frames  : " + screencast.getDeliveredFrames());
+                System.out.println("Dropped : " + screencast.getDroppedFrames());
+                System.out.println("FPS     : " + screencast.getFps());
+            }
+        } finally {
+            launcher.kill();
+        }
+
+        System.out.println("Frames saved to " + directory);
+    }
+}
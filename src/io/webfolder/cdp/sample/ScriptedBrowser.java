@@ -0,0 +1,448 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.String.format;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.webfolder.cdp.exception.CdpException;
+
+/**
+ * Answers DevTools requests with canned replies, enough for cdp4j to connect,
+ * create sessions and browser contexts, navigate and evaluate scripts.
+ *
+ * Commands without a scripted reply succeed with an empty result, a scripted failure is
+ * answered with an error. Target events
+ * and page lifecycle events caused by a command are sent after its reply.
+ *
+ * A navigation to an http URL loads a generated page whose path ends with a number
+ * <code>n</code> and which links to the pages <code>2n + 1</code> and <code>2n + 2</code>
+ * of the same origin, its body is served by <code>Network.getResponseBody</code>.
+ *
+ * Flattened <code>Target.setAutoAttach</code> on a page attaches an out-of-process iframe and a
+ * dedicated worker to it, both answer <code>location.href</code> with their own URL.
+ *
+ * Every page has an in-process child frame as well, reported by <code>Page.getFrameTree</code>. After
+ * <code>Runtime.enable</code> the main frame and the child frame announce an execution context each, an
+ * evaluation of <code>location.href</code> in a context of the child frame, isolated worlds included, answers
+ * the URL of the child frame.
+ */
+class ScriptedBrowser {
+
+    private static final String BROWSER_TARGET_ID = "B0000000000000000000000000000000";
+
+    private static final String DEFAULT_CONTEXT_ID = "C0000000000000000000000000000000";
+
+    private final Map<String, JsonObject> targets = new LinkedHashMap<>();
+
+    private final Map<String, String> sessions = new LinkedHashMap<>();
+
+    private final List<String> contexts = new ArrayList<>();
+
+    // session id of an auto attached target to the session id of its parent
+    private final Map<String, String> parents = new LinkedHashMap<>();
+
+    // request id of a loaded document to its url
+    private final Map<String, String> documents = new LinkedHashMap<>();
+
+    // execution context id of a child frame to the url of the frame
+    private final Map<Integer, String> frameContexts = new LinkedHashMap<>();
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private final AtomicLong commands = new AtomicLong();
+
+    ScriptedBrowser() {
+        targets.put(BROWSER_TARGET_ID, targetInfo(BROWSER_TARGET_ID, "browser", DEFAULT_CONTEXT_ID, ""));
+    }
+
+    /**
+     * Passes the reply of the request and the events it causes to the consumer.
+     *
+     * @return <code>true</code> if the request started a page load, the events after the reply belong to the load
+     */
+    boolean process(String message, Consumer<String> out) {
+        commands.incrementAndGet();
+        JsonObject request = JsonParser.parseString(message).getAsJsonObject();
+        JsonElement sessionId = request.get("sessionId");
+        String method = request.get("method").getAsString();
+        JsonObject params = request.has("params") ? request.getAsJsonObject("params") : new JsonObject();
+        List<String> pending = new ArrayList<>();
+        JsonObject reply = new JsonObject();
+        reply.add("id", request.get("id"));
+        try {
+            reply.add("result", execute(sessionId == null ? null : sessionId.getAsString(), method, params, pending));
+        } catch (CdpException e) {
+            JsonObject error = new JsonObject();
+            error.addProperty("code", -32000);
+            error.addProperty("message", e.getMessage());
+            reply.add("error", error);
+        }
+        if ( sessionId != null ) {
+            reply.add("sessionId", sessionId);
+        }
+        out.accept(reply.toString());
+        for (String event : pending) {
+            out.accept(event);
+        }
+        return "Page.navigate".equals(method) && ! pending.isEmpty();
+    }
+
+    long getCommandCount() {
+        return commands.get();
+    }
+
+    /**
+     * @return ids of the sessions attached with <code>Target.attachToTarget</code>
+     */
+    synchronized List<String> getSessionIds() {
+        return new ArrayList<>(sessions.keySet());
+    }
+
+    private synchronized JsonObject execute(String sessionId, String method, JsonObject params, List<String> pending) {
+        JsonObject result = new JsonObject();
+        switch (method) {
+            case "Browser.getVersion":
+                result.addProperty("protocolVersion", "1.3");
+                result.addProperty("product", "HeadlessChrome/92.0.4515.131");
+                result.addProperty("revision", "@0");
+                result.addProperty("userAgent", "Mozilla/5.0 HeadlessChrome/92.0.4515.131");
+                result.addProperty("jsVersion", "9.2.230.21");
+            break;
+            case "SystemInfo.getProcessInfo":
+                // the JVM stands in for the browser process
+                JsonObject process = new JsonObject();
+                process.addProperty("type", "browser");
+                process.addProperty("id", Integer.parseInt(ManagementFactory.getRuntimeMXBean().getName().split("@")[0]));
+                process.addProperty("cpuTime", ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                                                            .getProcessCpuTime() / 1e9);
+                JsonArray processInfo = new JsonArray();
+                processInfo.add(process);
+                result.add("processInfo", processInfo);
+            break;
+            case "Target.getTargets":
+                JsonArray infos = new JsonArray();
+                for (JsonObject next : targets.values()) {
+                    infos.add(next);
+                }
+                result.add("targetInfos", infos);
+            break;
+            case "Target.setDiscoverTargets":
+                if ( params.has("discover") && params.get("discover").getAsBoolean() ) {
+                    for (JsonObject next : targets.values()) {
+                        pending.add(event("Target.targetCreated", null, "targetInfo", next));
+                    }
+                }
+            break;
+            case "Target.createBrowserContext":
+                String contextId = nextId("C");
+                contexts.add(contextId);
+                result.addProperty("browserContextId", contextId);
+            break;
+            case "Target.disposeBrowserContext":
+                contexts.remove(params.get("browserContextId").getAsString());
+            break;
+            case "Target.createTarget":
+                String targetId = nextId("T");
+                String context = params.has("browserContextId") ? params.get("browserContextId").getAsString() : DEFAULT_CONTEXT_ID;
+                JsonObject info = targetInfo(targetId, "page", context, params.has("url") ? params.get("url").getAsString() : "about:blank");
+                targets.put(targetId, info);
+                result.addProperty("targetId", targetId);
+                pending.add(event("Target.targetCreated", null, "targetInfo", info));
+            break;
+            case "Target.attachToTarget":
+                String attachedId = nextId("S");
+                sessions.put(attachedId, params.get("targetId").getAsString());
+                result.addProperty("sessionId", attachedId);
+            break;
+            case "Target.closeTarget":
+                close(params.get("targetId").getAsString(), pending);
+                result.addProperty("success", true);
+            break;
+            case "Page.close":
+                close(sessions.get(sessionId), pending);
+            break;
+            case "Page.navigate":
+                String frameId = sessions.get(sessionId);
+                result.addProperty("frameId", frameId);
+                result.addProperty("loaderId", nextId("L"));
+                if ( frameId != null ) {
+                    String url = params.get("url").getAsString();
+                    targets.get(frameId).addProperty("url", url);
+                    JsonObject frame = new JsonObject();
+                    frame.addProperty("id", frameId);
+                    frame.addProperty("loaderId", result.get("loaderId").getAsString());
+                    frame.addProperty("url", url);
+                    frame.addProperty("securityOrigin", url.startsWith("http") ? origin(url) : "://");
+                    frame.addProperty("mimeType", "text/html");
+                    pending.add(event("Page.frameNavigated", sessionId, "frame", frame));
+                    if ( url.startsWith("http") ) {
+                        load(sessionId, frameId, result.get("loaderId").getAsString(), url, pending);
+                    }
+                    for (String name : new String[] { "init", "DOMContentLoaded", "load", "networkIdle" }) {
+                        JsonObject lifecycle = new JsonObject();
+                        lifecycle.addProperty("frameId", frameId);
+                        lifecycle.addProperty("loaderId", result.get("loaderId").getAsString());
+                        lifecycle.addProperty("name", name);
+                        lifecycle.addProperty("timestamp", System.nanoTime() / 1e9);
+                        pending.add(event("Page.lifecycleEvent", sessionId, null, lifecycle));
+                    }
+                }
+            break;
+            case "Target.setAutoAttach":
+                JsonObject page = targets.get(sessions.get(sessionId));
+                boolean flatten = params.has("flatten") && params.get("flatten").getAsBoolean();
+                if ( flatten && page != null && "page".equals(page.get("type").getAsString()) && ! parents.containsValue(sessionId) ) {
+                    String browserContextId = page.get("browserContextId").getAsString();
+                    autoAttach(sessionId, "iframe", browserContextId, "http://frame.test/" + counter.get(), pending);
+                    autoAttach(sessionId, "worker", browserContextId, "http://frame.test/worker.js", pending);
+                }
+            break;
+            case "Page.getFrameTree":
+                JsonObject main = targets.get(sessions.get(sessionId));
+                if ( main != null ) {
+                    String mainId = main.get("targetId").getAsString();
+                    JsonObject child = new JsonObject();
+                    child.add("frame", frame(childFrameId(mainId), mainId, childFrameUrl(mainId)));
+                    JsonArray childFrames = new JsonArray();
+                    childFrames.add(child);
+                    JsonObject tree = new JsonObject();
+                    tree.add("frame", frame(mainId, null, main.get("url").getAsString()));
+                    tree.add("childFrames", childFrames);
+                    result.add("frameTree", tree);
+                }
+            break;
+            case "Runtime.enable":
+                JsonObject enabled = targets.get(sessions.get(sessionId));
+                if ( enabled != null && "page".equals(enabled.get("type").getAsString()) ) {
+                    String mainId = enabled.get("targetId").getAsString();
+                    pending.add(event("Runtime.executionContextCreated", sessionId, "context",
+                                                executionContext(mainId, enabled.get("url").getAsString())));
+                    JsonObject child = executionContext(childFrameId(mainId), childFrameUrl(mainId));
+                    frameContexts.put(child.get("id").getAsInt(), childFrameUrl(mainId));
+                    pending.add(event("Runtime.executionContextCreated", sessionId, "context", child));
+                }
+            break;
+            case "Page.createIsolatedWorld":
+                int worldId = (int) counter.incrementAndGet();
+                String worldFrameId = params.has("frameId") ? params.get("frameId").getAsString() : "";
+                if ( worldFrameId.startsWith("F") ) {
+                    frameContexts.put(worldId, childFrameUrl("T" + worldFrameId.substring(1)));
+                }
+                result.addProperty("executionContextId", worldId);
+            break;
+            case "Network.getResponseBody":
+                String document = documents.get(params.get("requestId").getAsString());
+                if ( document == null ) {
+                    throw new CdpException("No resource with given identifier found");
+                }
+                result.addProperty("body", page(document));
+                result.addProperty("base64Encoded", false);
+            break;
+            case "Runtime.evaluate":
+                String expression = params.has("expression") ? params.get("expression").getAsString() : "";
+                JsonObject value = new JsonObject();
+                String frameUrl = params.has("contextId") ? frameContexts.get(params.get("contextId").getAsInt()) : null;
+                if ( expression.contains("readyState") ) {
+                    value.addProperty("type", "string");
+                    value.addProperty("value", "complete");
+                } else if ( expression.contains("document.links") && targets.containsKey(sessions.get(sessionId)) ) {
+                    JsonArray links = new JsonArray();
+                    for (String link : links(targets.get(sessions.get(sessionId)).get("url").getAsString())) {
+                        links.add(link);
+                    }
+                    value.addProperty("type", "string");
+                    value.addProperty("value", links.toString());
+                } else if ( expression.equals("location.href") && frameUrl != null ) {
+                    value.addProperty("type", "string");
+                    value.addProperty("value", frameUrl);
+                } else if ( expression.equals("location.href") && targets.containsKey(sessions.get(sessionId)) ) {
+                    value.addProperty("type", "string");
+                    value.addProperty("value", targets.get(sessions.get(sessionId)).get("url").getAsString());
+                } else if ( expression.equals("location.origin") && targets.containsKey(sessions.get(sessionId)) ) {
+                    String url = targets.get(sessions.get(sessionId)).get("url").getAsString();
+                    value.addProperty("type", "string");
+                    value.addProperty("value", url.startsWith("http") ? origin(url) : "null");
+                } else {
+                    value.addProperty("type", "number");
+                    value.addProperty("value", 1);
+                    value.addProperty("description", "1");
+                }
+                result.add("result", value);
+            break;
+            default:
+            break;
+        }
+        return result;
+    }
+
+    private void autoAttach(String parentSessionId, String type, String browserContextId, String url, List<String> pending) {
+        String targetId = nextId("T");
+        JsonObject info = targetInfo(targetId, type, browserContextId, url);
+        info.addProperty("attached", true);
+        targets.put(targetId, info);
+        String childSessionId = nextId("S");
+        sessions.put(childSessionId, targetId);
+        parents.put(childSessionId, parentSessionId);
+        JsonObject attached = new JsonObject();
+        attached.addProperty("sessionId", childSessionId);
+        attached.add("targetInfo", info);
+        attached.addProperty("waitingForDebugger", true);
+        pending.add(event("Target.attachedToTarget", parentSessionId, null, attached));
+    }
+
+    // response events of the document, the request id of a document is its loader id
+    private void load(String sessionId, String frameId, String loaderId, String url, List<String> pending) {
+        documents.put(loaderId, url);
+        JsonObject headers = new JsonObject();
+        headers.addProperty("content-type", "text/html");
+        JsonObject response = new JsonObject();
+        response.addProperty("url", url);
+        response.addProperty("status", 200);
+        response.addProperty("statusText", "OK");
+        response.add("headers", headers);
+        response.addProperty("mimeType", "text/html");
+        response.addProperty("connectionReused", false);
+        response.addProperty("connectionId", 0);
+        response.addProperty("encodedDataLength", 0);
+        response.addProperty("securityState", "neutral");
+        JsonObject received = new JsonObject();
+        received.addProperty("requestId", loaderId);
+        received.addProperty("loaderId", loaderId);
+        received.addProperty("timestamp", System.nanoTime() / 1e9);
+        received.addProperty("type", "Document");
+        received.add("response", response);
+        received.addProperty("frameId", frameId);
+        pending.add(event("Network.responseReceived", sessionId, null, received));
+        JsonObject finished = new JsonObject();
+        finished.addProperty("requestId", loaderId);
+        finished.addProperty("timestamp", System.nanoTime() / 1e9);
+        finished.addProperty("encodedDataLength", page(url).length());
+        pending.add(event("Network.loadingFinished", sessionId, null, finished));
+    }
+
+    private static List<String> links(String url) {
+        int start = url.length();
+        while ( start > 0 && Character.isDigit(url.charAt(start - 1)) ) {
+            start--;
+        }
+        long n = start < url.length() && url.length() - start < 18 ? Long.parseLong(url.substring(start)) : 0;
+        List<String> links = new ArrayList<>(2);
+        links.add(origin(url) + "/" + (2 * n + 1));
+        links.add(origin(url) + "/" + (2 * n + 2));
+        return links;
+    }
+
+    private static String page(String url) {
+        StringBuilder page = new StringBuilder("<html><head><title>").append(url).append("</title></head><body>");
+        for (String link : links(url)) {
+            page.append("<a href=\"").append(link).append("\">").append(link).append("</a>");
+        }
+        return page.append("</body></html>").toString();
+    }
+
+    private void close(String targetId, List<String> pending) {
+        if ( targetId == null || targets.remove(targetId) == null ) {
+            return;
+        }
+        for (Map.Entry<String, String> next : new ArrayList<>(sessions.entrySet())) {
+            if ( targetId.equals(next.getValue()) ) {
+                // targets attached to the session go away with it
+                for (Map.Entry<String, String> child : new ArrayList<>(parents.entrySet())) {
+                    if ( next.getKey().equals(child.getValue()) ) {
+                        close(sessions.get(child.getKey()), pending);
+                    }
+                }
+                sessions.remove(next.getKey());
+                JsonObject detached = new JsonObject();
+                detached.addProperty("sessionId", next.getKey());
+                detached.addProperty("targetId", targetId);
+                pending.add(event("Target.detachedFromTarget", parents.remove(next.getKey()), null, detached));
+            }
+        }
+        JsonObject destroyed = new JsonObject();
+        destroyed.addProperty("targetId", targetId);
+        pending.add(event("Target.targetDestroyed", null, null, destroyed));
+    }
+
+    static String event(String method, String sessionId, String member, JsonObject value) {
+        JsonObject params = value;
+        if ( member != null ) {
+            params = new JsonObject();
+            params.add(member, value);
+        }
+        JsonObject event = new JsonObject();
+        event.addProperty("method", method);
+        event.add("params", params);
+        if ( sessionId != null ) {
+            event.addProperty("sessionId", sessionId);
+        }
+        return event.toString();
+    }
+
+    private static String origin(String url) {
+        int path = url.indexOf('/', url.indexOf("://") + 3);
+        return path < 0 ? url : url.substring(0, path);
+    }
+
+    private static JsonObject targetInfo(String targetId, String type, String browserContextId, String url) {
+        JsonObject info = new JsonObject();
+        info.addProperty("targetId", targetId);
+        info.addProperty("type", type);
+        info.addProperty("title", "");
+        info.addProperty("url", url);
+        info.addProperty("attached", false);
+        info.addProperty("browserContextId", browserContextId);
+        return info;
+    }
+
+    private JsonObject executionContext(String frameId, String url) {
+        JsonObject auxData = new JsonObject();
+        auxData.addProperty("isDefault", true);
+        auxData.addProperty("type", "default");
+        auxData.addProperty("frameId", frameId);
+        JsonObject context = new JsonObject();
+        context.addProperty("id", (int) counter.incrementAndGet());
+        context.addProperty("origin", url.startsWith("http") ? origin(url) : "://");
+        context.addProperty("name", "");
+        context.add("auxData", auxData);
+        return context;
+    }
+
+    private static JsonObject frame(String frameId, String parentId, String url) {
+        JsonObject frame = new JsonObject();
+        frame.addProperty("id", frameId);
+        if ( parentId != null ) {
+            frame.addProperty("parentId", parentId);
+        }
+        frame.addProperty("loaderId", "L" + frameId.substring(1));
+        frame.addProperty("name", parentId == null ? "" : "child");
+        frame.addProperty("url", url);
+        frame.addProperty("securityOrigin", url.startsWith("http") ? origin(url) : "://");
+        frame.addProperty("mimeType", "text/html");
+        return frame;
+    }
+
+    // the in-process child frame of a page
+    private static String childFrameId(String targetId) {
+        return "F" + targetId.substring(1);
+    }
+
+    private static String childFrameUrl(String targetId) {
+        return "http://child.test/" + targetId;
+    }
+
+    private String nextId(String prefix) {
+        return prefix + format("%031X", counter.incrementAndGet());
+    }
+}
@@ -0,0 +1,415 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.sample.WebSocketFrames.OPCODE_CLOSE;
+import static io.webfolder.cdp.sample.WebSocketFrames.OPCODE_PING;
+import static io.webfolder.cdp.sample.WebSocketFrames.OPCODE_PONG;
+import static io.webfolder.cdp.sample.WebSocketFrames.OPCODE_TEXT;
+import static io.webfolder.cdp.sample.WebSocketFrames.acceptKey;
+import static io.webfolder.cdp.sample.WebSocketFrames.encode;
+import static java.nio.channels.SelectionKey.OP_READ;
+import static java.nio.channels.SelectionKey.OP_WRITE;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Base64.getEncoder;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.webfolder.cdp.channel.Channel;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.channel.Connection;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.session.MessageHandler;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * WebSocket {@link ChannelFactory} where all channels share a single selector thread.
+ *
+ * Incoming messages are handed to the {@link MessageHandler} on the selector thread, cdp4j
+ * only queues them to {@link io.webfolder.cdp.Options#workerThreadPool()} there, so message
+ * handlers which decorate it must not block. Remote closes are handled on a dispatcher: virtual
+ * threads when the JVM supports them (Java 21+), a cached thread pool otherwise.
+ *
+ * cdp4j still creates a worker and an event thread for every SessionFactory, pass the same
+ * executors to all browsers through {@link SharedExecutorService} so that the number of threads
+ * does not grow with the number of browsers.
+ *
+ * The JDK's java.net.http.WebSocket requires Java 11, this factory stays on Java 8.
+ */
+public class SelectorWebSocketFactory implements ChannelFactory, AutoCloseable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final int CONNECT_TIMEOUT = 10_000;
+
+    private final Selector selector;
+
+    private final Thread selectorThread;
+
+    private final ExecutorService dispatcher;
+
+    private final boolean shutdownDispatcher;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public SelectorWebSocketFactory() {
+        this(newDispatcher(), true);
+    }
+
+    public SelectorWebSocketFactory(ExecutorService dispatcher) {
+        this(dispatcher, false);
+    }
+
+    private SelectorWebSocketFactory(ExecutorService dispatcher, boolean shutdownDispatcher) {
+        this.dispatcher = dispatcher;
+        this.shutdownDispatcher = shutdownDispatcher;
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+        this.selectorThread = new Thread(this::select, "cdp4j-WebSocketSelector");
+        this.selectorThread.setDaemon(true);
+        this.selectorThread.start();
+    }
+
+    /**
+     * @return virtual thread per task executor on Java 21+, cached thread pool on older JVMs
+     */
+    public static ExecutorService newDispatcher() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "cdp4j-WebSocketDispatcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public Channel createChannel(Connection connection, SessionFactory factory, MessageHandler handler) {
+        if ( closed.get() ) {
+            throw new IllegalStateException();
+        }
+        return new SelectorWebSocketChannel(URI.create(connection.getUrl()), factory, handler);
+    }
+
+    @Override
+    public void close() {
+        if ( closed.compareAndSet(false, true) ) {
+            selector.wakeup();
+            if ( shutdownDispatcher ) {
+                dispatcher.shutdown();
+            }
+        }
+    }
+
+    private void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    private void select() {
+        while ( ! closed.get() ) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                break;
+            }
+            Runnable task;
+            while ( (task = tasks.poll()) != null ) {
+                task.run();
+            }
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while ( iterator.hasNext() ) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+                SelectorWebSocketChannel channel = (SelectorWebSocketChannel) key.attachment();
+                if ( ! key.isValid() ) {
+                    channel.closed(false);
+                    continue;
+                }
+                if ( key.isReadable() ) {
+                    channel.onReadable();
+                }
+                if ( key.isValid() && key.isWritable() ) {
+                    channel.onWritable();
+                }
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            ((SelectorWebSocketChannel) key.attachment()).closed(false);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private class SelectorWebSocketChannel implements Channel, WebSocketFrames.FrameListener {
+
+        private final URI uri;
+
+        private final SessionFactory factory;
+
+        private final MessageHandler handler;
+
+        private final WebSocketFrames.Decoder decoder = new WebSocketFrames.Decoder(this);
+
+        private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>();
+
+
+        private final AtomicBoolean open = new AtomicBoolean();
+
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        private SocketChannel socket;
+
+        private SelectionKey key;
+
+        SelectorWebSocketChannel(URI uri, SessionFactory factory, MessageHandler handler) {
+            this.uri = uri;
+            this.factory = factory;
+            this.handler = handler;
+        }
+
+        @Override
+        public void connect() {
+            try {
+                int port = uri.getPort() > 0 ? uri.getPort() : 80;
+                socket = SocketChannel.open();
+                socket.socket().setTcpNoDelay(true);
+                socket.socket().connect(new InetSocketAddress(uri.getHost(), port), CONNECT_TIMEOUT);
+                handshake(port);
+                socket.configureBlocking(false);
+            } catch (IOException e) {
+                closeSocket();
+                throw new CdpException(e);
+            }
+            open.set(true);
+            execute(() -> {
+                try {
+                    key = socket.register(selector, OP_READ, this);
+                    if ( readBuffer.position() > 0 ) {
+                        // frames received together with the handshake response
+                        onFrames();
+                    }
+                } catch (IOException e) {
+                    closed(true);
+                }
+            });
+        }
+
+        private void handshake(int port) throws IOException {
+            byte[] nonce = new byte[16];
+            ThreadLocalRandom.current().nextBytes(nonce);
+            String key = getEncoder().encodeToString(nonce);
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            String request = "GET " + path + " HTTP/1.1\r\n" +
+                             "Host: " + uri.getHost() + ":" + port + "\r\n" +
+                             "Upgrade: websocket\r\n" +
+                             "Connection: Upgrade\r\n" +
+                             "Sec-WebSocket-Key: " + key + "\r\n" +
+                             "Sec-WebSocket-Version: 13\r\n\r\n";
+            ByteBuffer out = ByteBuffer.wrap(request.getBytes(ISO_8859_1));
+            while ( out.hasRemaining() ) {
+                socket.write(out);
+            }
+            int end;
+            while ( (end = headerEnd()) < 0 ) {
+                if ( ! readBuffer.hasRemaining() || socket.read(readBuffer) < 0 ) {
+                    throw new IOException("Invalid WebSocket handshake response");
+                }
+            }
+            String response = new String(readBuffer.array(), 0, end, ISO_8859_1);
+            if ( ! response.startsWith("HTTP/1.1 101") ||
+                    ! response.contains(acceptKey(key)) ) {
+                throw new IOException("WebSocket upgrade failed: " + response.split("\r\n")[0]);
+            }
+            // keep the bytes after the header, they belong to the first frame
+            readBuffer.flip();
+            readBuffer.position(end);
+            readBuffer.compact();
+        }
+
+        private int headerEnd() {
+            byte[] array = readBuffer.array();
+            for (int i = 3; i < readBuffer.position(); i++) {
+                if ( array[i - 3] == '\r' && array[i - 2] == '\n' && array[i - 1] == '\r' && array[i] == '\n' ) {
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open.get();
+        }
+
+        @Override
+        public void disconnect() {
+            if ( open.get() ) {
+                send(encode(OPCODE_CLOSE, new byte[] { 0x03, (byte) 0xE8 }, true));
+                execute(() -> closed(false));
+            }
+        }
+
+        @Override
+        public void sendText(String message) {
+            sendText(message.getBytes(UTF_8));
+        }
+
+        @Override
+        public void sendText(byte[] message) {
+            if ( ! open.get() ) {
+                throw new CdpException("WebSocket is closed");
+            }
+            send(encode(OPCODE_TEXT, message, true));
+        }
+
+        private void send(ByteBuffer frame) {
+            synchronized (writeQueue) {
+                boolean idle = writeQueue.isEmpty();
+                writeQueue.add(frame);
+                if ( idle ) {
+                    // try to write from the caller thread, the selector takes over if the socket buffer is full
+                    try {
+                        flush();
+                    } catch (IOException e) {
+                        execute(() -> closed(true));
+                        return;
+                    }
+                    if ( ! writeQueue.isEmpty() ) {
+                        execute(() -> {
+                            if ( key != null && key.isValid() ) {
+                                key.interestOps(key.interestOps() | OP_WRITE);
+                            }
+                        });
+                    }
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            ByteBuffer head;
+            while ( (head = writeQueue.peek()) != null ) {
+                socket.write(head);
+                if ( head.hasRemaining() ) {
+                    return;
+                }
+                writeQueue.poll();
+            }
+        }
+
+        void onWritable() {
+            synchronized (writeQueue) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    closed(true);
+                    return;
+                }
+                if ( writeQueue.isEmpty() ) {
+                    key.interestOps(key.interestOps() & ~OP_WRITE);
+                }
+            }
+        }
+
+        void onReadable() {
+            int read;
+            try {
+                read = socket.read(readBuffer);
+            } catch (IOException e) {
+                read = -1;
+            }
+            if ( read < 0 ) {
+                closed(true);
+                return;
+            }
+            onFrames();
+        }
+
+        private void onFrames() {
+            readBuffer.flip();
+            try {
+                decoder.decode(readBuffer);
+            } catch (RuntimeException e) {
+                closed(true);
+                return;
+            }
+            readBuffer.compact();
+            if ( ! readBuffer.hasRemaining() ) {
+                // a single frame is larger than the buffer
+                ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+                readBuffer.flip();
+                larger.put(readBuffer);
+                readBuffer = larger;
+            }
+        }
+
+        @Override
+        public void onMessage(int opcode, byte[] payload) {
+            switch (opcode) {
+                case OPCODE_TEXT:
+                    handler.process(payload);
+                    break;
+                case OPCODE_PING:
+                    send(encode(OPCODE_PONG, payload, true));
+                    break;
+                case OPCODE_CLOSE:
+                    closed(true);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        void closed(boolean remote) {
+            boolean wasOpen = open.getAndSet(false);
+            if ( key != null ) {
+                key.cancel();
+            }
+            closeSocket();
+            if ( wasOpen && remote ) {
+                // same as NvWebSocketListener.onDisconnected, never block the selector thread
+                try {
+                    dispatcher.execute(factory::close);
+                } catch (RejectedExecutionException e) {
+                    // the factory is being closed
+                }
+            }
+        }
+
+        private void closeSocket() {
+            if ( socket != null ) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
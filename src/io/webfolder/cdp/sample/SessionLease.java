@@ -0,0 +1,85 @@
+package io.webfolder.cdp.sample;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.webfolder.cdp.listener.EventListener;
+import io.webfolder.cdp.sample.SessionPool.PooledSession;
+import io.webfolder.cdp.session.Session;
+
+/**
+ * A session leased from a {@link SessionPool}, closing the lease returns the session to the pool.
+ *
+ * Listeners must be added with {@link #addEventListener(EventListener)} and
+ * {@link #addSyncEventListener(EventListener)} to be removed when the session is returned.
+ * The session itself must not be closed, use {@link #invalidate()} to replace a broken session.
+ */
+public class SessionLease implements AutoCloseable {
+
+    private final SessionPool pool;
+
+    private final PooledSession pooled;
+
+    private final List<EventListener> listeners = new ArrayList<>();
+
+    private final List<EventListener> syncListeners = new ArrayList<>();
+
+    private boolean released;
+
+    SessionLease(SessionPool pool, PooledSession pooled) {
+        this.pool = pool;
+        this.pooled = pooled;
+    }
+
+    public Session getSession() {
+        if ( released ) {
+            throw new IllegalStateException("Session already returned to the pool");
+        }
+        return pooled.session;
+    }
+
+    public void addEventListener(EventListener listener) {
+        getSession().addEventListener(listener);
+        listeners.add(listener);
+    }
+
+    public void addSyncEventListener(EventListener listener) {
+        getSession().addSyncEventListener(listener);
+        syncListeners.add(listener);
+    }
+
+    /**
+     * Closes the session and returns the lease, the pool creates a new session instead.
+     */
+    public void invalidate() {
+        release(true);
+    }
+
+    /**
+     * Resets the session and returns it to the pool.
+     */
+    @Override
+    public void close() {
+        release(false);
+    }
+
+    PooledSession getPooledSession() {
+        return pooled;
+    }
+
+    private void release(boolean invalidate) {
+        if ( released ) {
+            return;
+        }
+        released = true;
+        for (EventListener next : listeners) {
+            pooled.session.removeEventEventListener(next);
+        }
+        for (EventListener next : syncListeners) {
+            pooled.session.removeSyncEventEventListener(next);
+        }
+        listeners.clear();
+        syncListeners.clear();
+        pool.release(this, invalidate);
+    }
+}
@@ -0,0 +1,281 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.logger.CdpLogger;
+import io.webfolder.cdp.logger.CdpLoggerFactory;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+import io.webfolder.cdp.type.page.NavigateResult;
+
+/**
+ * Keeps a number of warmed sessions of a {@link SessionFactory} and leases them to jobs,
+ * instead of creating and closing a target for every page.
+ *
+ * <pre>
+ * try (SessionPool pool = new SessionPool(factory, options);
+ *                     SessionLease lease = pool.lease()) {
+ *     Session session = lease.getSession();
+ *     session.navigateAndWait(url, WaitUntil.Load);
+ * }
+ * </pre>
+ *
+ * When a lease is closed the session is reset: the listeners added through the lease are removed,
+ * the page navigates to <code>about:blank</code>, the storage of the last origin is cleared and, for
+ * sessions with their own browser context, the cookies of the context. Sessions which fail the reset
+ * or the health check, were leased {@link SessionPoolOptions#maxLeases()} times or were closed are
+ * replaced with new ones.
+ */
+public class SessionPool implements AutoCloseable {
+
+    private final SessionFactory factory;
+
+    private final SessionPoolOptions options;
+
+    private final CdpLogger logger;
+
+    private final BlockingDeque<PooledSession> idle = new LinkedBlockingDeque<>();
+
+    private final Set<PooledSession> sessions = ConcurrentHashMap.newKeySet();
+
+    // idle, leased and sessions being created
+    private final AtomicInteger count = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    public SessionPool(SessionFactory factory) {
+        this(factory, SessionPoolOptions.builder().build());
+    }
+
+    public SessionPool(SessionFactory factory, SessionPoolOptions options) {
+        this.factory = factory;
+        this.options = options;
+        this.logger = new CdpLoggerFactory(factory.getOptions()).getLogger("cdp4j.pool");
+        factory.addCloseListener(() -> closed = true);
+        try {
+            for (int i = 0; i < options.size(); i++) {
+                count.incrementAndGet();
+                idle.add(create());
+            }
+        } catch (CdpException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits up to {@link SessionPoolOptions#leaseTimeout()} for a free session.
+     */
+    public SessionLease lease() {
+        return lease(options.leaseTimeout(), MILLISECONDS);
+    }
+
+    public SessionLease lease(long timeout, TimeUnit unit) {
+        long deadline = nanoTime() + unit.toNanos(timeout);
+        while ( true ) {
+            if ( closed ) {
+                throw new CdpException("Session pool closed");
+            }
+            PooledSession pooled = idle.pollFirst();
+            if ( pooled == null && reserve() ) {
+                pooled = create();
+            }
+            if ( pooled == null ) {
+                long remaining = deadline - nanoTime();
+                if ( remaining <= 0 ) {
+                    throw new CdpException("No session available within " + unit.toMillis(timeout) + " ms");
+                }
+                try {
+                    pooled = idle.pollFirst(remaining, NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CdpException(e);
+                }
+                if ( pooled == null ) {
+                    continue;
+                }
+            }
+            if ( ! options.healthCheck().test(pooled.session) ) {
+                logger.warn("Session [{}] failed the health check, replaced", pooled.session.getId());
+                discard(pooled);
+                continue;
+            }
+            pooled.leases++;
+            return new SessionLease(this, pooled);
+        }
+    }
+
+    public SessionFactory getFactory() {
+        return factory;
+    }
+
+    public SessionPoolOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return number of sessions of the pool, idle and leased
+     */
+    public int getSize() {
+        return sessions.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getLeasedCount() {
+        return Math.max(0, sessions.size() - idle.size());
+    }
+
+    /**
+     * Closes all sessions of the pool, leased sessions included.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        idle.clear();
+        for (PooledSession next : sessions) {
+            discard(next);
+        }
+    }
+
+    void release(SessionLease lease, boolean invalidate) {
+        PooledSession pooled = lease.getPooledSession();
+        if ( closed || invalidate || pooled.leases >= options.maxLeases() || ! reset(pooled) ) {
+            discard(pooled);
+            replenish();
+            return;
+        }
+        idle.offerFirst(pooled);
+    }
+
+    private boolean reset(PooledSession pooled) {
+        Session session = pooled.session;
+        if ( ! session.isConnected() || session.isDisposed() ) {
+            return false;
+        }
+        try {
+            if ( ! session.isRootFrame() ) {
+                session.switchToRootFrame();
+            }
+            Object origin = session.evaluate("location.origin");
+            // about:blank commits before the reply, no need to wait for lifecycle events
+            NavigateResult result = session.getCommand().getPage().navigate("about:blank");
+            if ( result.getErrorText() != null ) {
+                throw new CdpException(result.getErrorText());
+            }
+            if ( origin instanceof String && ((String) origin).startsWith("http") ) {
+                session.getCommand().getStorage().clearDataForOrigin((String) origin, "all");
+            }
+            if ( pooled.browserContextId != null ) {
+                factory.getBrowserSession().getCommand().getStorage().clearCookies(pooled.browserContextId);
+            }
+            return true;
+        } catch (CdpException e) {
+            logger.warn("Session [{}] could not be reset, replaced: {}", session.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean reserve() {
+        int current;
+        while ( (current = count.get()) < options.size() ) {
+            if ( count.compareAndSet(current, current + 1) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the caller reserved a slot in count
+    private PooledSession create() {
+        String browserContextId = null;
+        Session session = null;
+        try {
+            browserContextId = options.isolated() ? factory.createBrowserContext() : null;
+            session = browserContextId == null ? factory.create() : factory.create(browserContextId);
+            // the session joins the pool once it is initialized
+            options.initializer().accept(session);
+            PooledSession pooled = new PooledSession(session, browserContextId);
+            sessions.add(pooled);
+            session.addCloseListener(() -> {
+                if ( idle.remove(pooled) ) {
+                    discard(pooled);
+                }
+            });
+            return pooled;
+        } catch (RuntimeException e) {
+            count.decrementAndGet();
+            if ( ! factory.closed() ) {
+                try {
+                    if ( session != null && session.isConnected() ) {
+                        session.close();
+                    }
+                    if ( browserContextId != null ) {
+                        factory.disposeBrowserContext(browserContextId);
+                    }
+                } catch (CdpException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void replenish() {
+        if ( closed || ! reserve() ) {
+            return;
+        }
+        try {
+            idle.offerFirst(create());
+        } catch (CdpException e) {
+            logger.warn("Session could not be created: {}", e.getMessage());
+        }
+    }
+
+    private void discard(PooledSession pooled) {
+        if ( ! sessions.remove(pooled) ) {
+            return;
+        }
+        count.decrementAndGet();
+        if ( factory.closed() ) {
+            return;
+        }
+        try {
+            if ( pooled.session.isConnected() ) {
+                pooled.session.close();
+            }
+            if ( pooled.browserContextId != null ) {
+                factory.disposeBrowserContext(pooled.browserContextId);
+            }
+        } catch (CdpException e) {
+            logger.warn("Session [{}] could not be closed: {}", pooled.session.getId(), e.getMessage());
+        }
+    }
+
+    static final class PooledSession {
+
+        final Session session;
+
+        final String browserContextId;
+
+        // accessed by the thread which holds the lease
+        int leases;
+
+        PooledSession(Session session, String browserContextId) {
+            this.session = session;
+            this.browserContextId = browserContextId;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.webfolder.cdp.sample;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import io.webfolder.cdp.session.Session;
+
+/**
+ * Settings of a {@link SessionPool}.
+ *
+ * <pre>
+ * SessionPoolOptions.builder()
+ *                     .size(4)
+ *                     .initializer(session -&gt; session.getCommand().getNetwork().enable())
+ *                     .maxLeases(100)
+ *                  .build();
+ * </pre>
+ */
+public class SessionPoolOptions {
+
+    private int size;
+
+    private boolean isolated;
+
+    private int leaseTimeout;
+
+    private int maxLeases;
+
+    private Consumer<Session> initializer;
+
+    private Predicate<Session> healthCheck;
+
+    private SessionPoolOptions() {
+        // no op
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isolated() {
+        return isolated;
+    }
+
+    public int leaseTimeout() {
+        return leaseTimeout;
+    }
+
+    public int maxLeases() {
+        return maxLeases;
+    }
+
+    public Consumer<Session> initializer() {
+        return initializer;
+    }
+
+    public Predicate<Session> healthCheck() {
+        return healthCheck;
+    }
+
+    public static class Builder {
+
+        private final SessionPoolOptions options = new SessionPoolOptions();
+
+        private Builder() {
+            options.isolated = true;
+        }
+
+        /**
+         * Number of warmed sessions, 4 by default.
+         * The free version of cdp4j allows 5 sessions per SessionFactory.
+         */
+        public Builder size(int size) {
+            if ( size < 1 ) {
+                throw new IllegalArgumentException("size");
+            }
+            options.size = size;
+            return this;
+        }
+
+        /**
+         * Creates each session in its own browser context so that cookies and storage
+         * can be cleared without affecting the other sessions, <code>true</code> by default.
+         */
+        public Builder isolated(boolean isolated) {
+            options.isolated = isolated;
+            return this;
+        }
+
+        /**
+         * Milliseconds to wait for a free session, 30 seconds by default.
+         */
+        public Builder leaseTimeout(int leaseTimeout) {
+            options.leaseTimeout = leaseTimeout;
+            return this;
+        }
+
+        /**
+         * Number of leases after which a session is closed and replaced, unlimited by default.
+         */
+        public Builder maxLeases(int maxLeases) {
+            options.maxLeases = maxLeases;
+            return this;
+        }
+
+        /**
+         * Prepares a new session before it is leased for the first time, e.g. enables domains.
+         */
+        public Builder initializer(Consumer<Session> initializer) {
+            options.initializer = initializer;
+            return this;
+        }
+
+        /**
+         * Checked before a session is leased, unhealthy sessions are replaced.
+         * By default the session must be connected and not disposed.
+         */
+        public Builder healthCheck(Predicate<Session> healthCheck) {
+            options.healthCheck = healthCheck;
+            return this;
+        }
+
+        public SessionPoolOptions build() {
+            if ( options.size == 0 ) {
+                options.size = 4;
+            }
+            if ( options.leaseTimeout <= 0 ) {
+                options.leaseTimeout = 30_000;
+            }
+            if ( options.maxLeases <= 0 ) {
+                options.maxLeases = Integer.MAX_VALUE;
+            }
+            if ( options.initializer == null ) {
+                options.initializer = session -> { };
+            }
+            if ( options.healthCheck == null ) {
+                options.healthCheck = session -> session.isConnected() && ! session.isDisposed();
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.webfolder.cdp.sample;
+
+import static java.util.Collections.emptyList;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets several SessionFactories use the same worker or event executor.
+ *
+ * cdp4j shuts down {@link io.webfolder.cdp.Options#workerThreadPool()} and
+ * {@link io.webfolder.cdp.Options#eventHandlerThreadPool()} when a SessionFactory is closed,
+ * the shutdown methods of this view are no-ops so that the executor keeps serving the other
+ * browsers. The owner shuts down the executor itself.
+ *
+ * <pre>
+ * ExecutorService worker = new SharedExecutorService(Executors.newSingleThreadExecutor());
+ * Options options = Options.builder()
+ *                         .workerThreadPool(worker)
+ *                     .build();
+ * </pre>
+ */
+public class SharedExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService executor;
+
+    public SharedExecutorService(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @Override
+    public void shutdown() {
+        // shut down by the owner
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    /**
+     * Does not wait, the executor outlives the SessionFactory which closes this view.
+     */
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return true;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+}
@@ -0,0 +1,60 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.getProperty;
+import static java.nio.file.Paths.get;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Connects several browser processes through a single SelectorWebSocketFactory, all connections
+// share one selector thread instead of two threads per socket, and all SessionFactories share
+// one worker and one event thread instead of two threads per browser.
+public class SharedSelectorWebSocket {
+
+    private static final int BROWSERS = 5;
+
+    public static void main(String[] args) {
+        List<Launcher> launchers = new ArrayList<>();
+        List<SessionFactory> factories = new ArrayList<>();
+        SharedExecutorService worker = new SharedExecutorService(Executors.newSingleThreadExecutor());
+        SharedExecutorService events = new SharedExecutorService(Executors.newSingleThreadExecutor());
+
+        try (SelectorWebSocketFactory channelFactory = new SelectorWebSocketFactory()) {
+            for (int i = 0; i < BROWSERS; i++) {
+                Path userDataDir = get(getProperty("java.io.tmpdir")).resolve("remote-profile-" + i);
+                Options options = Options.builder()
+                                            .headless(true)
+                                            .userDataDir(userDataDir)
+                                            .workerThreadPool(worker)
+                                            .eventHandlerThreadPool(events)
+                                        .build();
+                Launcher launcher = new Launcher(options, channelFactory);
+                launchers.add(launcher);
+                factories.add(launcher.launch());
+            }
+
+            for (SessionFactory factory : factories) {
+                try (Session session = factory.create()) {
+                    session.navigate("https://webfolder.io");
+                    session.waitDocumentReady();
+                    System.out.println("Content Length: " + session.getContent().length());
+                }
+            }
+
+            System.out.println("Browsers: " + BROWSERS + ", JVM threads: " + Thread.activeCount());
+        } finally {
+            for (Launcher launcher : launchers) {
+                launcher.kill();
+            }
+            worker.getExecutor().shutdown();
+            events.getExecutor().shutdown();
+        }
+    }
+}
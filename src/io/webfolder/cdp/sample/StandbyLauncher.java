@@ -0,0 +1,283 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.logger.CdpLogger;
+import io.webfolder.cdp.logger.CdpLoggerFactory;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Keeps {@link StandbyLauncherOptions#standby()} browsers started and connected in the background,
+ * so that {@link #launch()} hands one out immediately instead of forking a browser and polling its
+ * DevTools endpoint on the calling thread.
+ *
+ * Each browser has its own user data directory, a clone of {@link StandbyLauncherOptions#profileTemplate()}
+ * if it is set. A browser is ready once its browser session replied to <code>Browser.getVersion</code>.
+ * Every hand-out starts a replacement in the background, {@link #launch()} starts a browser on the calling
+ * thread only when no standby browser is ready. A standby browser which exits is replaced as well.
+ *
+ * Closing a SessionFactory returned by {@link #launch()} kills its browser and queues its user data
+ * directory for the {@link ProfileCleaner}.
+ *
+ * <pre>
+ * try (StandbyLauncher launcher = new StandbyLauncher(options)) {
+ *     try (SessionFactory factory = launcher.launch();
+ *                         Session session = factory.create()) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+public class StandbyLauncher implements AutoCloseable {
+
+    private final StandbyLauncherOptions options;
+
+    private final CdpLogger logger;
+
+    private final BlockingQueue<StandbyBrowser> ready = new LinkedBlockingQueue<>();
+
+    private final Set<StandbyBrowser> browsers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger launching = new AtomicInteger();
+
+    private final ExecutorService executor;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final LatencyHistogram startTime = new LatencyHistogram();
+
+    private volatile boolean closed;
+
+    public StandbyLauncher() {
+        this(StandbyLauncherOptions.builder().build());
+    }
+
+    public StandbyLauncher(StandbyLauncherOptions options) {
+        this.options = options;
+        Options.Builder builder = Options.builder();
+        options.options().accept(builder);
+        this.logger = new CdpLoggerFactory(builder.build()).getLogger("cdp4j.standby");
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(options.concurrentLaunches(), r -> {
+            Thread thread = new Thread(r, "cdp4j-StandbyLauncher-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        replenish();
+    }
+
+    /**
+     * Hands out a standby browser, or starts one on the calling thread if none is ready.
+     */
+    public SessionFactory launch() {
+        if ( closed ) {
+            throw new CdpException("Standby launcher closed");
+        }
+        StandbyBrowser browser;
+        while ( (browser = ready.poll()) != null && browser.factory.closed() ) {
+            // exited while it was waiting, its close listener replaces it
+        }
+        if ( browser != null ) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            browser = start();
+        }
+        replenish();
+        return browser.factory;
+    }
+
+    /**
+     * @return number of browsers ready to be handed out
+     */
+    public int getStandbyCount() {
+        return ready.size();
+    }
+
+    /**
+     * @return number of browsers being started in the background
+     */
+    public int getLaunchingCount() {
+        return launching.get();
+    }
+
+    /**
+     * @return number of {@link #launch()} calls served by a standby browser
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of {@link #launch()} calls which started a browser on the calling thread
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return time to start and connect a browser, the latency hidden from {@link #launch()}
+     */
+    public LatencyHistogram getStartTime() {
+        return startTime;
+    }
+
+    public StandbyLauncherOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Kills the standby browsers and the browsers which were handed out.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        for (StandbyBrowser next : browsers) {
+            terminate(next);
+        }
+        ready.clear();
+    }
+
+    /**
+     * Creates the launcher of a browser. Override to start browsers differently, e.g. with a custom channel factory.
+     */
+    protected Launcher createLauncher(Options options) {
+        return new Launcher(options);
+    }
+
+    private void replenish() {
+        while ( ! closed ) {
+            int current = launching.get();
+            if ( ready.size() + current >= options.standby() ) {
+                return;
+            }
+            if ( launching.compareAndSet(current, current + 1) ) {
+                try {
+                    executor.execute(this::startStandby);
+                } catch (RuntimeException e) {
+                    // rejected, the launcher is being closed
+                    launching.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void startStandby() {
+        try {
+            StandbyBrowser browser = start();
+            ready.add(browser);
+            if ( closed ) {
+                terminate(browser);
+            }
+        } catch (RuntimeException e) {
+            // retried by the next launch
+            logger.error("Standby browser could not be started", e);
+        } finally {
+            launching.decrementAndGet();
+        }
+    }
+
+    private StandbyBrowser start() {
+        long start = nanoTime();
+        Path userDataDir;
+        if ( options.profileTemplate() != null ) {
+            userDataDir = options.profileTemplate().clone(options.profileDirectory());
+        } else {
+            try {
+                Files.createDirectories(options.profileDirectory());
+                userDataDir = Files.createTempDirectory(options.profileDirectory(), "cdp4j-standby-");
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+        }
+        Options.Builder builder = Options.builder();
+        options.options().accept(builder);
+        builder.userDataDir(userDataDir);
+        Launcher launcher = createLauncher(builder.build());
+        SessionFactory factory = null;
+        try {
+            factory = launcher.launch();
+            // connects the browser session, the first session is created without waiting for the browser
+            factory.getBrowserSession().getCommand().getBrowser().getVersion();
+        } catch (RuntimeException e) {
+            new StandbyBrowser(launcher, factory, userDataDir).kill();
+            throw e;
+        }
+        StandbyBrowser browser = new StandbyBrowser(launcher, factory, userDataDir);
+        browsers.add(browser);
+        factory.addCloseListener(() -> closed(browser));
+        startTime.record(nanoTime() - start);
+        return browser;
+    }
+
+    private void closed(StandbyBrowser browser) {
+        boolean standby = ready.remove(browser);
+        terminate(browser);
+        if ( standby ) {
+            logger.warn("Standby browser [{}] exited, starting a replacement", browser.userDataDir);
+            replenish();
+        }
+    }
+
+    private void terminate(StandbyBrowser browser) {
+        browsers.remove(browser);
+        browser.kill();
+    }
+
+    private static class StandbyBrowser {
+
+        private final Launcher launcher;
+
+        private final SessionFactory factory;
+
+        private final Path userDataDir;
+
+        private final AtomicBoolean killed = new AtomicBoolean();
+
+        StandbyBrowser(Launcher launcher, SessionFactory factory, Path userDataDir) {
+            this.launcher = launcher;
+            this.factory = factory;
+            this.userDataDir = userDataDir;
+        }
+
+        void kill() {
+            if ( ! killed.compareAndSet(false, true) ) {
+                return;
+            }
+            try {
+                if ( factory != null && ! factory.closed() ) {
+                    factory.close();
+                }
+            } catch (RuntimeException e) {
+                // the browser is killed anyway
+            }
+            try {
+                launcher.kill();
+            } catch (RuntimeException e) {
+                // not started
+            } finally {
+                ProfileCleaner.getDefault().delete(userDataDir);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.session.WaitUntil.Load;
+import static java.lang.System.nanoTime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Adds a browser every two seconds, as an autoscaler would, first with a Launcher then with a
+// StandbyLauncher which keeps two browsers started and connected in the background.
+public class StandbyLauncherExample {
+
+    private static final int BROWSERS = 5;
+
+    public static void main(String[] args) throws Exception {
+        for (int i = 0; i < BROWSERS; i++) {
+            Launcher launcher = new Launcher(Options.builder()
+                                                    .headless(true)
+                                                    .createNewUserDataDir(true)
+                                                .build());
+            long start = nanoTime();
+            try (SessionFactory factory = launcher.launch()) {
+                System.out.printf("Launcher        browser %d ready in %6.1f ms%n", i, (nanoTime() - start) / 1e6);
+                visit(factory);
+            } finally {
+                launcher.kill();
+            }
+            Thread.sleep(2_000);
+        }
+
+        StandbyLauncherOptions options = StandbyLauncherOptions.builder()
+                                                            .standby(2)
+                                                            .options(builder -> builder.headless(true))
+                                                        .build();
+
+        try (StandbyLauncher launcher = new StandbyLauncher(options)) {
+            Thread.sleep(2_000);
+            List<SessionFactory> factories = new ArrayList<>();
+            for (int i = 0; i < BROWSERS; i++) {
+                long start = nanoTime();
+                SessionFactory factory = launcher.launch();
+                System.out.printf("StandbyLauncher browser %d ready in %6.1f ms%n", i, (nanoTime() - start) / 1e6);
+                visit(factory);
+                factories.add(factory);
+                Thread.sleep(2_000);
+            }
+            factories.forEach(SessionFactory::close);
+            System.out.printf("Hits: %d, misses: %d, background start p50: %.1f ms%n", launcher.getHits(), launcher.getMisses(),
+                                    launcher.getStartTime().getValueAtPercentile(50) / 1e6);
+        }
+    }
+
+    private static void visit(SessionFactory factory) {
+        try (Session session = factory.create()) {
+            session.navigateAndWait("https://webfolder.io", Load, 30_000);
+        }
+    }
+}
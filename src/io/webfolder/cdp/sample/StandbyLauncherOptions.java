@@ -0,0 +1,136 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.getProperty;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+import io.webfolder.cdp.Options;
+
+/**
+ * Settings of a {@link StandbyLauncher}.
+ *
+ * <pre>
+ * StandbyLauncherOptions.builder()
+ *                         .standby(2)
+ *                         .options(builder -&gt; builder.headless(true))
+ *                      .build();
+ * </pre>
+ */
+public class StandbyLauncherOptions {
+
+    private int standby;
+
+    private int concurrentLaunches;
+
+    private Path profileDirectory;
+
+    private ProfileTemplate profileTemplate;
+
+    private Consumer<Options.Builder> options;
+
+    private StandbyLauncherOptions() {
+        // no op
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int standby() {
+        return standby;
+    }
+
+    public int concurrentLaunches() {
+        return concurrentLaunches;
+    }
+
+    public Path profileDirectory() {
+        return profileDirectory;
+    }
+
+    public ProfileTemplate profileTemplate() {
+        return profileTemplate;
+    }
+
+    public Consumer<Options.Builder> options() {
+        return options;
+    }
+
+    public static class Builder {
+
+        private final StandbyLauncherOptions options = new StandbyLauncherOptions();
+
+        private Builder() {
+            // no op
+        }
+
+        /**
+         * Number of started and connected browsers kept ready for {@link StandbyLauncher#launch()}, 2 by default.
+         */
+        public Builder standby(int standby) {
+            if ( standby < 1 ) {
+                throw new IllegalArgumentException("standby");
+            }
+            options.standby = standby;
+            return this;
+        }
+
+        /**
+         * Number of browsers started at the same time in the background, 1 by default.
+         * Starting several browsers at once makes each of them slower to start.
+         */
+        public Builder concurrentLaunches(int concurrentLaunches) {
+            if ( concurrentLaunches < 1 ) {
+                throw new IllegalArgumentException("concurrentLaunches");
+            }
+            options.concurrentLaunches = concurrentLaunches;
+            return this;
+        }
+
+        /**
+         * Directory of the user data directories of the browsers, the directory of the profile
+         * template or else the temporary directory by default.
+         */
+        public Builder profileDirectory(Path profileDirectory) {
+            options.profileDirectory = profileDirectory;
+            return this;
+        }
+
+        /**
+         * Pre-warmed profile cloned for every browser, <code>null</code> (empty profiles) by default.
+         */
+        public Builder profileTemplate(ProfileTemplate profileTemplate) {
+            options.profileTemplate = profileTemplate;
+            return this;
+        }
+
+        /**
+         * Customizes the options of every browser, the user data directory is set by the launcher.
+         * Thread pools must not be shared between the browsers.
+         */
+        public Builder options(Consumer<Options.Builder> options) {
+            this.options.options = options;
+            return this;
+        }
+
+        public StandbyLauncherOptions build() {
+            if ( options.standby == 0 ) {
+                options.standby = 2;
+            }
+            if ( options.concurrentLaunches == 0 ) {
+                options.concurrentLaunches = 1;
+            }
+            if ( options.profileDirectory == null ) {
+                options.profileDirectory = options.profileTemplate != null ?
+                                                options.profileTemplate.getDirectory().getParent() :
+                                                Paths.get(getProperty("java.io.tmpdir"));
+            }
+            if ( options.options == null ) {
+                options.options = builder -> { };
+            }
+            return options;
+        }
+    }
+}
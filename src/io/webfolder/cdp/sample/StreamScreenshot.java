@@ -0,0 +1,40 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.type.constant.ImageFormat.Png;
+import static java.awt.Desktop.getDesktop;
+import static java.awt.Desktop.isDesktopSupported;
+import static java.nio.file.Files.createTempFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// Screenshot of the viewport decoded straight into the file, the image is never held as a byte array.
+public class StreamScreenshot {
+
+    public static void main(String[] args) throws IOException {
+        AsyncChannelFactory channelFactory = new AsyncChannelFactory(new NvWebSocketFactory());
+        Launcher launcher = new Launcher(channelFactory);
+
+        Path file = createTempFile("screenshot", ".png");
+
+        try (SessionFactory factory = launcher.launch();
+                            Session session = factory.create()) {
+            session.navigate("https://news.ycombinator.com");
+            session.waitDocumentReady();
+            session.activate();
+            long size = StreamTransfer.captureScreenshot(new AsyncCommand(session, channelFactory), Png, file);
+            System.out.println("Screenshot: " + size + " bytes");
+        } finally {
+            launcher.kill();
+        }
+
+        if (isDesktopSupported()) {
+            getDesktop().open(file.toFile());
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.type.constant.TransferMode.ReturnAsStream;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import io.webfolder.cdp.command.IO;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.type.constant.ImageFormat;
+import io.webfolder.cdp.type.io.ReadResult;
+import io.webfolder.cdp.type.page.PrintToPDFResult;
+
+/**
+ * Writes PDF documents and screenshots to a file or stream without holding the
+ * whole document in memory.
+ *
+ * PDF documents are requested with <code>transferMode=ReturnAsStream</code> and read
+ * with <code>IO.read</code> in chunks, every chunk is decoded and written before the
+ * next one is requested. The file is opened once, unlike <code>Session.printToPDF(Path)</code>
+ * which appends every chunk with <code>Files.write</code>.
+ *
+ * <code>Page.captureScreenshot</code> has no stream transfer mode, the Base64 reply is
+ * decoded block by block into the output so only the encoded string is kept in memory.
+ */
+public class StreamTransfer {
+
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private StreamTransfer() {
+        // no op
+    }
+
+    /**
+     * @return number of bytes written
+     */
+    public static long printToPDF(Session session, Path file) {
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            return printToPDF(session, channel);
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+    }
+
+    /**
+     * @return number of bytes written, the stream is not closed
+     */
+    public static long printToPDF(Session session, OutputStream out) {
+        return printToPDF(session, Channels.newChannel(out));
+    }
+
+    public static long printToPDF(Session session, WritableByteChannel out) {
+        PrintToPDFResult result = session.getCommand().getPage().printToPDF(null, null, null, null, null,
+                                                        null, null, null, null, null, null, null,
+                                                        null, null, null, ReturnAsStream);
+        return transfer(session, result.getStream(), out, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Reads a protocol stream (e.g. the stream handle of <code>Page.printToPDF</code> or
+     * <code>Tracing.tracingComplete</code>) and closes it.
+     *
+     * @param chunkSize maximum number of bytes requested with each <code>IO.read</code>
+     *
+     * @return number of bytes written
+     */
+    public static long transfer(Session session, String handle, WritableByteChannel out, int chunkSize) {
+        IO io = session.getCommand().getIO();
+        Base64Chunks decoder = new Base64Chunks(out);
+        long written = 0;
+        try {
+            while ( true ) {
+                ReadResult chunk = io.read(handle, null, chunkSize);
+                String data = chunk.getData();
+                if ( data != null && ! data.isEmpty() ) {
+                    if ( Boolean.TRUE.equals(chunk.getBase64Encoded()) ) {
+                        written += decoder.decode(data);
+                    } else {
+                        written += write(out, ByteBuffer.wrap(data.getBytes(UTF_8)));
+                    }
+                }
+                if ( Boolean.TRUE.equals(chunk.getEof()) ) {
+                    break;
+                }
+            }
+            written += decoder.finish();
+        } catch (IOException e) {
+            throw new CdpException(e);
+        } finally {
+            io.close(handle);
+        }
+        return written;
+    }
+
+    /**
+     * @return number of bytes written
+     */
+    public static long captureScreenshot(AsyncCommand command, ImageFormat format, Path file) {
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            return captureScreenshot(command, format, channel);
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+    }
+
+    /**
+     * The reply is read as a raw {@link JsonObject}, the generated
+     * <code>Page.captureScreenshot</code> decodes the whole image into a byte array.
+     *
+     * @return number of bytes written
+     */
+    public static long captureScreenshot(AsyncCommand command, ImageFormat format, WritableByteChannel out) {
+        JsonObject params = new JsonObject();
+        params.addProperty("format", format.value);
+        CompletableFuture<JsonObject> reply = command.send("Page.captureScreenshot", params);
+        JsonElement data = ReplyWaitingStrategy.getResult(reply).get("data");
+        if ( data == null ) {
+            throw new CdpException("Page.captureScreenshot returned no data");
+        }
+        InputStream decoded = Base64.getDecoder().wrap(new AsciiInputStream(data.getAsString()));
+        byte[] block = new byte[BLOCK_SIZE];
+        long written = 0;
+        try {
+            int read;
+            while ( (read = decoded.read(block)) > 0 ) {
+                written += write(out, ByteBuffer.wrap(block, 0, read));
+            }
+        } catch (IOException e) {
+            throw new CdpException(e);
+        }
+        return written;
+    }
+
+    private static int write(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        while ( buffer.hasRemaining() ) {
+            out.write(buffer);
+        }
+        return length;
+    }
+
+    /**
+     * Decodes Base64 text which arrives in chunks of arbitrary length, characters
+     * which do not complete a 4 character group are carried over to the next chunk.
+     */
+    private static class Base64Chunks {
+
+        private final WritableByteChannel out;
+
+        private final Base64.Decoder decoder = Base64.getDecoder();
+
+        private String carry = "";
+
+        Base64Chunks(WritableByteChannel out) {
+            this.out = out;
+        }
+
+        int decode(String chunk) throws IOException {
+            String data = carry.isEmpty() ? chunk : carry + chunk;
+            int usable = data.length() - (data.length() % 4);
+            carry = data.substring(usable);
+            if ( usable == 0 ) {
+                return 0;
+            }
+            return write(out, ByteBuffer.wrap(decoder.decode(usable == data.length() ? data : data.substring(0, usable))));
+        }
+
+        int finish() throws IOException {
+            if ( carry.isEmpty() ) {
+                return 0;
+            }
+            String rest = carry;
+            carry = "";
+            return write(out, ByteBuffer.wrap(decoder.decode(rest)));
+        }
+    }
+
+    /**
+     * Reads the characters of a Base64 string as bytes without copying it.
+     */
+    static class AsciiInputStream extends InputStream {
+
+        private String value;
+
+        private int position;
+
+        AsciiInputStream(String value) {
+            this.value = value;
+        }
+
+        void reset(String value) {
+            this.value = value;
+            this.position = 0;
+        }
+
+        @Override
+        public int read() {
+            return position < value.length() ? value.charAt(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if ( position >= value.length() ) {
+                return -1;
+            }
+            int count = Math.min(len, value.length() - position);
+            for (int i = 0; i < count; i++) {
+                b[off + i] = (byte) value.charAt(position++);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.sample.OverflowPolicy.Coalesce;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.webfolder.cdp.event.Events;
+import io.webfolder.cdp.listener.EventListener;
+import io.webfolder.cdp.session.Session;
+
+/**
+ * Delivers events on a fixed number of single threaded lanes, every session is
+ * bound to one lane by its session id.
+ *
+ * Events of a session are delivered in FIFO order while sessions on other lanes
+ * are served in parallel, a slow listener only delays the sessions which share its lane.
+ * Events are handed over from a sync listener, the order of arrival is kept as long as
+ * <code>Options.workerThreadPool</code> has a single thread (the default).
+ *
+ * Each session has its own event queue, bounded by {@link EventQueueOptions}.
+ * Events lost by the {@link OverflowPolicy} are counted per {@link Events} constant.
+ */
+public class StripedEventDispatcher implements AutoCloseable {
+
+    // events delivered by a session before the lane moves on to the next session
+    private static final int BATCH_SIZE = 64;
+
+    private final Lane[] lanes;
+
+    private final EventQueueOptions queueOptions;
+
+    private final Map<String, SessionQueue> sessions = new ConcurrentHashMap<>();
+
+    private final Map<Events, AtomicLong> drops = new EnumMap<>(Events.class);
+
+    public StripedEventDispatcher() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedEventDispatcher(int lanes) {
+        this(lanes, EventQueueOptions.builder().build());
+    }
+
+    public StripedEventDispatcher(EventQueueOptions queueOptions) {
+        this(Runtime.getRuntime().availableProcessors(), queueOptions);
+    }
+
+    public StripedEventDispatcher(int lanes, EventQueueOptions queueOptions) {
+        if ( lanes < 1 ) {
+            throw new IllegalArgumentException("lanes");
+        }
+        this.queueOptions = queueOptions;
+        this.lanes = new Lane[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Lane(i);
+        }
+        // populated once, the map is only read afterwards
+        for (Events next : Events.values()) {
+            drops.put(next, new AtomicLong());
+        }
+    }
+
+    /**
+     * Adds a listener which is notified on the lane of the session instead of
+     * <code>Options.eventHandlerThreadPool</code>.
+     */
+    public void addEventListener(Session session, EventListener listener) {
+        String sessionId = session.getId();
+        boolean[] created = { false };
+        SessionQueue queue = sessions.computeIfAbsent(sessionId, key -> {
+            created[0] = true;
+            return new SessionQueue(getLane(key));
+        });
+        queue.listeners.add(listener);
+        if ( created[0] ) {
+            session.addSyncEventListener(queue::offer);
+            session.addCloseListener(() -> {
+                sessions.remove(sessionId);
+                queue.close();
+            });
+        }
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getLaneIndex(String sessionId) {
+        int hash = sessionId.hashCode();
+        hash ^= (hash >>> 16);
+        return (hash & 0x7FFFFFFF) % lanes.length;
+    }
+
+    /**
+     * @return number of events which are waiting for delivery on the lane
+     */
+    public int getQueueDepth(int lane) {
+        return lanes[lane].pending.get();
+    }
+
+    public int[] getQueueDepths() {
+        int[] depths = new int[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            depths[i] = getQueueDepth(i);
+        }
+        return depths;
+    }
+
+    /**
+     * @return number of events which are waiting for delivery to the listeners of the session
+     */
+    public int getQueueDepth(Session session) {
+        SessionQueue queue = sessions.get(session.getId());
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * @return highest queue depth seen on the lane
+     */
+    public int getMaxQueueDepth(int lane) {
+        return lanes[lane].maxDepth.get();
+    }
+
+    public long getDispatchedCount(int lane) {
+        return lanes[lane].dispatched.get();
+    }
+
+    /**
+     * @return number of listener invocations that failed with an exception
+     */
+    public long getErrorCount() {
+        long errors = 0;
+        for (Lane lane : lanes) {
+            errors += lane.errors.get();
+        }
+        return errors;
+    }
+
+    /**
+     * @return number of events of the given type that were discarded by the overflow policy
+     */
+    public long getDropCount(Events event) {
+        return drops.get(event).get();
+    }
+
+    /**
+     * @return discarded event counts, event types without loss are not included
+     */
+    public Map<Events, Long> getDropCounts() {
+        Map<Events, Long> counts = new EnumMap<>(Events.class);
+        for (Map.Entry<Events, AtomicLong> next : drops.entrySet()) {
+            long count = next.getValue().get();
+            if ( count > 0 ) {
+                counts.put(next.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    public EventQueueOptions getQueueOptions() {
+        return queueOptions;
+    }
+
+    @Override
+    public void close() {
+        for (SessionQueue queue : sessions.values()) {
+            queue.close();
+        }
+        sessions.clear();
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+    }
+
+    Lane getLane(String sessionId) {
+        return lanes[getLaneIndex(sessionId)];
+    }
+
+    private static class Entry {
+
+        final Events event;
+
+        Object value;
+
+        Entry(Events event, Object value) {
+            this.event = event;
+            this.value = value;
+        }
+    }
+
+    private class SessionQueue {
+
+        private final Lane lane;
+
+        private final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition notFull = lock.newCondition();
+
+        private final Queue<Entry> queue = new ArrayDeque<>();
+
+        private final Map<Events, Entry> latest = new EnumMap<>(Events.class);
+
+        private boolean scheduled;
+
+        private boolean closed;
+
+        SessionQueue(Lane lane) {
+            this.lane = lane;
+        }
+
+        void offer(Events event, Object value) {
+            OverflowPolicy policy = queueOptions.overflowPolicy();
+            Events dropped = null;
+            lock.lock();
+            try {
+                if ( closed ) {
+                    return;
+                }
+                Entry queued = policy == Coalesce ? latest.get(event) : null;
+                if ( queued != null ) {
+                    queued.value = value;
+                    dropped = event;
+                } else {
+                    if ( queue.size() >= queueOptions.capacity() ) {
+                        switch (policy) {
+                            case Block:
+                                while ( queue.size() >= queueOptions.capacity() && ! closed ) {
+                                    notFull.awaitUninterruptibly();
+                                }
+                                if ( closed ) {
+                                    return;
+                                }
+                            break;
+                            case DropNewest:
+                                drops.get(event).incrementAndGet();
+                                return;
+                            case DropOldest:
+                            case Coalesce:
+                                dropped = poll().event;
+                                lane.pending.decrementAndGet();
+                            break;
+                        }
+                    }
+                    Entry entry = new Entry(event, value);
+                    queue.add(entry);
+                    if ( policy == Coalesce ) {
+                        latest.put(event, entry);
+                    }
+                    lane.enqueued();
+                }
+                if ( ! scheduled ) {
+                    scheduled = true;
+                    submit();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if ( dropped != null ) {
+                drops.get(dropped).incrementAndGet();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Entry poll() {
+            Entry entry = queue.poll();
+            if ( entry != null && latest.get(entry.event) == entry ) {
+                latest.remove(entry.event);
+            }
+            notFull.signal();
+            return entry;
+        }
+
+        private void drain() {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Entry entry;
+                lock.lock();
+                try {
+                    entry = poll();
+                    if ( entry == null ) {
+                        scheduled = false;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                lane.pending.decrementAndGet();
+                for (EventListener listener : listeners) {
+                    lane.deliver(listener, entry.event, entry.value);
+                }
+            }
+            // give the other sessions of the lane a turn
+            submit();
+        }
+
+        private void submit() {
+            try {
+                lane.executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // the lane was shut down, the queued events are discarded
+                lock.lock();
+                try {
+                    scheduled = false;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    static class Lane {
+
+        final ThreadPoolExecutor executor;
+
+        final AtomicInteger pending = new AtomicInteger();
+
+        final AtomicInteger maxDepth = new AtomicInteger();
+
+        final AtomicLong dispatched = new AtomicLong();
+
+        final AtomicLong errors = new AtomicLong();
+
+        Lane(int index) {
+            executor = new ThreadPoolExecutor(1, 1, 0, MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "cdp4j-EventLane-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void enqueued() {
+            int depth = pending.incrementAndGet();
+            int max;
+            while ( depth > (max = maxDepth.get()) && ! maxDepth.compareAndSet(max, depth) ) {
+                // retry
+            }
+        }
+
+        void deliver(EventListener listener, Events event, Object value) {
+            try {
+                listener.onEvent(event, value);
+            } catch (RuntimeException e) {
+                errors.incrementAndGet();
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            } finally {
+                dispatched.incrementAndGet();
+            }
+        }
+    }
+}
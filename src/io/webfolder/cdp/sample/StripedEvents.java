@@ -0,0 +1,59 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.event.Events.NetworkResponseReceived;
+
+import java.util.Arrays;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.event.network.ResponseReceived;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+
+// The listener of the first tab is slow, events of the second tab are still
+// delivered in order on their own lane.
+public class StripedEvents {
+
+    public static void main(String[] args) throws InterruptedException {
+        Launcher launcher = new Launcher();
+
+        try (SessionFactory factory = launcher.launch();
+                StripedEventDispatcher dispatcher = new StripedEventDispatcher(4);
+                            Session slow = factory.create();
+                            Session fast = factory.create()) {
+            dispatcher.addEventListener(slow, (e, d) -> {
+                if (NetworkResponseReceived.equals(e)) {
+                    sleep(100);
+                    System.out.println("slow: " + ((ResponseReceived) d).getResponse().getUrl());
+                }
+            });
+            dispatcher.addEventListener(fast, (e, d) -> {
+                if (NetworkResponseReceived.equals(e)) {
+                    System.out.println("fast: " + ((ResponseReceived) d).getResponse().getUrl());
+                }
+            });
+
+            slow.getCommand().getNetwork().enable();
+            fast.getCommand().getNetwork().enable();
+
+            slow.navigate("https://webfolder.io");
+            fast.navigate("https://webfolder.io");
+            slow.waitDocumentReady();
+            fast.waitDocumentReady();
+
+            System.out.println("Lanes: slow=" + dispatcher.getLaneIndex(slow.getId()) +
+                                        ", fast=" + dispatcher.getLaneIndex(fast.getId()));
+            System.out.println("Queue depths: " + Arrays.toString(dispatcher.getQueueDepths()));
+            Thread.sleep(2000);
+        } finally {
+            launcher.kill();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.webfolder.cdp.sample;
+
+import static io.webfolder.cdp.event.Events.NetworkResponseReceived;
+import static java.util.EnumSet.of;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.channel.NvWebSocketFactory;
+import io.webfolder.cdp.event.network.ResponseReceived;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+import io.webfolder.cdp.type.network.Response;
+
+// Network and Page domains are enabled but only Network.responseReceived is deserialized,
+// every other Network event is dropped by EventFilterChannelFactory without parsing.
+public class SubscribedEvents {
+
+    public static void main(String[] args) {
+        EventFilterChannelFactory channelFactory = new EventFilterChannelFactory(new NvWebSocketFactory());
+        Launcher launcher = new Launcher(channelFactory);
+
+        try (SessionFactory factory = launcher.launch();
+                            Session session = factory.create()) {
+            channelFactory.addEventListener(session, of(NetworkResponseReceived), (e, d) -> {
+                Response response = ((ResponseReceived) d).getResponse();
+                System.out.println(response.getStatus().intValue() + " " + response.getUrl());
+            });
+            session.getCommand().getNetwork().enable();
+            session.navigate("http://cnn.com");
+            session.waitDocumentReady();
+            System.out.println("Skipped events: " + channelFactory.getSkippedEvents() +
+                                    ", bytes: " + channelFactory.getSkippedBytes());
+        } finally {
+            launcher.kill();
+        }
+    }
+}
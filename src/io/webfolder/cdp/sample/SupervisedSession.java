@@ -0,0 +1,212 @@
+package io.webfolder.cdp.sample;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.listener.EventListener;
+import io.webfolder.cdp.logger.CdpLogger;
+import io.webfolder.cdp.session.Session;
+import io.webfolder.cdp.session.SessionFactory;
+import io.webfolder.cdp.session.SessionSettings;
+
+/**
+ * A session created by a {@link BrowserSupervisor}, which outlives the crash of its target and
+ * the restart of its browser.
+ *
+ * The settings of the session and the listeners added through it are kept: after a crash the
+ * supervisor creates a new Session with the same settings, adds the listeners again and notifies
+ * the {@link #addRecreateListener(Consumer) recreate listeners}, which restore the state of the page
+ * (e.g. navigate back to the last URL). Meanwhile {@link #getSession()} throws
+ * {@link BrowserCrashedException}.
+ *
+ * <pre>
+ * SupervisedSession supervised = supervisor.create();
+ * supervised.addRecreateListener(session -&gt; session.navigate(url));
+ * String title = supervised.call(session -&gt; session.getTitle());
+ * </pre>
+ */
+public class SupervisedSession implements AutoCloseable {
+
+    private final BrowserSupervisor supervisor;
+
+    private final SessionSettings settings;
+
+    private final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final List<EventListener> syncListeners = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<Session>> recreateListeners = new CopyOnWriteArrayList<>();
+
+    private volatile Session session;
+
+    private volatile String reason;
+
+    private volatile int generation;
+
+    private volatile boolean closed;
+
+    SupervisedSession(BrowserSupervisor supervisor, SessionSettings settings, Session session) {
+        this.supervisor = supervisor;
+        this.settings = settings;
+        this.session = session;
+    }
+
+    /**
+     * @return the current session
+     *
+     * @throws BrowserCrashedException if the session was lost and is not re-created yet
+     */
+    public Session getSession() {
+        if ( closed ) {
+            throw new CdpException("Session closed");
+        }
+        String reason = this.reason;
+        if ( reason != null ) {
+            throw new BrowserCrashedException(reason);
+        }
+        return session;
+    }
+
+    /**
+     * Runs an action with the current session, the errors caused by a crash are rethrown as
+     * {@link BrowserCrashedException}.
+     */
+    public <T> T call(Function<Session, T> action) {
+        int generation = this.generation;
+        Session session = getSession();
+        try {
+            return action.apply(session);
+        } catch (CdpException e) {
+            String reason = this.reason;
+            if ( BrowserCrashedException.isCrash(e) || reason != null || generation != this.generation
+                        || ! session.isConnected() ) {
+                throw e instanceof BrowserCrashedException ? e : new BrowserCrashedException(reason != null ? reason : e.getMessage(), e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a listener to the current session and to the sessions which replace it.
+     */
+    public void addEventListener(EventListener listener) {
+        listeners.add(listener);
+        session.addEventListener(listener);
+    }
+
+    public void removeEventListener(EventListener listener) {
+        listeners.remove(listener);
+        session.removeEventEventListener(listener);
+    }
+
+    /**
+     * Adds a sync listener to the current session and to the sessions which replace it.
+     */
+    public void addSyncEventListener(EventListener listener) {
+        syncListeners.add(listener);
+        session.addSyncEventListener(listener);
+    }
+
+    public void removeSyncEventListener(EventListener listener) {
+        syncListeners.remove(listener);
+        session.removeSyncEventEventListener(listener);
+    }
+
+    /**
+     * Notified with the new session after a re-creation, on the re-creation thread of the supervisor. The session
+     * is reported lost until the recreate listeners have returned.
+     */
+    public void addRecreateListener(Consumer<Session> listener) {
+        recreateListeners.add(listener);
+    }
+
+    public void removeRecreateListener(Consumer<Session> listener) {
+        recreateListeners.remove(listener);
+    }
+
+    public SessionSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * @return <code>true</code> if the session was lost and is not re-created yet
+     */
+    public boolean isLost() {
+        return reason != null;
+    }
+
+    /**
+     * @return number of times the session was re-created
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public void close() {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        supervisor.closed(this);
+        Session session = this.session;
+        if ( reason == null && session.isConnected() ) {
+            try {
+                session.close();
+            } catch (CdpException e) {
+                // the browser is being lost
+            }
+        }
+    }
+
+    Session current() {
+        return session;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void lost(String reason) {
+        this.reason = reason;
+    }
+
+    /**
+     * Replaces the session with a new one created by the factory, the old session is closed if its browser is alive.
+     */
+    void recreate(SessionFactory factory, CdpLogger logger) {
+        Session old = session;
+        if ( ! factory.closed() && old.isConnected() ) {
+            try {
+                old.close();
+            } catch (CdpException e) {
+                // the target is gone already
+            }
+        }
+        Session next = settings == null ? factory.create() : factory.create(settings);
+        for (EventListener listener : listeners) {
+            next.addEventListener(listener);
+        }
+        for (EventListener listener : syncListeners) {
+            next.addSyncEventListener(listener);
+        }
+        session = next;
+        if ( closed ) {
+            next.close();
+            return;
+        }
+        for (Consumer<Session> listener : recreateListeners) {
+            try {
+                listener.accept(next);
+            } catch (RuntimeException e) {
+                logger.error("Recreate listener failed for [" + next.getId() + "]", e);
+            }
+        }
+        // the session is usable once its state is restored
+        generation++;
+        reason = null;
+    }
+}
@@ -0,0 +1,336 @@
+package io.webfolder.cdp.sample;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonObject;
+
+import io.webfolder.cdp.channel.Channel;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.channel.Connection;
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.session.MessageHandler;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Decorates a {@link ChannelFactory} for a {@link BrowserSupervisor}: keeps track of the commands
+ * cdp4j is waiting for and reports <code>Inspector.targetCrashed</code>.
+ *
+ * cdp4j waits for the reply of a command until its read timeout, even if the target crashed or
+ * the browser exited. {@link #fail(String, String)} answers the commands in flight with an error
+ * reply whose code is {@link BrowserCrashedException#CODE}, the waiting threads are released
+ * immediately. The id and the session id of a request are read from the fixed layout of the
+ * message (<code>{"id":1,"sessionId":"..."</code>), the replies are not parsed.
+ */
+public class SupervisorChannelFactory extends AsyncChannelFactory {
+
+    private static final String TARGET_CRASHED = "Inspector.targetCrashed";
+
+    private static final String ID = "{\"id\":";
+
+    private static final String SESSION_ID = ",\"sessionId\":\"";
+
+    private static final int HEAD_LENGTH = 128;
+
+    private static final int TAIL_LENGTH = 128;
+
+    private final Set<RequestKey> requests = ConcurrentHashMap.newKeySet();
+
+    private final List<Consumer<String>> crashListeners = new CopyOnWriteArrayList<>();
+
+    private volatile MessageHandler handler;
+
+    public SupervisorChannelFactory(ChannelFactory delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public Channel createChannel(Connection connection, SessionFactory factory, MessageHandler handler) {
+        this.handler = handler;
+        return new SupervisorChannel(super.createChannel(connection, factory, new SupervisorMessageHandler(handler)));
+    }
+
+    /**
+     * Notified with the session id of a crashed target, on the thread which reads the channel.
+     */
+    public void addCrashListener(Consumer<String> listener) {
+        crashListeners.add(listener);
+    }
+
+    public void removeCrashListener(Consumer<String> listener) {
+        crashListeners.remove(listener);
+    }
+
+    /**
+     * Fails the commands in flight with {@link BrowserCrashedException#CODE}.
+     *
+     * @param sessionId session of a crashed target, <code>null</code> for every session, asynchronous commands included
+     */
+    public void fail(String sessionId, String reason) {
+        MessageHandler handler = this.handler;
+        for (RequestKey next : requests) {
+            if ( (sessionId == null || sessionId.equals(next.sessionId)) && requests.remove(next) && handler != null ) {
+                try {
+                    handler.process(errorReply(next, reason));
+                } catch (RuntimeException e) {
+                    // cdp4j disposed the session already, its commands are released
+                }
+            }
+        }
+        if ( sessionId == null ) {
+            failAll(new BrowserCrashedException(reason));
+        }
+    }
+
+    /**
+     * @return number of cdp4j commands waiting for their reply
+     */
+    public int getInFlightCount() {
+        return requests.size();
+    }
+
+    private static String errorReply(RequestKey request, String reason) {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", BrowserCrashedException.CODE);
+        error.addProperty("message", reason);
+        JsonObject reply = new JsonObject();
+        reply.addProperty("id", request.id);
+        reply.add("error", error);
+        if ( request.sessionId != null ) {
+            reply.addProperty("sessionId", request.sessionId);
+        }
+        return reply.toString();
+    }
+
+    private void sent(String message) {
+        if ( ! message.startsWith(ID) ) {
+            return;
+        }
+        int position = ID.length();
+        int id = 0;
+        char c;
+        while ( position < message.length() && (c = message.charAt(position)) >= '0' && c <= '9' ) {
+            id = id * 10 + (c - '0');
+            position++;
+        }
+        String sessionId = null;
+        if ( message.startsWith(SESSION_ID, position) ) {
+            int begin = position + SESSION_ID.length();
+            int end = message.indexOf('"', begin);
+            if ( end < 0 ) {
+                return;
+            }
+            sessionId = message.substring(begin, end);
+        }
+        requests.add(new RequestKey(sessionId, id));
+    }
+
+    private void received(int id, String tail) {
+        requests.remove(new RequestKey(MetricsChannelFactory.readTrailingSessionId(tail), id));
+    }
+
+    private void crashed(String sessionId) {
+        for (Consumer<String> next : crashListeners) {
+            next.accept(sessionId);
+        }
+    }
+
+    private static final class RequestKey {
+
+        private final String sessionId;
+
+        private final int id;
+
+        RequestKey(String sessionId, int id) {
+            this.sessionId = sessionId;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if ( ! (other instanceof RequestKey) ) {
+                return false;
+            }
+            RequestKey key = (RequestKey) other;
+            return id == key.id && Objects.equals(sessionId, key.sessionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * id + (sessionId == null ? 0 : sessionId.hashCode());
+        }
+    }
+
+    private class SupervisorChannel implements Channel {
+
+        private final Channel channel;
+
+        SupervisorChannel(Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void disconnect() {
+            channel.disconnect();
+        }
+
+        @Override
+        public void sendText(String message) {
+            sent(message);
+            channel.sendText(message);
+        }
+
+        @Override
+        public void sendText(byte[] message) {
+            sent(new String(message, 0, Math.min(message.length, HEAD_LENGTH), UTF_8));
+            channel.sendText(message);
+        }
+
+        @Override
+        public void connect() {
+            channel.connect();
+        }
+    }
+
+    private class SupervisorMessageHandler implements MessageHandler {
+
+        private final MessageHandler handler;
+
+        SupervisorMessageHandler(MessageHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void process(String message) {
+            int id = AsyncChannelFactory.readReplyId(message);
+            if ( id >= 0 ) {
+                received(id, message);
+            }
+            handler.process(message);
+            if ( id < 0 && TARGET_CRASHED.equals(EventFilterChannelFactory.readMethod(message)) ) {
+                crashed(EventFilterChannelFactory.readSessionId(message));
+            }
+        }
+
+        @Override
+        public void process(byte[] message) {
+            int id = AsyncChannelFactory.readReplyId(message);
+            if ( id >= 0 ) {
+                int offset = Math.max(0, message.length - TAIL_LENGTH);
+                received(id, new String(message, offset, message.length - offset, UTF_8));
+            }
+            handler.process(message);
+            if ( id < 0 && TARGET_CRASHED.equals(EventFilterChannelFactory.readMethod(message, message.length)) ) {
+                crashed(EventFilterChannelFactory.readSessionId(message, 0, message.length));
+            }
+        }
+
+        @Override
+        public void process(InputStream message) {
+            InputStream is = message.markSupported() ? message : new BufferedInputStream(message);
+            byte[] head = new byte[HEAD_LENGTH];
+            int headLength = 0;
+            try {
+                is.mark(HEAD_LENGTH);
+                int read;
+                while ( headLength < head.length && (read = is.read(head, headLength, head.length - headLength)) > 0 ) {
+                    headLength += read;
+                }
+                is.reset();
+            } catch (IOException e) {
+                throw new CdpException(e);
+            }
+            int id = AsyncChannelFactory.readReplyId(headLength == head.length ? head : Arrays.copyOf(head, headLength));
+            if ( id >= 0 ) {
+                // the session id is the last member, known once cdp4j has read the whole reply
+                handler.process(new TailInputStream(is, tail -> received(id, tail)));
+            } else if ( TARGET_CRASHED.equals(EventFilterChannelFactory.readMethod(head, headLength)) ) {
+                process(EventFilterChannelFactory.readAll(is));
+            } else {
+                handler.process(is);
+            }
+        }
+    }
+
+    // keeps the last bytes which were read, passed to the consumer at the end of the stream
+    private static class TailInputStream extends FilterInputStream {
+
+        private final byte[] tail = new byte[TAIL_LENGTH];
+
+        private final Consumer<String> consumer;
+
+        private int length;
+
+        private int position;
+
+        private boolean done;
+
+        TailInputStream(InputStream is, Consumer<String> consumer) {
+            super(is);
+            this.consumer = consumer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if ( b < 0 ) {
+                end();
+            } else {
+                append((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if ( read < 0 ) {
+                end();
+            }
+            for (int i = Math.max(0, read - TAIL_LENGTH); i < read; i++) {
+                append(b[off + i]);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            end();
+            super.close();
+        }
+
+        private void append(byte b) {
+            tail[position] = b;
+            position = (position + 1) % TAIL_LENGTH;
+            length = Math.min(length + 1, TAIL_LENGTH);
+        }
+
+        private void end() {
+            if ( done ) {
+                return;
+            }
+            done = true;
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = tail[(position - length + i + TAIL_LENGTH) % TAIL_LENGTH];
+            }
+            consumer.accept(new String(bytes, UTF_8));
+        }
+    }
+}
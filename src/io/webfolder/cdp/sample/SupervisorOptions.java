@@ -0,0 +1,138 @@
+package io.webfolder.cdp.sample;
+
+import java.util.function.Consumer;
+
+import io.webfolder.cdp.Options;
+
+/**
+ * Settings of a {@link BrowserSupervisor}.
+ *
+ * <pre>
+ * SupervisorOptions.builder()
+ *                     .heartbeatInterval(500)
+ *                     .heartbeatTimeout(3_000)
+ *                     .options(builder -&gt; builder.headless(true))
+ *                  .build();
+ * </pre>
+ */
+public class SupervisorOptions {
+
+    private int heartbeatInterval;
+
+    private int heartbeatTimeout;
+
+    private boolean recreateSessions;
+
+    private int maxRestarts;
+
+    private Consumer<Options.Builder> options;
+
+    private SupervisorOptions() {
+        // no op
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int heartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public int heartbeatTimeout() {
+        return heartbeatTimeout;
+    }
+
+    public boolean recreateSessions() {
+        return recreateSessions;
+    }
+
+    public int maxRestarts() {
+        return maxRestarts;
+    }
+
+    public Consumer<Options.Builder> options() {
+        return options;
+    }
+
+    public static class Builder {
+
+        private final SupervisorOptions options = new SupervisorOptions();
+
+        private Builder() {
+            options.recreateSessions = true;
+            options.maxRestarts = -1;
+        }
+
+        /**
+         * Milliseconds between two <code>Browser.getVersion</code> heartbeats, 500 ms by default.
+         */
+        public Builder heartbeatInterval(int heartbeatInterval) {
+            if ( heartbeatInterval < 1 ) {
+                throw new IllegalArgumentException("heartbeatInterval");
+            }
+            options.heartbeatInterval = heartbeatInterval;
+            return this;
+        }
+
+        /**
+         * Milliseconds without a heartbeat reply after which the browser is considered hung,
+         * killed and restarted, 3 seconds by default. Must be greater than the heartbeat interval.
+         */
+        public Builder heartbeatTimeout(int heartbeatTimeout) {
+            if ( heartbeatTimeout < 1 ) {
+                throw new IllegalArgumentException("heartbeatTimeout");
+            }
+            options.heartbeatTimeout = heartbeatTimeout;
+            return this;
+        }
+
+        /**
+         * Re-creates the open {@link SupervisedSession}s, with their settings and listeners, after a
+         * crash of their target or a restart of the browser, <code>true</code> by default.
+         */
+        public Builder recreateSessions(boolean recreateSessions) {
+            options.recreateSessions = recreateSessions;
+            return this;
+        }
+
+        /**
+         * Number of times the browser is restarted before the supervisor gives up, unlimited by default.
+         */
+        public Builder maxRestarts(int maxRestarts) {
+            if ( maxRestarts < 0 ) {
+                throw new IllegalArgumentException("maxRestarts");
+            }
+            options.maxRestarts = maxRestarts;
+            return this;
+        }
+
+        /**
+         * Customizes the options of every launched browser, called again for every restart.
+         * Thread pools must not be shared between the launches.
+         */
+        public Builder options(Consumer<Options.Builder> options) {
+            this.options.options = options;
+            return this;
+        }
+
+        public SupervisorOptions build() {
+            if ( options.heartbeatInterval == 0 ) {
+                options.heartbeatInterval = 500;
+            }
+            if ( options.heartbeatTimeout == 0 ) {
+                options.heartbeatTimeout = 3_000;
+            }
+            if ( options.heartbeatTimeout <= options.heartbeatInterval ) {
+                throw new IllegalArgumentException("heartbeatTimeout must be greater than heartbeatInterval");
+            }
+            if ( options.maxRestarts < 0 ) {
+                options.maxRestarts = Integer.MAX_VALUE;
+            }
+            if ( options.options == null ) {
+                options.options = builder -> { };
+            }
+            return options;
+        }
+    }
+}
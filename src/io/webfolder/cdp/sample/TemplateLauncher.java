@@ -0,0 +1,132 @@
+package io.webfolder.cdp.sample;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import io.webfolder.cdp.Launcher;
+import io.webfolder.cdp.Options;
+import io.webfolder.cdp.channel.ChannelFactory;
+import io.webfolder.cdp.session.SessionFactory;
+
+/**
+ * Launches a browser on a clone of a {@link ProfileTemplate} instead of an empty user data
+ * directory (compare with <code>Options.createNewUserDataDir</code>).
+ *
+ * The clone is deleted by a {@link ProfileCleaner} once the browser is killed or its
+ * SessionFactory is closed, the close path only queues the directory.
+ *
+ * <pre>
+ * TemplateLauncher launcher = new TemplateLauncher(template, builder -&gt; builder.headless(true));
+ * try (SessionFactory factory = launcher.launch()) {
+ *     ...
+ * } finally {
+ *     launcher.kill();
+ * }
+ * </pre>
+ */
+public class TemplateLauncher {
+
+    private final ProfileTemplate template;
+
+    private final Consumer<Options.Builder> options;
+
+    private final ChannelFactory channelFactory;
+
+    private final Path profileDirectory;
+
+    private final ProfileCleaner cleaner;
+
+    private volatile Launch current;
+
+    public TemplateLauncher(ProfileTemplate template, Consumer<Options.Builder> options) {
+        this(template, options, null);
+    }
+
+    /**
+     * @param channelFactory <code>null</code> for the default channel factory of the Launcher
+     */
+    public TemplateLauncher(ProfileTemplate template, Consumer<Options.Builder> options, ChannelFactory channelFactory) {
+        this(template, options, channelFactory, template.getDirectory().getParent(), ProfileCleaner.getDefault());
+    }
+
+    /**
+     * @param profileDirectory directory of the clones, on the file system of the template
+     */
+    public TemplateLauncher(ProfileTemplate template, Consumer<Options.Builder> options, ChannelFactory channelFactory,
+                                Path profileDirectory, ProfileCleaner cleaner) {
+        this.template = template;
+        this.options = options;
+        this.channelFactory = channelFactory;
+        this.profileDirectory = profileDirectory;
+        this.cleaner = cleaner;
+    }
+
+    /**
+     * Clones the template and starts the browser on the clone.
+     */
+    public SessionFactory launch() {
+        Path userDataDir = template.clone(profileDirectory);
+        Options.Builder builder = Options.builder();
+        options.accept(builder);
+        builder.userDataDir(userDataDir);
+        Options launchOptions = builder.build();
+        Launcher launcher = channelFactory == null ? new Launcher(launchOptions) : new Launcher(launchOptions, channelFactory);
+        SessionFactory factory;
+        try {
+            factory = launcher.launch();
+        } catch (RuntimeException e) {
+            cleaner.delete(userDataDir);
+            throw e;
+        }
+        Launch launch = new Launch(launcher, userDataDir);
+        factory.addCloseListener(launch::kill);
+        current = launch;
+        return factory;
+    }
+
+    /**
+     * Kills the last launched browser and queues its user data directory for deletion.
+     */
+    public boolean kill() {
+        Launch launch = current;
+        return launch != null && launch.kill();
+    }
+
+    /**
+     * @return user data directory of the last launched browser
+     */
+    public Path getUserDataDir() {
+        Launch launch = current;
+        return launch == null ? null : launch.userDataDir;
+    }
+
+    public ProfileTemplate getTemplate() {
+        return template;
+    }
+
+    private class Launch {
+
+        private final Launcher launcher;
+
+        private final Path userDataDir;
+
+        private final AtomicBoolean killed = new AtomicBoolean();
+
+        Launch(Launcher launcher, Path userDataDir) {
+            this.launcher = launcher;
+            this.userDataDir = userDataDir;
+        }
+
+        boolean kill() {
+            if ( ! killed.compareAndSet(false, true) ) {
+                return false;
+            }
+            try {
+                return launcher.kill();
+            } finally {
+                cleaner.delete(userDataDir);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.locks.LockSupport.park;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.webfolder.cdp.exception.CdpException;
+import io.webfolder.cdp.exception.CdpReadTimeoutException;
+
+/**
+ * Waiting strategy for callers running on virtual threads.
+ *
+ * The caller parks right away with {@link java.util.concurrent.locks.LockSupport}, it never
+ * spins or yields (both would hold the carrier thread) and never waits inside a
+ * <code>synchronized</code> block (which pins the virtual thread to its carrier).
+ * The completing thread unparks the caller, on a virtual thread this only reschedules it.
+ */
+public class VirtualThreadWaitingStrategy implements ReplyWaitingStrategy {
+
+    @Override
+    public <T> T await(CompletableFuture<T> future, int timeout) {
+        if ( ! future.isDone() ) {
+            parkUntilDone(future, timeout, nanoTime());
+        }
+        return ReplyWaitingStrategy.getResult(future);
+    }
+
+    static void parkUntilDone(CompletableFuture<?> future, int timeout, long start) {
+        Thread thread = Thread.currentThread();
+        future.whenComplete((result, error) -> unpark(thread));
+        long deadline = start + MILLISECONDS.toNanos(timeout);
+        while ( ! future.isDone() ) {
+            if ( thread.isInterrupted() ) {
+                throw new CdpException(new InterruptedException());
+            }
+            if ( timeout > 0 ) {
+                long remaining = deadline - nanoTime();
+                if ( remaining <= 0 ) {
+                    throw new CdpReadTimeoutException(timeout + "ms timeout exceeded");
+                }
+                parkNanos(future, remaining);
+            } else {
+                park(future);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.webfolder.cdp.sample;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Caller observed latency of the waiting strategies for simulated reply times.
+// "Semaphore" and "ParkThread" mimic cdp4j's WaitingStrategy implementations,
+// a responder thread completes each command after a busy wait. No browser required.
+public class WaitingStrategyBenchmark {
+
+    private static final int WARMUP = 20_000;
+
+    private static final int ITERATIONS = 50_000;
+
+    private static final long[] REPLY_TIMES_US = { 10, 100, 500 };
+
+    private static final AtomicReference<CompletableFuture<Object>> request = new AtomicReference<>();
+
+    private static volatile long replyTime;
+
+    public static void main(String[] args) {
+        Thread responder = new Thread(WaitingStrategyBenchmark::respond, "responder");
+        responder.setDaemon(true);
+        responder.start();
+
+        ReplyWaitingStrategy semaphore = new ReplyWaitingStrategy() {
+
+            @Override
+            public <T> T await(CompletableFuture<T> future, int timeout) {
+                Semaphore permit = new Semaphore(0);
+                future.whenComplete((result, error) -> permit.release());
+                try {
+                    permit.tryAcquire(timeout, MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ReplyWaitingStrategy.getResult(future);
+            }
+        };
+
+        ReplyWaitingStrategy parkThread = new ReplyWaitingStrategy() {
+
+            @Override
+            public <T> T await(CompletableFuture<T> future, int timeout) {
+                Thread thread = Thread.currentThread();
+                future.whenComplete((result, error) -> LockSupport.unpark(thread));
+                while ( ! future.isDone() ) {
+                    LockSupport.parkNanos(MILLISECONDS.toNanos(timeout));
+                }
+                return ReplyWaitingStrategy.getResult(future);
+            }
+        };
+
+        for (long replyTimeUs : REPLY_TIMES_US) {
+            replyTime = replyTimeUs * 1_000;
+            System.out.println("Reply time: " + replyTimeUs + " us");
+            run("Semaphore    ", semaphore);
+            run("ParkThread   ", parkThread);
+            run("Adaptive     ", new AdaptiveWaitingStrategy());
+            run("VirtualThread", new VirtualThreadWaitingStrategy());
+        }
+    }
+
+    private static void run(String name, ReplyWaitingStrategy strategy) {
+        for (int i = 0; i < WARMUP; i++) {
+            call(strategy);
+        }
+        long[] overhead = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            overhead[i] = call(strategy) - replyTime;
+        }
+        Arrays.sort(overhead);
+        System.out.printf("  %s overhead p50: %6.1f us, p99: %6.1f us%n", name,
+                            overhead[ITERATIONS / 2] / 1_000.0,
+                            overhead[ITERATIONS * 99 / 100] / 1_000.0);
+    }
+
+    private static long call(ReplyWaitingStrategy strategy) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        long start = nanoTime();
+        request.set(future);
+        strategy.await(future, 10_000);
+        return nanoTime() - start;
+    }
+
+    private static void respond() {
+        while ( true ) {
+            CompletableFuture<Object> future = request.getAndSet(null);
+            if ( future != null ) {
+                long deadline = nanoTime() + replyTime;
+                while ( nanoTime() < deadline ) {
+                    // simulated browser and transport time
+                }
+                future.complete(Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package io.webfolder.cdp.sample;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.util.Base64.getEncoder;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.webfolder.cdp.exception.CdpException;
+
+/**
+ * Minimal RFC 6455 framing used by {@link SelectorWebSocketFactory} (client side)
+ * and {@link FakeDevTools} (server side, frames are not masked).
+ * Extensions (permessage-deflate) are never negotiated.
+ */
+class WebSocketFrames {
+
+    static final int OPCODE_CONTINUATION = 0x0;
+
+    static final int OPCODE_TEXT = 0x1;
+
+    static final int OPCODE_BINARY = 0x2;
+
+    static final int OPCODE_CLOSE = 0x8;
+
+    static final int OPCODE_PING = 0x9;
+
+    static final int OPCODE_PONG = 0xA;
+
+    private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    interface FrameListener {
+
+        void onMessage(int opcode, byte[] payload);
+    }
+
+    static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return getEncoder().encodeToString(sha1.digest((key + GUID).getBytes(ISO_8859_1)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new CdpException(e);
+        }
+    }
+
+    static ByteBuffer encode(int opcode, byte[] payload, boolean mask) {
+        int length = payload.length;
+        int header = 2 + (length < 126 ? 0 : length <= 0xFFFF ? 2 : 8) + (mask ? 4 : 0);
+        ByteBuffer frame = ByteBuffer.allocate(header + length);
+        frame.put((byte) (0x80 | opcode));
+        int maskBit = mask ? 0x80 : 0;
+        if ( length < 126 ) {
+            frame.put((byte) (maskBit | length));
+        } else if ( length <= 0xFFFF ) {
+            frame.put((byte) (maskBit | 126));
+            frame.putShort((short) length);
+        } else {
+            frame.put((byte) (maskBit | 127));
+            frame.putLong(length);
+        }
+        if ( mask ) {
+            byte[] key = new byte[4];
+            ThreadLocalRandom.current().nextBytes(key);
+            frame.put(key);
+            for (int i = 0; i < length; i++) {
+                frame.put((byte) (payload[i] ^ key[i & 3]));
+            }
+        } else {
+            frame.put(payload);
+        }
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Incremental decoder, feed it with the bytes read from the socket.
+     * Fragmented messages are reassembled before they are passed to the listener.
+     */
+    static class Decoder {
+
+        private final FrameListener listener;
+
+        private byte[] message = new byte[0];
+
+        private int messageLength;
+
+        private int messageOpcode = -1;
+
+        Decoder(FrameListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Decodes all complete frames of the buffer, the buffer is left positioned
+         * at the beginning of the first incomplete frame.
+         */
+        void decode(ByteBuffer buffer) {
+            while ( true ) {
+                int start = buffer.position();
+                if ( buffer.remaining() < 2 ) {
+                    return;
+                }
+                int b0 = buffer.get() & 0xFF;
+                int b1 = buffer.get() & 0xFF;
+                boolean fin = (b0 & 0x80) != 0;
+                int opcode = b0 & 0x0F;
+                boolean masked = (b1 & 0x80) != 0;
+                long length = b1 & 0x7F;
+                if ( length == 126 ) {
+                    if ( buffer.remaining() < 2 ) {
+                        buffer.position(start);
+                        return;
+                    }
+                    length = buffer.getShort() & 0xFFFF;
+                } else if ( length == 127 ) {
+                    if ( buffer.remaining() < 8 ) {
+                        buffer.position(start);
+                        return;
+                    }
+                    length = buffer.getLong();
+                }
+                if ( length > Integer.MAX_VALUE - 8 ) {
+                    throw new CdpException("WebSocket frame too large: " + length);
+                }
+                byte[] key = null;
+                if ( masked ) {
+                    if ( buffer.remaining() < 4 ) {
+                        buffer.position(start);
+                        return;
+                    }
+                    key = new byte[4];
+                    buffer.get(key);
+                }
+                if ( buffer.remaining() < length ) {
+                    buffer.position(start);
+                    return;
+                }
+                byte[] payload = new byte[(int) length];
+                buffer.get(payload);
+                if ( key != null ) {
+                    for (int i = 0; i < payload.length; i++) {
+                        payload[i] ^= key[i & 3];
+                    }
+                }
+                if ( opcode >= OPCODE_CLOSE ) {
+                    // control frames are never fragmented
+                    listener.onMessage(opcode, payload);
+                } else if ( fin && opcode != OPCODE_CONTINUATION && messageOpcode < 0 ) {
+                    listener.onMessage(opcode, payload);
+                } else {
+                    if ( opcode != OPCODE_CONTINUATION ) {
+                        messageOpcode = opcode;
+                        messageLength = 0;
+                    }
+                    append(payload);
+                    if ( fin ) {
+                        byte[] complete = Arrays.copyOf(message, messageLength);
+                        int completeOpcode = messageOpcode;
+                        messageOpcode = -1;
+                        messageLength = 0;
+                        message = new byte[0];
+                        listener.onMessage(completeOpcode, complete);
+                    }
+                }
+            }
+        }
+
+        private void append(byte[] payload) {
+            int required = messageLength + payload.length;
+            if ( required > message.length ) {
+                message = Arrays.copyOf(message, Math.max(required, message.length * 2));
+            }
+            System.arraycopy(payload, 0, message, messageLength, payload.length);
+            messageLength = required;
+        }
+    }
+}